@@ -17,6 +17,7 @@ import javafx.util.Callback;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -27,7 +28,7 @@ import java.util.stream.Collectors;
 public class BookListController {
 
     private ClientService clientService;
-    private Map<String, Book> bookMap; // 用于通过bookId快速查找图书对象
+    private Map<String, Book> bookMap = new HashMap<>(); // 用于通过bookId快速查找图书对象
 
     // 绑定图书列表 Tab 的 FXML 控件
     @FXML private TabPane libraryTabPane;
@@ -87,50 +88,47 @@ public class BookListController {
             clientService = new ClientService();
         }
 
-        // 首先加载所有图书数据，这是解决问题的关键步骤
-        loadAllBooks();
-
-        // 然后初始化各个Tab
+        // 初始化各个Tab
         setupBookListTab();
         setupBorrowHistoryTab();
         setupActivityTab();
         setupLiteratureTab();
+
+        // 图书与借阅记录并行加载，都完成后刷新借阅表中的书名
+        loadAllBooks().thenAcceptBoth(loadBorrowRecords(), (books, records) -> borrowHistoryTable.refresh());
     }
 
     /**
-     * 加载所有图书数据并缓存到 map 中，以便后续查找书名。
+     * 异步加载所有图书数据并缓存到 map 中，以便后续查找书名；回调在FX线程执行
      */
-    private void loadAllBooks() {
-        try {
-            Message request = new Message(Type.BOOK_LIST, null);
-            Message response = clientService.sendRequest(request);
-
-            if (response != null && response.getCode() == Message.Code.SUCCESS) {
-                // 检查返回的数据类型
-                Object data = response.getData();
-                if (data instanceof List<?>) {
-                    @SuppressWarnings("unchecked")
-                    List<Book> books = (List<Book>) data;
-                    // 将图书列表转换为Map，方便根据bookId快速查找
-                    bookMap = books.stream().collect(Collectors.toMap(Book::getBookId, Function.identity()));
-                    System.out.println("成功加载 " + books.size() + " 本图书数据");
-                } else {
-                    System.err.println("服务器返回数据格式错误: " + data.getClass().getName());
-                    showAlert("错误", "服务器返回数据格式错误");
-                    bookMap = new HashMap<>();
-                }
-            } else {
-                String errorMsg = response != null ? response.getData().toString() : "未知错误";
-                System.err.println("加载图书数据失败: " + errorMsg);
-                showAlert("错误", "无法加载图书数据: " + errorMsg);
-                bookMap = new HashMap<>();
-            }
-        } catch (Exception e) {
-            System.err.println("加载图书数据时发生异常: " + e.getMessage());
-            e.printStackTrace();
-            showAlert("错误", "加载图书数据失败: " + e.getMessage());
-            bookMap = new HashMap<>();
-        }
+    private CompletableFuture<Void> loadAllBooks() {
+        return clientService.requestAsync(Type.BOOK_LIST, null, ClientService.fxExecutor())
+                .handle((response, error) -> {
+                    if (error == null && response.getCode() == Message.Code.SUCCESS) {
+                        // 检查返回的数据类型
+                        Object data = response.getData();
+                        if (data instanceof List<?>) {
+                            @SuppressWarnings("unchecked")
+                            List<Book> books = (List<Book>) data;
+                            // 将图书列表转换为Map，方便根据bookId快速查找
+                            bookMap = books.stream().collect(Collectors.toMap(Book::getBookId, Function.identity()));
+                            System.out.println("成功加载 " + books.size() + " 本图书数据");
+                        } else {
+                            System.err.println("服务器返回数据格式错误: " + data);
+                            showAlert("错误", "服务器返回数据格式错误");
+                            bookMap = new HashMap<>();
+                        }
+                    } else {
+                        String errorMsg = errorText(response, error, "未知错误");
+                        System.err.println("加载图书数据失败: " + errorMsg);
+                        showAlert("错误", "无法加载图书数据: " + errorMsg);
+                        bookMap = new HashMap<>();
+                    }
+
+                    booksTableView.setItems(FXCollections.observableArrayList(bookMap.values()));
+                    updateBookStats(booksTableView.getItems());
+                    return null;
+                });
     }
 
     private void setupBookListTab() {
@@ -145,12 +143,6 @@ public class BookListController {
         searchButton.setOnAction(event -> handleBookSearch());
         refreshButton.setOnAction(event -> handleBookRefresh());
 
-        // 使用已加载的图书数据来填充表格
-        if (bookMap != null && !bookMap.isEmpty()) {
-            booksTableView.setItems(FXCollections.observableArrayList(bookMap.values()));
-            updateBookStats(booksTableView.getItems());
-        }
-
         // 为"操作"列添加按钮
         Callback<TableColumn<Book, Void>, TableCell<Book, Void>> cellFactory = new Callback<TableColumn<Book, Void>, TableCell<Book, Void>>() {
             @Override
@@ -183,18 +175,16 @@ public class BookListController {
     }
 
     private void handleBorrowBook(Book book) {
-        Message request = new Message(Type.BOOK_BORROW, book.getBookId());
-        Message response = clientService.sendRequest(request);
-
-        if (response != null && response.getCode() == Message.Code.SUCCESS) {
-            showAlert("借阅成功", response.getData().toString());
-            loadAllBooks();
-            setupBookListTab();
-            loadBorrowRecords();
-        } else {
-            String errorMsg = response != null ? response.getData().toString() : "未知错误";
-            showAlert("借阅失败", errorMsg);
-        }
+        clientService.requestAsync(Type.BOOK_BORROW, book.getBookId(), ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
+                    if (error == null && response.getCode() == Message.Code.SUCCESS) {
+                        showAlert("借阅成功", response.getData().toString());
+                        loadAllBooks().thenAcceptBoth(loadBorrowRecords(),
+                                (books, records) -> borrowHistoryTable.refresh());
+                    } else {
+                        showAlert("借阅失败", errorText(response, error, "未知错误"));
+                    }
+                });
     }
 
     // 更新图书统计数据
@@ -221,31 +211,26 @@ public class BookListController {
             return;
         }
 
-        Message request = new Message(Type.BOOK_SEARCH, query);
-        Message response = clientService.sendRequest(request);
-
-        if (response != null && response.getCode() == Message.Code.SUCCESS) {
-            Object data = response.getData();
-            if (data instanceof List<?>) {
-                @SuppressWarnings("unchecked")
-                List<Book> books = (List<Book>) data;
-                booksTableView.setItems(FXCollections.observableArrayList(books));
-            } else {
-                showAlert("错误", "搜索结果格式错误");
-            }
-        } else {
-            String errorMsg = response != null ? response.getData().toString() : "搜索失败";
-            showAlert("搜索失败", errorMsg);
-        }
+        clientService.requestAsync(Type.BOOK_SEARCH, query, ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
+                    if (error == null && response.getCode() == Message.Code.SUCCESS) {
+                        Object data = response.getData();
+                        if (data instanceof List<?>) {
+                            @SuppressWarnings("unchecked")
+                            List<Book> books = (List<Book>) data;
+                            booksTableView.setItems(FXCollections.observableArrayList(books));
+                        } else {
+                            showAlert("错误", "搜索结果格式错误");
+                        }
+                    } else {
+                        showAlert("搜索失败", errorText(response, error, "搜索失败"));
+                    }
+                });
     }
 
     private void handleBookRefresh() {
         searchField.clear();
         loadAllBooks();
-        if (bookMap != null && !bookMap.isEmpty()) {
-            booksTableView.setItems(FXCollections.observableArrayList(bookMap.values()));
-            updateBookStats(booksTableView.getItems());
-        }
     }
 
     private void setupBorrowHistoryTab() {
@@ -273,8 +258,6 @@ public class BookListController {
         returnDateCol.setCellValueFactory(new PropertyValueFactory<>("returnDate"));
         borrowStatusCol.setCellValueFactory(new PropertyValueFactory<>("status"));
 
-        loadBorrowRecords();
-
         // 为"操作"列添加按钮
         Callback<TableColumn<BorrowRecord, Void>, TableCell<BorrowRecord, Void>> cellFactory = new Callback<TableColumn<BorrowRecord, Void>, TableCell<BorrowRecord, Void>>() {
             @Override
@@ -307,37 +290,36 @@ public class BookListController {
         borrowActionCol.setCellFactory(cellFactory);
     }
 
-    private void loadBorrowRecords() {
-        Message request = new Message(Type.BORROW_RECORD_LIST, null);
-        Message response = clientService.sendRequest(request);
-
-        if (response != null && response.getCode() == Message.Code.SUCCESS) {
-            Object data = response.getData();
-            if (data instanceof List<?>) {
-                @SuppressWarnings("unchecked")
-                List<BorrowRecord> records = (List<BorrowRecord>) data;
-                borrowHistoryTable.setItems(FXCollections.observableArrayList(records));
-                updateBorrowStats(records);
-            } else {
-                showAlert("错误", "借阅记录数据格式错误");
-            }
-        } else {
-            String errorMsg = response != null ? response.getData().toString() : "未知错误";
-            showAlert("错误", "无法加载借阅记录: " + errorMsg);
-        }
+    private CompletableFuture<Void> loadBorrowRecords() {
+        return clientService.requestAsync(Type.BORROW_RECORD_LIST, null, ClientService.fxExecutor())
+                .handle((response, error) -> {
+                    if (error == null && response.getCode() == Message.Code.SUCCESS) {
+                        Object data = response.getData();
+                        if (data instanceof List<?>) {
+                            @SuppressWarnings("unchecked")
+                            List<BorrowRecord> records = (List<BorrowRecord>) data;
+                            borrowHistoryTable.setItems(FXCollections.observableArrayList(records));
+                            updateBorrowStats(records);
+                        } else {
+                            showAlert("错误", "借阅记录数据格式错误");
+                        }
+                    } else {
+                        showAlert("错误", "无法加载借阅记录: " + errorText(response, error, "未知错误"));
+                    }
+                    return null;
+                });
     }
 
     private void handleRenewBook(BorrowRecord record) {
-        Message request = new Message(Type.BOOK_RENEW, record.getRecordId());
-        Message response = clientService.sendRequest(request);
-
-        if (response != null && response.getCode() == Message.Code.SUCCESS) {
-            showAlert("续借成功", response.getData().toString());
-            loadBorrowRecords();
-        } else {
-            String errorMsg = response != null ? response.getData().toString() : "续借失败";
-            showAlert("续借失败", errorMsg);
-        }
+        clientService.requestAsync(Type.BOOK_RENEW, record.getRecordId(), ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
+                    if (error == null && response.getCode() == Message.Code.SUCCESS) {
+                        showAlert("续借成功", response.getData().toString());
+                        loadBorrowRecords();
+                    } else {
+                        showAlert("续借失败", errorText(response, error, "续借失败"));
+                    }
+                });
     }
 
     // 更新借阅统计数据
@@ -375,6 +357,14 @@ public class BookListController {
 
     // --- 辅助方法 ---
 
+    // 请求失败时的提示文本：网络异常优先，其次是服务器返回的错误信息
+    private String errorText(Message response, Throwable error, String fallback) {
+        if (error != null) {
+            return "网络错误: " + error.getMessage();
+        }
+        return response != null && response.getData() != null ? response.getData().toString() : fallback;
+    }
+
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
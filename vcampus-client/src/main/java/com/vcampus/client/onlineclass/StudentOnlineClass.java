@@ -1,6 +1,7 @@
 package com.vcampus.client.onlineclass;
 
 import com.sun.javafx.charts.Legend;
+import com.vcampus.client.service.ClientService;
 import com.vcampus.common.entity.User;
 import com.vcampus.common.entity.Course;
 import com.vcampus.common.entity.Assignment;
@@ -31,6 +32,8 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 在线课堂模块 - 学生界面
@@ -54,9 +57,9 @@ public class StudentOnlineClass extends BorderPane {
 
     public StudentOnlineClass(User user) {
         this.currentUser = user;
-        this.onlineClassService = new OnlineClassService(user);
+        this.onlineClassService = new OnlineClassService();
 
-        // 初始化数据
+        // 初始化数据（课程和作业并行加载，不阻塞界面）
         loadCoursesFromDatabase();
         loadAssignmentsFromDatabase();
 
@@ -64,35 +67,58 @@ public class StudentOnlineClass extends BorderPane {
         showHomePage();
     }
 
+    /**
+     * 数据库查询
+     */
+    private interface Query<T> {
+        T get() throws SQLException;
+    }
+
+    /**
+     * 在后台线程执行查询，返回的future在后台线程完成；
+     * 更新界面的回调必须传入ClientService.fxExecutor()，例如whenCompleteAsync(action, ClientService.fxExecutor())
+     */
+    private <T> CompletableFuture<T> loadAsync(Query<T> query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return query.get();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
     /**
      * 从数据库加载课程数据
      */
     private void loadCoursesFromDatabase() {
-        try {
-            List<Course> courses = onlineClassService.getStudentCourses();
-            courseList.setAll(courses);
-        } catch (SQLException e) {
-            e.printStackTrace();
+        loadAsync(() -> onlineClassService.getStudentCourses(currentUser)).whenCompleteAsync((courses, error) -> {
+            if (error == null) {
+                courseList.setAll(courses);
+                return;
+            }
+            error.printStackTrace();
             // 显示错误消息
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("加载失败");
             alert.setHeaderText(null);
-            alert.setContentText("加载课程数据失败: " + e.getMessage());
+            alert.setContentText("加载课程数据失败: " + error.getCause().getMessage());
             alert.showAndWait();
-        }
+        }, ClientService.fxExecutor());
     }
 
     /**
      * 从数据库加载作业数据
      */
     private void loadAssignmentsFromDatabase() {
-        try {
-            List<Assignment> assignments = onlineClassService.getStudentAssignments();
-            assignmentList.setAll(assignments);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            System.err.println("加载作业数据失败: " + e.getMessage());
-        }
+        loadAsync(() -> onlineClassService.getStudentAssignments(currentUser)).whenCompleteAsync((assignments, error) -> {
+            if (error == null) {
+                assignmentList.setAll(assignments);
+            } else {
+                error.printStackTrace();
+                System.err.println("加载作业数据失败: " + error.getCause().getMessage());
+            }
+        }, ClientService.fxExecutor());
     }
 
     /**
@@ -159,13 +185,14 @@ public class StudentOnlineClass extends BorderPane {
         activityLabel.setFont(Font.font("Microsoft YaHei", FontWeight.BOLD, 16));
 
         ListView<String> activityList = new ListView<>();
-        try {
-            List<String> activities = onlineClassService.getRecentActivities();
-            activityList.getItems().setAll(activities);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            activityList.getItems().add("加载活动失败: " + e.getMessage());
-        }
+        loadAsync(() -> onlineClassService.getRecentActivities(currentUser)).whenCompleteAsync((activities, error) -> {
+            if (error == null) {
+                activityList.getItems().setAll(activities);
+            } else {
+                error.printStackTrace();
+                activityList.getItems().add("加载活动失败: " + error.getCause().getMessage());
+            }
+        }, ClientService.fxExecutor());
         activityList.setPrefHeight(120);
 
         recentActivity.getChildren().addAll(activityLabel, activityList);
@@ -208,7 +235,7 @@ public class StudentOnlineClass extends BorderPane {
 
         // 获取当前月份的提醒日期
         try {
-            daysWithReminders = onlineClassService.getMonthReminders(
+            daysWithReminders = onlineClassService.getMonthReminders(currentUser,
                     currentCalendarDate.getYear(),
                     currentCalendarDate.getMonthValue()
             );
@@ -380,7 +407,7 @@ public class StudentOnlineClass extends BorderPane {
 
         // 获取选中日期的提醒
         try {
-            List<OnlineClassService.Reminder> reminders = onlineClassService.getDayReminders(
+            List<OnlineClassService.Reminder> reminders = onlineClassService.getDayReminders(currentUser,
                     currentCalendarDate.getYear(),
                     currentCalendarDate.getMonthValue(),
                     day
@@ -411,7 +438,7 @@ public class StudentOnlineClass extends BorderPane {
 
         scheduleList = new ListView<>();
         try {
-            List<OnlineClassService.Reminder> reminders = onlineClassService.getDayReminders(
+            List<OnlineClassService.Reminder> reminders = onlineClassService.getDayReminders(currentUser,
                     currentCalendarDate.getYear(),
                     currentCalendarDate.getMonthValue(),
                     currentCalendarDate.getDayOfMonth()
@@ -452,10 +479,10 @@ public class StudentOnlineClass extends BorderPane {
             }
 
             try {
-                boolean success = onlineClassService.addReminder(content, java.sql.Date.valueOf(date));
+                boolean success = onlineClassService.addReminder(currentUser, content, java.sql.Date.valueOf(date));
                 if (success) {
                     // 刷新提醒列表
-                    List<OnlineClassService.Reminder> reminders = onlineClassService.getDayReminders(
+                    List<OnlineClassService.Reminder> reminders = onlineClassService.getDayReminders(currentUser,
                             date.getYear(), date.getMonthValue(), date.getDayOfMonth());
                     List<String> reminderContents = new ArrayList<>();
                     for (OnlineClassService.Reminder reminder : reminders) {
@@ -464,7 +491,7 @@ public class StudentOnlineClass extends BorderPane {
                     scheduleList.getItems().setAll(reminderContents);
 
                     // 刷新日历上的提醒标记
-                    daysWithReminders = onlineClassService.getMonthReminders(
+                    daysWithReminders = onlineClassService.getMonthReminders(currentUser,
                             currentCalendarDate.getYear(), currentCalendarDate.getMonthValue());
 
                     // 重新加载页面以更新日历
@@ -522,7 +549,7 @@ public class StudentOnlineClass extends BorderPane {
 
         // 从数据库获取统计数据
         try {
-            OnlineClassService.CourseStats stats = onlineClassService.getCourseStats();
+            OnlineClassService.CourseStats stats = onlineClassService.getCourseStats(currentUser);
             notStarted = createStatCard("未开始课程", stats.notStarted + "门", "#e74c3c");
             inProgress = createStatCard("进行中课程", stats.inProgress + "门", "#3498db");
             completed = createStatCard("已结束课程", stats.completed + "门", "#27ae60");
@@ -562,7 +589,7 @@ public class StudentOnlineClass extends BorderPane {
             String filter = filterComboBox.getValue();
 
             try {
-                List<Course> courses = onlineClassService.searchCourses(keyword, filter);
+                List<Course> courses = onlineClassService.searchCourses(currentUser, keyword, filter);
                 courseList.setAll(courses);
             } catch (SQLException ex) {
                 ex.printStackTrace();
@@ -581,7 +608,7 @@ public class StudentOnlineClass extends BorderPane {
             String filter = filterComboBox.getValue();
 
             try {
-                List<Course> courses = onlineClassService.searchCourses(keyword, filter);
+                List<Course> courses = onlineClassService.searchCourses(currentUser, keyword, filter);
                 courseList.setAll(courses);
             } catch (SQLException ex) {
                 ex.printStackTrace();
@@ -852,7 +879,7 @@ public class StudentOnlineClass extends BorderPane {
             }
 
             try {
-                boolean success = onlineClassService.postDiscussion(currentCourse.getCourseName(), content);
+                boolean success = onlineClassService.postDiscussion(currentUser, currentCourse.getCourseName(), content);
                 if (success) {
                     // 刷新讨论列表
                     List<String> discussions = onlineClassService.getDiscussions(currentCourse.getCourseName());
@@ -906,7 +933,7 @@ public class StudentOnlineClass extends BorderPane {
 
         // 从数据库获取统计数据
         try {
-            OnlineClassService.AssignmentStats stats = onlineClassService.getAssignmentStats();
+            OnlineClassService.AssignmentStats stats = onlineClassService.getAssignmentStats(currentUser);
             submitted = createStatCard("已提交", stats.submitted + "个", "#27ae60");
             notSubmitted = createStatCard("未提交", stats.notSubmitted + "个", "#e74c3c");
             urgent = createStatCard("紧急作业", stats.urgent + "个", "#f39c12");
@@ -928,7 +955,7 @@ public class StudentOnlineClass extends BorderPane {
 
         // 更新进度条
         try {
-            OnlineClassService.AssignmentStats stats = onlineClassService.getAssignmentStats();
+            OnlineClassService.AssignmentStats stats = onlineClassService.getAssignmentStats(currentUser);
             double progress = stats.total > 0 ? (double) stats.submitted / stats.total : 0;
             progressBar.setProgress(progress);
             progressLabel.setText("提交进度: " + String.format("%.1f%%", progress * 100));
@@ -969,7 +996,7 @@ public class StudentOnlineClass extends BorderPane {
             String filter = filterComboBox.getValue();
 
             try {
-                List<Assignment> assignments = onlineClassService.searchAssignments(keyword, filter);
+                List<Assignment> assignments = onlineClassService.searchAssignments(currentUser, keyword, filter);
                 assignmentList.setAll(assignments);
             } catch (SQLException ex) {
                 ex.printStackTrace();
@@ -988,7 +1015,7 @@ public class StudentOnlineClass extends BorderPane {
             String filter = filterComboBox.getValue();
 
             try {
-                List<Assignment> assignments = onlineClassService.searchAssignments(keyword, filter);
+                List<Assignment> assignments = onlineClassService.searchAssignments(currentUser, keyword, filter);
                 assignmentList.setAll(assignments);
             } catch (SQLException ex) {
                 ex.printStackTrace();
@@ -1152,7 +1179,7 @@ public class StudentOnlineClass extends BorderPane {
                             File file = fileChooser.showOpenDialog(null);
                             if (file != null) {
                                 try {
-                                    boolean success = onlineClassService.submitAssignment(
+                                    boolean success = onlineClassService.submitAssignment(currentUser,
                                             assignment.getName(), file.getAbsolutePath());
                                     if (success) {
                                         // 更新UI
@@ -2,31 +2,93 @@ package com.vcampus.client.service;
 
 import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
+import com.vcampus.common.protocol.BatchMessages;
+import com.vcampus.common.protocol.FileTransfers;
+import com.vcampus.common.protocol.FrameCompression;
+import com.vcampus.common.protocol.MessageCodec;
+import com.vcampus.common.protocol.MessageCodecs;
+import com.vcampus.common.protocol.MessageFrames;
+import com.vcampus.common.protocol.PushTopics;
+import javafx.application.Platform;
 
 import java.io.*;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * 客户端网络服务类
- * 负责与服务器的Socket通信
+ * 负责与服务器的Socket通信，使用长度前缀的帧协议；
+ * 请求可以连续发送而无需等待，响应由读取线程按uid分发给对应的请求
  */
 public class ClientService {
 
     private Socket socket;
-    private ObjectOutputStream outputStream;
-    private ObjectInputStream inputStream;
-    private boolean isConnected = false;
+    private DataOutputStream outputStream;
+    private DataInputStream inputStream;
+    private volatile boolean isConnected = false;
+
+    // 最近连接的服务器地址和登录时签发的会话令牌，断线后凭令牌重连
+    private volatile String host;
+    private volatile int port;
+    private volatile String sessionToken;
+
+    // 服务器排空时正在切换到新连接，期间的繁忙响应继续重试
+    private volatile boolean handingOff = false;
+
+    // 等待响应的请求（按消息uid索引）
+    private final Map<String, CompletableFuture<Message>> pendingRequests = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    // 推送监听器（按主题）
+    private final Map<String, List<Consumer<Message>>> pushListeners = new ConcurrentHashMap<>();
+
+    // 异步请求完成回调默认执行的线程池
+    private volatile Executor completionExecutor = ForkJoinPool.commonPool();
+
+    // 最近一次心跳测得的往返时延（毫秒），未测量时为-1
+    private volatile double lastRttMillis = -1;
+
+    // 握手协商得到的消息编码
+    private volatile MessageCodec codec = MessageCodecs.JAVA;
+
+    // 握手协商得到的压缩设置，null表示不压缩
+    private volatile FrameCompression compression;
 
     // 连接配置
     private static final int CONNECTION_TIMEOUT = 5000; // 5秒连接超时
     private static final int READ_TIMEOUT = 10000; // 10秒读取超时
 
+    // 服务器繁忙时的重试次数和初始退避时间，每次重试退避时间翻倍
+    private static final int BUSY_RETRIES = Integer.getInteger("vcampus.client.busyRetries", 3);
+    private static final long BUSY_BACKOFF_MILLIS = Long.getLong("vcampus.client.busyBackoff", 200);
+
     /**
      * 连接到服务器
      */
     public boolean connect(String host, int port) {
+        this.host = host;
+        this.port = port;
         try {
             System.out.println("正在连接服务器: " + host + ":" + port);
 
@@ -35,18 +97,45 @@ public class ClientService {
             socket.setSoTimeout(READ_TIMEOUT);
 
             // 建立输入输出流
-            outputStream = new ObjectOutputStream(socket.getOutputStream());
-            inputStream = new ObjectInputStream(socket.getInputStream());
+            socket.setTcpNoDelay(true);
+            outputStream = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
 
             isConnected = true;
             System.out.println("服务器连接成功");
 
-            // 接收欢迎消息
+            // 发送握手消息（附带支持的编码）并接收欢迎消息
             try {
-                Message welcomeMessage = (Message) inputStream.readObject();
-                System.out.println("收到服务器欢迎消息: " + welcomeMessage.getData());
-            } catch (Exception e) {
-                System.out.println("接收欢迎消息失败: " + e.getMessage());
+                codec = MessageCodecs.JAVA;
+                compression = null;
+                Map<String, Object> hello = new HashMap<>();
+                hello.put("protocol", MessageFrames.PROTOCOL_VERSION);
+                hello.put(MessageCodecs.HANDSHAKE_CODECS, MessageCodecs.preferredNames());
+                hello.put(FrameCompression.HANDSHAKE_KEY, FrameCompression.supportedNames());
+                MessageFrames.write(outputStream, new Message(Message.Type.HANDSHAKE, hello));
+
+                Message welcomeMessage = MessageFrames.read(inputStream);
+                Object welcome = welcomeMessage.getData();
+                if (welcome instanceof Map) {
+                    MessageCodec negotiated = MessageCodecs.byName(
+                            (String) ((Map<?, ?>) welcome).get(MessageCodecs.HANDSHAKE_CODEC));
+                    if (negotiated != null) {
+                        codec = negotiated;
+                    }
+                    compression = FrameCompression.negotiate(Collections.singletonList(
+                            ((Map<?, ?>) welcome).get(FrameCompression.HANDSHAKE_KEY)));
+                    welcome = ((Map<?, ?>) welcome).get("message");
+                }
+                System.out.println("收到服务器欢迎消息: " + welcome + "（消息编码: " + codec.name() +
+                        (compression != null ? "，压缩: " + FrameCompression.DEFLATE : "") + "）");
+
+                // 握手完成后由读取线程接收响应，超时改为按请求计算
+                socket.setSoTimeout(0);
+                startReader();
+            } catch (IOException e) {
+                System.err.println("握手失败: " + e.getMessage());
+                disconnect();
+                return false;
             }
 
             return true;
@@ -61,17 +150,141 @@ public class ClientService {
     }
 
     /**
-     * 发送消息到服务器
+     * 启动响应读取线程，按uid完成对应的等待请求
+     */
+    private void startReader() {
+        DataInputStream in = inputStream;
+        Thread readerThread = new Thread(() -> {
+            try {
+                while (isConnected) {
+                    Message message = MessageFrames.read(in);
+                    if (message.getType() == Message.Type.PUSH) {
+                        dispatchPush(message);
+                        continue;
+                    }
+                    if (message.getType() == Message.Type.PING) {
+                        // 服务器探测时延，原样带回时间戳
+                        Message pong = new Message(Message.Type.PONG, message.getData());
+                        pong.setUid(message.getUid());
+                        sendMessage(pong);
+                        continue;
+                    }
+                    if (message.getType() == Message.Type.SERVER_DRAIN) {
+                        handOff((String) message.getData());
+                        continue;
+                    }
+                    CompletableFuture<Message> pending = pendingRequests.remove(message.getUid());
+                    if (pending != null) {
+                        pending.complete(message);
+                    } else {
+                        System.out.println("收到未匹配的服务器消息: " + message);
+                    }
+                }
+            } catch (IOException e) {
+                if (isConnected) {
+                    System.err.println("接收服务器消息失败: " + e.getMessage());
+                    disconnect();
+                }
+            }
+        }, "vcampus-client-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * 服务器即将停止：等待未完成的请求结束后断开，重新连接（可能是服务器建议的新地址）并恢复会话
+     */
+    private void handOff(String redirect) {
+        handingOff = true;
+        Thread handOffThread = new Thread(() -> {
+            try {
+                long deadline = System.currentTimeMillis() + READ_TIMEOUT;
+                while (!pendingRequests.isEmpty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(50);
+                }
+
+                if (redirect != null) {
+                    int index = redirect.lastIndexOf(':');
+                    if (index > 0) {
+                        host = redirect.substring(0, index);
+                        port = Integer.parseInt(redirect.substring(index + 1));
+                    }
+                }
+                System.out.println("服务器即将停止，重新连接到 " + host + ":" + port);
+                disconnect();
+                if (!reconnect()) {
+                    System.err.println("重新连接失败，将在下次请求时重试");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (NumberFormatException e) {
+                System.err.println("服务器建议的地址无效: " + redirect);
+            } finally {
+                handingOff = false;
+            }
+        }, "vcampus-client-handoff");
+        handOffThread.setDaemon(true);
+        handOffThread.start();
+    }
+
+    /**
+     * 将推送交给订阅了相应主题的监听器，同一监听器只调用一次
+     */
+    private void dispatchPush(Message push) {
+        Set<Consumer<Message>> listeners = new LinkedHashSet<>();
+        for (String topic : PushTopics.topicsOf(push)) {
+            listeners.addAll(pushListeners.getOrDefault(topic, Collections.emptyList()));
+        }
+        for (Consumer<Message> listener : listeners) {
+            completionExecutor.execute(() -> listener.accept(push));
+        }
+    }
+
+    /**
+     * 订阅主题，推送在默认回调线程池中交给监听器（主题名见PushTopics）
+     */
+    public CompletableFuture<Message> subscribe(List<String> topics, Consumer<Message> listener) {
+        for (String topic : topics) {
+            pushListeners.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(listener);
+        }
+        return requestAsync(Message.Type.SUBSCRIBE, topics);
+    }
+
+    /**
+     * 移除监听器，主题上没有监听器时通知服务器取消订阅
+     */
+    public CompletableFuture<Message> unsubscribe(List<String> topics, Consumer<Message> listener) {
+        List<String> unused = new ArrayList<>();
+        for (String topic : topics) {
+            List<Consumer<Message>> listeners = pushListeners.get(topic);
+            if (listeners != null) {
+                listeners.remove(listener);
+                if (listeners.isEmpty()) {
+                    pushListeners.remove(topic);
+                    unused.add(topic);
+                }
+            }
+        }
+        if (unused.isEmpty()) {
+            return CompletableFuture.completedFuture(Message.success(unused));
+        }
+        return requestAsync(Message.Type.UNSUBSCRIBE, unused);
+    }
+
+    /**
+     * 发送消息到服务器（线程安全）
      */
     public boolean sendMessage(Message message) {
-        if (!isConnected || outputStream == null) {
+        DataOutputStream out = outputStream;
+        if (!isConnected || out == null) {
             System.err.println("未连接到服务器");
             return false;
         }
 
         try {
-            outputStream.writeObject(message);
-            outputStream.flush();
+            synchronized (writeLock) {
+                MessageFrames.write(out, message, codec, compression);
+            }
             return true;
         } catch (IOException e) {
             System.err.println("发送消息失败: " + e.getMessage());
@@ -81,25 +294,227 @@ public class ClientService {
     }
 
     /**
-     * 接收服务器响应
+     * 发送请求，返回在收到对应响应时完成的Future，不阻塞调用线程
+     */
+    private CompletableFuture<Message> submit(Message message) {
+        CompletableFuture<Message> future = new CompletableFuture<>();
+        send(message, future, 0);
+        return future;
+    }
+
+    /**
+     * 发送一次请求；服务器返回SERVER_BUSY时请求未被执行，按指数退避（带随机抖动）重发，
+     * 重试次数用完后把繁忙响应交给调用方
+     */
+    private void send(Message message, CompletableFuture<Message> future, int attempt) {
+        if (future.isDone()) {
+            return;
+        }
+
+        CompletableFuture<Message> response = new CompletableFuture<>();
+        pendingRequests.put(message.getUid(), response);
+        if (!sendMessage(message)) {
+            pendingRequests.remove(message.getUid());
+            future.completeExceptionally(new IOException("发送消息失败"));
+            return;
+        }
+
+        response.whenComplete((reply, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else if (reply.getCode() == Message.Code.SERVER_BUSY && attempt < BUSY_RETRIES
+                    && (isConnected || handingOff)) {
+                long backoff = BUSY_BACKOFF_MILLIS << attempt;
+                long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                        .execute(() -> send(message, future, attempt + 1));
+            } else {
+                future.complete(reply);
+            }
+        });
+    }
+
+    /**
+     * 异步请求，使用默认超时和默认回调线程池
+     */
+    public CompletableFuture<Message> requestAsync(Message.Type type, Object data) {
+        return requestAsync(new Message(type, data), READ_TIMEOUT, TimeUnit.MILLISECONDS, completionExecutor);
+    }
+
+    /**
+     * 异步请求，回调在指定线程中执行（如fxExecutor()）
+     */
+    public CompletableFuture<Message> requestAsync(Message.Type type, Object data, Executor executor) {
+        return requestAsync(new Message(type, data), READ_TIMEOUT, TimeUnit.MILLISECONDS, executor);
+    }
+
+    /**
+     * 异步请求
+     * 超时以TimeoutException结束；取消返回的Future会丢弃稍后到达的响应；
+     * 发送失败或连接断开以IOException结束
+     */
+    public CompletableFuture<Message> requestAsync(Message message, long timeout, TimeUnit unit, Executor executor) {
+        CompletableFuture<Message> pending = submit(message);
+        pending.orTimeout(timeout, unit).whenComplete((response, error) -> {
+            if (error != null) {
+                pendingRequests.remove(message.getUid());
+            }
+        });
+
+        CompletableFuture<Message> result = new CompletableFuture<>();
+        pending.whenCompleteAsync((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        }, executor);
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                pending.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 批量请求：一次往返执行多个请求，结果按请求顺序返回
+     * parallel为false时服务器按顺序执行并共享一个数据库连接；整个批量请求失败时每项结果都是该错误响应
+     */
+    public CompletableFuture<List<Message>> batchAsync(List<Message> requests, boolean parallel, Executor executor) {
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        Message batch = BatchMessages.batch(requests, parallel);
+        return requestAsync(batch, READ_TIMEOUT, TimeUnit.MILLISECONDS, executor)
+                .thenApply(response -> BatchMessages.resultsOf(response, requests.size()));
+    }
+
+    /**
+     * 下载文件到指定目录（文件名取原始文件名），在独立线程中进行
+     * progress收到（已下载字节数，总字节数），在下载线程中调用；返回的Future以保存路径完成
      */
-    public Message receiveMessage() throws IOException, ClassNotFoundException {
-        if (!isConnected || inputStream == null) {
-            throw new IOException("未连接到服务器");
+    public CompletableFuture<Path> downloadFile(Integer fileId, Path directory, BiConsumer<Long, Long> progress) {
+        String host = socket != null ? socket.getInetAddress().getHostAddress() : null;
+        return requestAsync(new Message(Message.Type.FILE_DOWNLOAD, fileId), READ_TIMEOUT, TimeUnit.MILLISECONDS, Runnable::run)
+                .thenCompose(response -> {
+                    Object data = response.getData();
+                    if (response.getCode() != Message.Code.SUCCESS || !(data instanceof Map)) {
+                        throw new CompletionException(new IOException(String.valueOf(data)));
+                    }
+                    Map<?, ?> info = (Map<?, ?>) data;
+                    if (!(info.get(FileTransfers.KEY_TOKEN) instanceof String)) {
+                        throw new CompletionException(new IOException("服务器未提供文件传输通道"));
+                    }
+
+                    String token = (String) info.get(FileTransfers.KEY_TOKEN);
+                    int port = ((Number) info.get(FileTransfers.KEY_PORT)).intValue();
+                    long size = ((Number) info.get(FileTransfers.KEY_SIZE)).longValue();
+                    Path target = directory.resolve(Path.of(String.valueOf(info.get("originalName"))).getFileName());
+
+                    return CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return new FileDownloadClient(host).download(fileId, token, port, size, target, progress);
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, transferThread("vcampus-download"));
+                });
+    }
+
+    /**
+     * 上传文件，在独立线程中进行：先创建上传会话，经传输端口分块发送内容，再登记文件记录；
+     * 之前中断的同一文件从服务器已确认的位置续传。progress收到（已上传字节数，总字节数），
+     * 返回的Future以新文件ID完成
+     */
+    public CompletableFuture<Integer> uploadFile(Path file, String category, String description,
+                                                 BiConsumer<Long, Long> progress) {
+        String host = socket != null ? socket.getInetAddress().getHostAddress() : null;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long size = Files.size(file);
+                Map<String, Object> info = new HashMap<>();
+                info.put("originalName", file.getFileName().toString());
+                info.put("fileSize", size);
+                info.put(FileTransfers.KEY_SHA256, FileUploadClient.sha256(file));
+                info.put("category", category);
+                info.put("description", description);
+
+                Map<?, ?> session = successData(sendAndReceive(new Message(Message.Type.FILE_UPLOAD, info)));
+                String uploadId = (String) session.get(FileTransfers.KEY_UPLOAD_ID);
+                int port = ((Number) session.get(FileTransfers.KEY_PORT)).intValue();
+                int chunkSize = ((Number) session.get(FileTransfers.KEY_CHUNK_SIZE)).intValue();
+
+                new FileUploadClient(host).upload(uploadId, port, file, size, chunkSize, progress);
+
+                Map<String, Object> commit = new HashMap<>();
+                commit.put(FileTransfers.KEY_UPLOAD_ID, uploadId);
+                commit.put("category", category);
+                commit.put("description", description);
+                Object fileId = successData(sendAndReceive(new Message(Message.Type.FILE_UPLOAD, commit))).get("fileId");
+                return fileId instanceof Integer ? (Integer) fileId : null;
+            } catch (IOException | ClassNotFoundException e) {
+                throw new CompletionException(e);
+            }
+        }, transferThread("vcampus-upload"));
+    }
+
+    private static Map<?, ?> successData(Message response) throws IOException {
+        Object data = response.getData();
+        if (response.getCode() != Message.Code.SUCCESS) {
+            throw new IOException(String.valueOf(data));
         }
+        return data instanceof Map ? (Map<?, ?>) data : Collections.emptyMap();
+    }
 
-        return (Message) inputStream.readObject();
+    /**
+     * 每个文件传输使用独立的守护线程，不占用异步请求的回调线程池
+     */
+    private static Executor transferThread(String name) {
+        return task -> {
+            Thread t = new Thread(task, name);
+            t.setDaemon(true);
+            t.start();
+        };
+    }
+
+    /**
+     * 在JavaFX应用线程中执行回调的Executor
+     */
+    public static Executor fxExecutor() {
+        return Platform::runLater;
+    }
+
+    /**
+     * 设置异步请求默认的回调线程池
+     */
+    public void setCompletionExecutor(Executor completionExecutor) {
+        this.completionExecutor = completionExecutor != null ? completionExecutor : ForkJoinPool.commonPool();
     }
 
     /**
-     * 发送消息并等待响应
+     * 发送消息并等待响应，多个线程可同时调用，请求在同一连接上并行传输
      */
-    // 在ClientService.java中修改这些方法
-    public synchronized Message sendAndReceive(Message message) throws IOException, ClassNotFoundException {
-        if (sendMessage(message)) {
-            return receiveMessage();
+    public Message sendAndReceive(Message message) throws IOException, ClassNotFoundException {
+        CompletableFuture<Message> future = submit(message);
+        try {
+            return future.get(READ_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            pendingRequests.remove(message.getUid());
+            throw new SocketTimeoutException("等待服务器响应超时");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            pendingRequests.remove(message.getUid());
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待服务器响应被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
         }
-        throw new IOException("发送消息失败");
     }
 
     /**
@@ -111,7 +526,9 @@ public class ClientService {
             Message response = sendAndReceive(loginMessage);
 
             if (response.getCode() == Message.Code.SUCCESS) {
-                return (User) response.getData();
+                User user = (User) response.getData();
+                sessionToken = user.getSessionToken();
+                return user;
             } else {
                 System.err.println("登录失败: " + response.getData());
                 return null;
@@ -127,6 +544,7 @@ public class ClientService {
      * 用户登出
      */
     public boolean logout() {
+        sessionToken = null;
         try {
             Message logoutMessage = new Message(Message.Type.USER_LOGOUT, null);
             Message response = sendAndReceive(logoutMessage);
@@ -139,6 +557,42 @@ public class ClientService {
         }
     }
 
+    /**
+     * 断线后重新连接，并凭会话令牌恢复登录状态和推送订阅，无需重新输入密码；未登录时只重新连接
+     */
+    public synchronized boolean reconnect() {
+        if (isConnected()) {
+            return true;
+        }
+        if (host == null || !connect(host, port)) {
+            return false;
+        }
+        String token = sessionToken;
+        if (token == null) {
+            return true;
+        }
+
+        try {
+            Message response = sendAndReceive(new Message(Message.Type.SESSION_RESUME, token));
+            if (response.getCode() != Message.Code.SUCCESS) {
+                System.err.println("会话恢复失败: " + response.getData());
+                sessionToken = null;
+                return false;
+            }
+
+            // 收件箱由服务器自动订阅，其余主题重新订阅
+            List<String> topics = new ArrayList<>(pushListeners.keySet());
+            if (!topics.isEmpty()) {
+                requestAsync(Message.Type.SUBSCRIBE, topics);
+            }
+            System.out.println("已重新连接并恢复会话");
+            return true;
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("会话恢复请求失败: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * 用户注册
      */
@@ -248,7 +702,7 @@ public class ClientService {
     /**
      * 通用请求方法
      */
-    public synchronized Message request(Message.Type type, Object data) {
+    public Message request(Message.Type type, Object data) {
         try {
             Message requestMessage = new Message(type, data);
             return sendAndReceive(requestMessage);
@@ -261,10 +715,19 @@ public class ClientService {
     /**
      * 断开连接
      */
-    public void disconnect() {
+    public synchronized void disconnect() {
         try {
             isConnected = false;
 
+            // 未完成的请求立即失败，避免调用方等到超时
+            IOException closed = new IOException("与服务器连接已断开");
+            for (String uid : pendingRequests.keySet()) {
+                CompletableFuture<Message> pending = pendingRequests.remove(uid);
+                if (pending != null) {
+                    pending.completeExceptionally(closed);
+                }
+            }
+
             if (outputStream != null) {
                 outputStream.close();
                 outputStream = null;
@@ -288,7 +751,23 @@ public class ClientService {
     }
 
     /**
-     * 测试连接
+     * 发送PING并在收到PONG时以往返时延（毫秒）完成
+     */
+    public CompletableFuture<Double> ping() {
+        long sentAt = System.nanoTime();
+        return requestAsync(new Message(Message.Type.PING, sentAt), READ_TIMEOUT, TimeUnit.MILLISECONDS, Runnable::run)
+                .thenApply(response -> {
+                    if (response.getType() != Message.Type.PONG) {
+                        throw new IllegalStateException("心跳响应异常: " + response.getData());
+                    }
+                    double rtt = (System.nanoTime() - sentAt) / 1_000_000.0;
+                    lastRttMillis = rtt;
+                    return rtt;
+                });
+    }
+
+    /**
+     * 测试连接：发送PING并等待PONG，超时或失败时断开连接
      */
     public boolean testConnection() {
         if (!isConnected) {
@@ -296,9 +775,11 @@ public class ClientService {
         }
 
         try {
-            // 发送心跳消息
-            Message heartbeat = new Message(Message.Type.SUCCESS, "heartbeat");
-            return sendMessage(heartbeat);
+            ping().get(READ_TIMEOUT, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
             System.err.println("连接测试失败: " + e.getMessage());
             disconnect();
@@ -336,6 +817,18 @@ public class ClientService {
         return isConnected && socket != null && !socket.isClosed();
     }
 
+    /**
+     * 本连接发送方向压缩节省的字节数
+     */
+    public long getCompressionBytesSaved() {
+        FrameCompression current = compression;
+        return current != null ? current.getBytesSaved() : 0;
+    }
+
+    public double getLastRttMillis() {
+        return lastRttMillis;
+    }
+
     public String getServerAddress() {
         if (socket != null) {
             return socket.getRemoteSocketAddress().toString();
@@ -348,8 +841,8 @@ public class ClientService {
      */
     public Message sendRequest(Message request) {
         try {
-            // 使用现有的连接发送请求
-            if (isConnected()) {
+            // 使用现有的连接发送请求，连接已断开时先尝试凭会话令牌重连
+            if (isConnected() || reconnect()) {
                 return sendAndReceive(request);
             } else {
                 // 如果连接已断开，返回错误消息
@@ -0,0 +1,94 @@
+package com.vcampus.client.service;
+
+import com.vcampus.common.protocol.FileTransfers;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * 文件下载客户端
+ * 凭FILE_DOWNLOAD响应中的令牌连接服务器的传输端口，把文件内容经直接缓冲区写入磁盘；
+ * 先写入以文件ID和大小命名的.part临时文件，中断后再次下载同一文件时从已下载的位置继续
+ */
+public class FileDownloadClient {
+
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 进度回调的最小间隔（字节）
+    private static final long PROGRESS_STEP = 1024 * 1024;
+
+    private final String host;
+
+    public FileDownloadClient(String host) {
+        this.host = host;
+    }
+
+    /**
+     * 下载文件到target，progress依次收到（已下载字节数，总字节数）
+     * 临时文件名包含fileId和totalSize，同名的其他文件留下的部分内容不会被当作续传起点
+     */
+    public Path download(int fileId, String token, int port, long totalSize, Path target,
+                         BiConsumer<Long, Long> progress) throws IOException {
+        Path partial = target.resolveSibling(target.getFileName() + "." + fileId + "-" + totalSize + ".part");
+        long offset = Files.exists(partial) ? Files.size(partial) : 0;
+        if (offset > totalSize) {
+            Files.delete(partial);
+            offset = 0;
+        }
+
+        try (SocketChannel channel = SocketChannel.open()) {
+            channel.socket().connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            out.writeUTF(token);
+            out.writeLong(offset);
+
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            byte status = in.readByte();
+            long remaining = in.readLong();
+            if (status != FileTransfers.STATUS_OK) {
+                throw new IOException(FileTransfers.describe(status));
+            }
+
+            long total = offset + remaining;
+            long received = offset;
+            long nextReport = received;
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+            try (FileChannel file = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                file.position(offset);
+                while (received < total) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), total - received));
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("下载中断，已接收 " + received + "/" + total + " 字节");
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        received += file.write(buffer);
+                    }
+
+                    if (progress != null && (received >= nextReport || received == total)) {
+                        progress.accept(received, total);
+                        nextReport = received + PROGRESS_STEP;
+                    }
+                }
+                file.force(false);
+            }
+        }
+
+        return Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
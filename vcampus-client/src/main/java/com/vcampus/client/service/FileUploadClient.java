@@ -0,0 +1,194 @@
+package com.vcampus.client.service;
+
+import com.vcampus.common.protocol.FileTransfers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * 文件上传客户端
+ * 凭上传会话ID连接服务器的传输端口，从服务器已确认的偏移起按固定大小分块发送，
+ * 每块附带CRC32；连接断开或校验失败时重新连接，从已确认偏移继续
+ */
+public class FileUploadClient {
+
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 30000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 未确认的块数上限，避免每块都等待一次往返
+    private static final int WINDOW = 4;
+
+    // 重连次数和间隔（毫秒）
+    private static final int MAX_RETRIES = Integer.getInteger("vcampus.client.uploadRetries", 5);
+    private static final long RETRY_DELAY = 1000;
+
+    private final String host;
+
+    public FileUploadClient(String host) {
+        this.host = host;
+    }
+
+    /**
+     * 计算文件的SHA-256（十六进制）
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return FileTransfers.toHex(digest.digest());
+    }
+
+    /**
+     * 上传文件内容，progress依次收到（已确认字节数，总字节数）
+     */
+    public void upload(String uploadId, int port, Path source, long size, int chunkSize,
+                       BiConsumer<Long, Long> progress) throws IOException {
+        IOException failure = null;
+        for (int attempt = 0; attempt <= MAX_RETRIES; attempt++) {
+            if (attempt > 0) {
+                try {
+                    Thread.sleep(RETRY_DELAY * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("上传被中断");
+                }
+            }
+
+            try {
+                byte status = send(uploadId, port, source, size, chunkSize, progress);
+                if (status == FileTransfers.STATUS_OK) {
+                    return;
+                }
+                if (status == FileTransfers.STATUS_INVALID) {
+                    throw new UploadFailedException(FileTransfers.describe(status));
+                }
+                // 繁忙或块校验失败，重连后续传
+                failure = new IOException(FileTransfers.describe(status));
+            } catch (UploadFailedException e) {
+                throw e;
+            } catch (IOException e) {
+                failure = e;
+            }
+            System.err.println("上传中断，准备重试: " + failure);
+        }
+        throw failure;
+    }
+
+    private byte send(String uploadId, int port, Path source, long size, int chunkSize,
+                      BiConsumer<Long, Long> progress) throws IOException {
+        try (Socket socket = new Socket();
+             FileChannel file = FileChannel.open(source, StandardOpenOption.READ)) {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+            socket.setSoTimeout(READ_TIMEOUT);
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            out.writeUTF(uploadId);
+            out.writeLong(-1);
+            out.flush();
+
+            byte status = in.readByte();
+            long acknowledged = in.readLong();
+            if (status != FileTransfers.STATUS_OK) {
+                return status;
+            }
+            if (progress != null) {
+                progress.accept(acknowledged, size);
+            }
+
+            byte[] chunk = new byte[chunkSize];
+            CRC32 checksum = new CRC32();
+            long next = acknowledged;
+            int inFlight = 0;
+
+            while (acknowledged < size) {
+                while (next < size && inFlight < WINDOW) {
+                    int length = (int) Math.min(chunkSize, size - next);
+                    readFully(file, chunk, length, next);
+                    checksum.reset();
+                    checksum.update(chunk, 0, length);
+
+                    out.writeLong(next);
+                    out.writeInt(length);
+                    out.writeLong(checksum.getValue());
+                    out.write(chunk, 0, length);
+                    next += length;
+                    inFlight++;
+                }
+                out.flush();
+
+                status = in.readByte();
+                acknowledged = in.readLong();
+                inFlight--;
+                if (status != FileTransfers.STATUS_OK) {
+                    return status;
+                }
+                if (progress != null) {
+                    progress.accept(acknowledged, size);
+                }
+            }
+
+            // 发送结束标记，由服务器核对整个文件的SHA-256
+            out.writeLong(size);
+            out.writeInt(0);
+            out.writeLong(0);
+            out.flush();
+
+            status = in.readByte();
+            in.readLong();
+            if (status == FileTransfers.STATUS_CHECKSUM) {
+                throw new UploadFailedException("文件校验失败，上传期间文件可能被修改，请重新上传");
+            }
+            return status;
+        }
+    }
+
+    private static void readFully(FileChannel file, byte[] chunk, int length, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, length);
+        while (buffer.hasRemaining()) {
+            if (file.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("文件在上传期间被截断");
+            }
+        }
+    }
+
+    /**
+     * 重试无法解决的上传错误
+     */
+    private static class UploadFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UploadFailedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -16,7 +16,12 @@ import javafx.stage.Stage;
 import com.vcampus.client.service.ClientService;
 import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
+import com.vcampus.common.protocol.PushTopics;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -32,6 +37,10 @@ public class AcademicSystemPanel {
     private String currentView = "main"; // main, announcement_categories, announcement_list, announcement_detail, files, file_list, upload
     private String currentCategory = ""; // 用于公告和文件分类，记录上一个分类以便返回
 
+    // 首页最新公告列表，收到公告推送时直接插入
+    private VBox recentAnnouncementList;
+    private static final int RECENT_ANNOUNCEMENT_LIMIT = 5;
+
     // 色彩方案
     private static final String PRIMARY_COLOR = "#4a7c59";
     private static final String ACCENT_COLOR = "#6b9279";
@@ -45,6 +54,46 @@ public class AcademicSystemPanel {
         this.contentArea = contentArea;
         // 调试输出，用于检查 contentArea 是否为 null
         System.out.println("DEBUG: AcademicSystemPanel constructor called. contentArea is " + (contentArea == null ? "NULL" : "NOT NULL"));
+
+        // 订阅公告和个人消息推送，不再轮询
+        clientService.subscribe(PushTopics.audienceTopics(currentUser.getRole()), this::onAnnouncementPushed);
+        clientService.subscribe(Collections.singletonList(PushTopics.inbox(currentUser.getUserId())), this::onInboxPushed);
+    }
+
+    /**
+     * 收到新公告推送：插入到首页最新公告列表顶部
+     */
+    private void onAnnouncementPushed(Message push) {
+        if (!PushTopics.EVENT_ANNOUNCEMENT_ADDED.equals(PushTopics.eventOf(push))) {
+            return;
+        }
+        Map<String, Object> announcement = (Map<String, Object>) PushTopics.payloadOf(push);
+        Platform.runLater(() -> {
+            VBox container = recentAnnouncementList;
+            if (container == null || container.getScene() == null) {
+                return;
+            }
+            container.getChildren().removeIf(node -> node instanceof Label);
+            container.getChildren().add(0, createOriginalAnnouncementItem(announcement));
+            if (container.getChildren().size() > RECENT_ANNOUNCEMENT_LIMIT) {
+                container.getChildren().remove(RECENT_ANNOUNCEMENT_LIMIT, container.getChildren().size());
+            }
+        });
+    }
+
+    /**
+     * 收到个人消息推送：提示申请审批结果
+     */
+    private void onInboxPushed(Message push) {
+        if (!PushTopics.EVENT_APPLICATION_STATUS.equals(PushTopics.eventOf(push))) {
+            return;
+        }
+        Map<String, Object> change = (Map<String, Object>) PushTopics.payloadOf(push);
+        String comment = (String) change.get("reviewComment");
+        Platform.runLater(() -> showAlert("申请状态更新",
+                "您的申请「" + change.get("title") + "」" + change.get("status") +
+                        (comment != null && !comment.isEmpty() ? "\n审批意见：" + comment : ""),
+                Alert.AlertType.INFORMATION));
     }
 
     /**
@@ -113,6 +162,7 @@ public class AcademicSystemPanel {
         announcementList.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-padding: 20;");
 
         // 加载公告数据
+        recentAnnouncementList = announcementList;
         loadRecentAnnouncements(announcementList);
 
         area.getChildren().addAll(header, announcementList);
@@ -128,7 +178,7 @@ public class AcademicSystemPanel {
                 Map<String, Object> params = new HashMap<>();
                 params.put("targetAudience", currentUser.getRole().name());
                 params.put("page", 1);
-                params.put("pageSize", 5);
+                params.put("pageSize", RECENT_ANNOUNCEMENT_LIMIT);
 
                 Message response = clientService.request(Message.Type.ANNOUNCEMENT_LIST, params);
 
@@ -310,12 +360,16 @@ public class AcademicSystemPanel {
         categoriesGrid.setAlignment(Pos.TOP_CENTER);
 
         // 六个公告分区域，每行三个
-        categoriesGrid.add(createAnnouncementSection("教务信息", "教务信息"), 0, 0);
-        categoriesGrid.add(createAnnouncementSection("学籍管理通知", "学籍管理"), 1, 0);
-        categoriesGrid.add(createAnnouncementSection("教学研究公告", "教学研究"), 2, 0);
-        categoriesGrid.add(createAnnouncementSection("实践教学安排", "实践教学"), 0, 1);
-        categoriesGrid.add(createAnnouncementSection("国际交流信息", "国际交流"), 1, 1);
-        categoriesGrid.add(createAnnouncementSection("文化素质教育", "文化素质教育"), 2, 1);
+        Map<String, VBox> sectionLists = new LinkedHashMap<>();
+        categoriesGrid.add(createAnnouncementSection("教务信息", "教务信息", sectionLists), 0, 0);
+        categoriesGrid.add(createAnnouncementSection("学籍管理通知", "学籍管理", sectionLists), 1, 0);
+        categoriesGrid.add(createAnnouncementSection("教学研究公告", "教学研究", sectionLists), 2, 0);
+        categoriesGrid.add(createAnnouncementSection("实践教学安排", "实践教学", sectionLists), 0, 1);
+        categoriesGrid.add(createAnnouncementSection("国际交流信息", "国际交流", sectionLists), 1, 1);
+        categoriesGrid.add(createAnnouncementSection("文化素质教育", "文化素质教育", sectionLists), 2, 1);
+
+        // 各分类公告在一次批量请求中加载
+        loadAnnouncementSections(sectionLists, 5);
 
         content.getChildren().addAll(header, categoriesGrid);
 
@@ -330,7 +384,7 @@ public class AcademicSystemPanel {
     /**
      * 创建公告分区域（第二张图的样式）
      */
-    private VBox createAnnouncementSection(String title, String category) {
+    private VBox createAnnouncementSection(String title, String category, Map<String, VBox> sectionLists) {
         VBox section = new VBox(15);
         section.setPrefWidth(350);
         section.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-padding: 20;");
@@ -360,8 +414,8 @@ public class AcademicSystemPanel {
         VBox announcementList = new VBox(10);
         announcementList.setMinHeight(200);
 
-        // 加载该分类的公告
-        loadAnnouncementsByCategory(announcementList, category, 5);
+        // 公告由分类页面统一加载
+        sectionLists.put(category, announcementList);
 
         section.getChildren().addAll(headerBox, separator, announcementList);
 
@@ -369,51 +423,60 @@ public class AcademicSystemPanel {
     }
 
     /**
-     * 加载指定分类的公告（用于分区域显示）
+     * 批量加载各分类的公告（用于分区域显示），所有分类只需一次往返
      */
-    private void loadAnnouncementsByCategory(VBox container, String category, int limit) {
-        new Thread(() -> {
-            try {
-                Map<String, Object> params = new HashMap<>();
-                params.put("category", category);
-                params.put("targetAudience", currentUser.getRole().name());
-                params.put("page", 1);
-                params.put("pageSize", limit);
-
-                Message response = clientService.request(Message.Type.ANNOUNCEMENT_LIST, params);
-
-                Platform.runLater(() -> {
-                    container.getChildren().clear();
-
-                    if (response.getCode() == Message.Code.SUCCESS) {
-                        Map<String, Object> result = (Map<String, Object>) response.getData();
-                        List<Map<String, Object>> announcements = (List<Map<String, Object>>) result.get("announcements");
+    private void loadAnnouncementSections(Map<String, VBox> sectionLists, int limit) {
+        List<String> categories = new ArrayList<>(sectionLists.keySet());
+        List<Message> requests = new ArrayList<>();
+        for (String category : categories) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("category", category);
+            params.put("targetAudience", currentUser.getRole().name());
+            params.put("page", 1);
+            params.put("pageSize", limit);
+            requests.add(new Message(Message.Type.ANNOUNCEMENT_LIST, params));
+        }
 
-                        if (announcements.isEmpty()) {
-                            Label emptyLabel = new Label("暂无该分类公告");
-                            emptyLabel.setStyle("-fx-text-fill: #999999; -fx-font-size: 13px;"); // 字体大小微调
-                            container.getChildren().add(emptyLabel);
+        clientService.batchAsync(requests, false, ClientService.fxExecutor())
+                .whenComplete((responses, error) -> {
+                    for (int i = 0; i < categories.size(); i++) {
+                        VBox container = sectionLists.get(categories.get(i));
+                        if (error != null) {
+                            showSectionError(container, "网络错误");
                         } else {
-                            for (Map<String, Object> announcement : announcements) {
-                                HBox item = createSectionAnnouncementItem(announcement);
-                                container.getChildren().add(item);
-                            }
+                            showSectionAnnouncements(container, responses.get(i));
                         }
-                    } else {
-                        Label errorLabel = new Label("加载失败");
-                        errorLabel.setStyle("-fx-text-fill: " + ERROR_COLOR + "; -fx-font-size: 13px;"); // 字体大小微调
-                        container.getChildren().add(errorLabel);
                     }
                 });
+    }
 
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    Label errorLabel = new Label("网络错误");
-                    errorLabel.setStyle("-fx-text-fill: " + ERROR_COLOR + "; -fx-font-size: 13px;"); // 字体大小微调
-                    container.getChildren().add(errorLabel);
-                });
+    private void showSectionAnnouncements(VBox container, Message response) {
+        container.getChildren().clear();
+
+        if (response.getCode() == Message.Code.SUCCESS) {
+            Map<String, Object> result = (Map<String, Object>) response.getData();
+            List<Map<String, Object>> announcements = (List<Map<String, Object>>) result.get("announcements");
+
+            if (announcements.isEmpty()) {
+                Label emptyLabel = new Label("暂无该分类公告");
+                emptyLabel.setStyle("-fx-text-fill: #999999; -fx-font-size: 13px;"); // 字体大小微调
+                container.getChildren().add(emptyLabel);
+            } else {
+                for (Map<String, Object> announcement : announcements) {
+                    HBox item = createSectionAnnouncementItem(announcement);
+                    container.getChildren().add(item);
+                }
             }
-        }).start();
+        } else {
+            showSectionError(container, "加载失败");
+        }
+    }
+
+    private void showSectionError(VBox container, String text) {
+        container.getChildren().clear();
+        Label errorLabel = new Label(text);
+        errorLabel.setStyle("-fx-text-fill: " + ERROR_COLOR + "; -fx-font-size: 13px;"); // 字体大小微调
+        container.getChildren().add(errorLabel);
     }
 
     /**
@@ -631,10 +694,14 @@ public class AcademicSystemPanel {
         categoriesGrid.setAlignment(Pos.TOP_CENTER);
 
         // 四个文件分区域，每行两个
-        categoriesGrid.add(createFileSection("校历", "校历"), 0, 0);
-        categoriesGrid.add(createFileSection("教务专区", "教务专区"), 1, 0);
-        categoriesGrid.add(createFileSection("学籍专区", "学籍专区"), 0, 1);
-        categoriesGrid.add(createFileSection("教室管理", "教室管理"), 1, 1);
+        Map<String, VBox> sectionLists = new LinkedHashMap<>();
+        categoriesGrid.add(createFileSection("校历", "校历", sectionLists), 0, 0);
+        categoriesGrid.add(createFileSection("教务专区", "教务专区", sectionLists), 1, 0);
+        categoriesGrid.add(createFileSection("学籍专区", "学籍专区", sectionLists), 0, 1);
+        categoriesGrid.add(createFileSection("教室管理", "教室管理", sectionLists), 1, 1);
+
+        // 各分类文件在一次批量请求中加载
+        loadFileSections(sectionLists, 5);
 
         content.getChildren().addAll(header, categoriesGrid);
 
@@ -649,7 +716,7 @@ public class AcademicSystemPanel {
     /**
      * 创建文件分区域（类似公告分区域的样式）
      */
-    private VBox createFileSection(String title, String category) {
+    private VBox createFileSection(String title, String category, Map<String, VBox> sectionLists) {
         VBox section = new VBox(15);
         section.setPrefWidth(400);
         section.setStyle("-fx-background-color: white; -fx-background-radius: 10; -fx-padding: 20;");
@@ -679,8 +746,8 @@ public class AcademicSystemPanel {
         VBox fileList = new VBox(10);
         fileList.setMinHeight(200);
 
-        // 加载该分类的文件
-        loadFilesByCategoryForSection(fileList, category, 5);
+        // 文件由分类页面统一加载
+        sectionLists.put(category, fileList);
 
         section.getChildren().addAll(headerBox, separator, fileList);
 
@@ -688,50 +755,52 @@ public class AcademicSystemPanel {
     }
 
     /**
-     * 加载指定分类的文件（用于分区域显示）
+     * 批量加载各分类的文件（用于分区域显示），所有分类只需一次往返
      */
-    private void loadFilesByCategoryForSection(VBox container, String category, int limit) {
-        new Thread(() -> {
-            try {
-                Map<String, Object> params = new HashMap<>();
-                params.put("category", category);
-
-                Message response = clientService.request(Message.Type.FILE_LIST, params);
-
-                Platform.runLater(() -> {
-                    container.getChildren().clear();
-
-                    if (response.getCode() == Message.Code.SUCCESS) {
-                        Map<String, Object> result = (Map<String, Object>) response.getData();
-                        List<Map<String, Object>> files = (List<Map<String, Object>>) result.get("files");
+    private void loadFileSections(Map<String, VBox> sectionLists, int limit) {
+        List<String> categories = new ArrayList<>(sectionLists.keySet());
+        List<Message> requests = new ArrayList<>();
+        for (String category : categories) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("category", category);
+            requests.add(new Message(Message.Type.FILE_LIST, params));
+        }
 
-                        if (files.isEmpty()) {
-                            Label emptyLabel = new Label("暂无该分类文件");
-                            emptyLabel.setStyle("-fx-text-fill: #999999; -fx-font-size: 13px;"); // 字体大小微调
-                            container.getChildren().add(emptyLabel);
+        clientService.batchAsync(requests, false, ClientService.fxExecutor())
+                .whenComplete((responses, error) -> {
+                    for (int i = 0; i < categories.size(); i++) {
+                        VBox container = sectionLists.get(categories.get(i));
+                        if (error != null) {
+                            showSectionError(container, "网络错误");
                         } else {
-                            // 限制显示数量
-                            int displayCount = Math.min(files.size(), limit);
-                            for (int i = 0; i < displayCount; i++) {
-                                HBox item = createSectionFileItem(files.get(i));
-                                container.getChildren().add(item);
-                            }
+                            showSectionFiles(container, responses.get(i), limit);
                         }
-                    } else {
-                        Label errorLabel = new Label("加载失败");
-                        errorLabel.setStyle("-fx-text-fill: " + ERROR_COLOR + "; -fx-font-size: 13px;"); // 字体大小微调
-                        container.getChildren().add(errorLabel);
                     }
                 });
+    }
 
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    Label errorLabel = new Label("网络错误");
-                    errorLabel.setStyle("-fx-text-fill: " + ERROR_COLOR + "; -fx-font-size: 13px;"); // 字体大小微调
-                    container.getChildren().add(errorLabel);
-                });
+    private void showSectionFiles(VBox container, Message response, int limit) {
+        container.getChildren().clear();
+
+        if (response.getCode() == Message.Code.SUCCESS) {
+            Map<String, Object> result = (Map<String, Object>) response.getData();
+            List<Map<String, Object>> files = (List<Map<String, Object>>) result.get("files");
+
+            if (files.isEmpty()) {
+                Label emptyLabel = new Label("暂无该分类文件");
+                emptyLabel.setStyle("-fx-text-fill: #999999; -fx-font-size: 13px;"); // 字体大小微调
+                container.getChildren().add(emptyLabel);
+            } else {
+                // 限制显示数量
+                int displayCount = Math.min(files.size(), limit);
+                for (int i = 0; i < displayCount; i++) {
+                    HBox item = createSectionFileItem(files.get(i));
+                    container.getChildren().add(item);
+                }
             }
-        }).start();
+        } else {
+            showSectionError(container, "加载失败");
+        }
     }
 
     /**
@@ -981,7 +1050,6 @@ public class AcademicSystemPanel {
                 showAlert("输入错误", "请选择要上传的文件", Alert.AlertType.WARNING);
                 return;
             }
-            // 模拟文件上传
             uploadFile(filePathField.getText(), categoryBox.getValue(), descArea.getText());
         });
 
@@ -1571,53 +1639,72 @@ public class AcademicSystemPanel {
      * 下载文件
      */
     private void downloadFile(Integer fileId) {
-        new Thread(() -> {
-            try {
-                Message response = clientService.request(Message.Type.FILE_DOWNLOAD, fileId);
-
-                Platform.runLater(() -> {
-                    if (response.getCode() == Message.Code.SUCCESS) {
-                        Map<String, Object> fileInfo = (Map<String, Object>) response.getData();
-                        // 这里应该触发实际的文件下载，由于是演示，只显示提示
-                        showAlert("下载开始",
-                                "文件 \"" + fileInfo.get("originalName") + "\" 开始下载！",
-                                Alert.AlertType.INFORMATION);
-                    } else {
-                        showAlert("下载失败", "文件下载失败：" + response.getData(), Alert.AlertType.ERROR);
-                    }
-                });
+        Path directory = Paths.get(System.getProperty("user.home"), "Downloads", "VCampus");
+
+        // 下载进度窗口
+        Stage progressStage = new Stage();
+        progressStage.initModality(Modality.NONE);
+        progressStage.setTitle("文件下载");
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(320);
+        Label progressLabel = new Label("正在准备下载...");
+        VBox progressBox = new VBox(12, progressLabel, progressBar);
+        progressBox.setPadding(new Insets(20));
+        progressStage.setScene(new Scene(progressBox));
+        progressStage.show();
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            progressStage.close();
+            showAlert("下载失败", "无法创建下载目录：" + e.getMessage(), Alert.AlertType.ERROR);
+            return;
+        }
 
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    showAlert("网络错误", "下载文件时发生网络错误：" + e.getMessage(), Alert.AlertType.ERROR);
-                });
+        clientService.downloadFile(fileId, directory, (received, total) -> Platform.runLater(() -> {
+            progressBar.setProgress(total > 0 ? (double) received / total : 1);
+            progressLabel.setText("已下载 " + formatFileSize(received) + " / " + formatFileSize(total));
+        })).whenCompleteAsync((path, error) -> {
+            progressStage.close();
+            if (error == null) {
+                showAlert("下载完成", "文件已保存到：" + path, Alert.AlertType.INFORMATION);
+            } else {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showAlert("下载失败", "文件下载失败：" + cause.getMessage(), Alert.AlertType.ERROR);
             }
-        }).start();
+        }, ClientService.fxExecutor());
     }
 
     /**
-     * 上传文件（模拟）
+     * 上传文件
      */
     private void uploadFile(String filePath, String category, String description) {
-        // 这里应该实现实际的文件上传逻辑
-        // 为了演示，我们模拟上传过程
-        new Thread(() -> {
-            try {
-                // 模拟上传延迟
-                Thread.sleep(1000);
-
-                Platform.runLater(() -> {
-                    showAlert("上传成功", "文件已成功上传到 " + category + " 分类！", Alert.AlertType.INFORMATION);
-                    // 刷新文件上传页面
-                    showFileUpload();
-                });
-
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    showAlert("上传失败", "文件上传失败：" + e.getMessage(), Alert.AlertType.ERROR);
-                });
+        // 上传进度窗口
+        Stage progressStage = new Stage();
+        progressStage.initModality(Modality.NONE);
+        progressStage.setTitle("文件上传");
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(320);
+        Label progressLabel = new Label("正在校验文件...");
+        VBox progressBox = new VBox(12, progressLabel, progressBar);
+        progressBox.setPadding(new Insets(20));
+        progressStage.setScene(new Scene(progressBox));
+        progressStage.show();
+
+        clientService.uploadFile(Paths.get(filePath), category, description, (sent, total) -> Platform.runLater(() -> {
+            progressBar.setProgress(total > 0 ? (double) sent / total : 1);
+            progressLabel.setText("已上传 " + formatFileSize(sent) + " / " + formatFileSize(total));
+        })).whenCompleteAsync((fileId, error) -> {
+            progressStage.close();
+            if (error == null) {
+                showAlert("上传成功", "文件已成功上传到 " + category + " 分类！", Alert.AlertType.INFORMATION);
+                // 刷新文件上传页面
+                showFileUpload();
+            } else {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showAlert("上传失败", "文件上传失败：" + cause.getMessage(), Alert.AlertType.ERROR);
             }
-        }).start();
+        }, ClientService.fxExecutor());
     }
 
     /**
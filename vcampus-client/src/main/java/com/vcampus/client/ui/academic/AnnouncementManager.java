@@ -17,6 +17,7 @@ import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * 公告管理功能实现
@@ -162,13 +163,13 @@ public class AnnouncementManager {
             dialog.setScene(loadingScene);
         });
 
-        // 异步发布
-        new Thread(() -> {
-            try {
-                Message response = clientService.request(Message.Type.ANNOUNCEMENT_ADD, announcementData);
-
-                Platform.runLater(() -> {
-                    if (response.getCode() == Message.Code.SUCCESS) {
+        // 异步发布，回调在FX线程执行
+        clientService.requestAsync(Message.Type.ANNOUNCEMENT_ADD, announcementData, ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        showAlert("网络错误", "发布公告时发生网络错误：" + error.getMessage(), Alert.AlertType.ERROR);
+                        dialog.close();
+                    } else if (response.getCode() == Message.Code.SUCCESS) {
                         showAlert("发布成功", "公告已成功发布！", Alert.AlertType.INFORMATION);
                         dialog.close();
                     } else {
@@ -178,43 +179,33 @@ public class AnnouncementManager {
                         showPublishDialog();
                     }
                 });
-
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    showAlert("网络错误", "发布公告时发生网络错误：" + e.getMessage(), Alert.AlertType.ERROR);
-                    dialog.close();
-                });
-            }
-        }).start();
     }
 
     /**
-     * 加载公告列表
+     * 异步加载公告列表，结果在FX线程中回调；失败时提示并回调空列表
      */
-    public List<Map<String, Object>> loadAnnouncementsByCategory(String category) {
-        try {
-            Map<String, Object> params = new HashMap<>();
-            if (!"全部".equals(category)) {
-                params.put("category", category);
-            }
-            params.put("targetAudience", currentUser.getRole().name());
-            params.put("page", 1);
-            params.put("pageSize", 20);
-
-            Message response = clientService.request(Message.Type.ANNOUNCEMENT_LIST, params);
-
-            if (response.getCode() == Message.Code.SUCCESS) {
-                Map<String, Object> result = (Map<String, Object>) response.getData();
-                return (List<Map<String, Object>>) result.get("announcements");
-            } else {
-                showAlert("加载失败", "加载公告失败：" + response.getData(), Alert.AlertType.ERROR);
-                return new ArrayList<>();
-            }
-
-        } catch (Exception e) {
-            showAlert("网络错误", "加载公告时发生错误：" + e.getMessage(), Alert.AlertType.ERROR);
-            return new ArrayList<>();
+    public void loadAnnouncementsByCategory(String category, Consumer<List<Map<String, Object>>> onLoaded) {
+        Map<String, Object> params = new HashMap<>();
+        if (!"全部".equals(category)) {
+            params.put("category", category);
         }
+        params.put("targetAudience", currentUser.getRole().name());
+        params.put("page", 1);
+        params.put("pageSize", 20);
+
+        clientService.requestAsync(Message.Type.ANNOUNCEMENT_LIST, params, ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        showAlert("网络错误", "加载公告时发生错误：" + error.getMessage(), Alert.AlertType.ERROR);
+                        onLoaded.accept(new ArrayList<>());
+                    } else if (response.getCode() == Message.Code.SUCCESS) {
+                        Map<String, Object> result = (Map<String, Object>) response.getData();
+                        onLoaded.accept((List<Map<String, Object>>) result.get("announcements"));
+                    } else {
+                        showAlert("加载失败", "加载公告失败：" + response.getData(), Alert.AlertType.ERROR);
+                        onLoaded.accept(new ArrayList<>());
+                    }
+                });
     }
 
     /**
@@ -249,32 +240,21 @@ public class AnnouncementManager {
         Label loadingLabel = new Label("正在加载公告详情...");
         container.getChildren().addAll(progress, loadingLabel);
 
-        new Thread(() -> {
-            try {
-                Message response = clientService.request(Message.Type.ANNOUNCEMENT_DETAIL, announcementId);
-
-                Platform.runLater(() -> {
+        clientService.requestAsync(Message.Type.ANNOUNCEMENT_DETAIL, announcementId, ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
                     container.getChildren().clear();
 
-                    if (response.getCode() == Message.Code.SUCCESS) {
+                    if (error == null && response.getCode() == Message.Code.SUCCESS) {
                         Map<String, Object> detail = (Map<String, Object>) response.getData();
                         createDetailContent(detail, container);
                     } else {
-                        Label errorLabel = new Label("加载失败：" + response.getData());
+                        Label errorLabel = new Label(error != null
+                                ? "网络错误：" + error.getMessage()
+                                : "加载失败：" + response.getData());
                         errorLabel.setTextFill(Color.web(ERROR_COLOR));
                         container.getChildren().add(errorLabel);
                     }
                 });
-
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    container.getChildren().clear();
-                    Label errorLabel = new Label("网络错误：" + e.getMessage());
-                    errorLabel.setTextFill(Color.web(ERROR_COLOR));
-                    container.getChildren().add(errorLabel);
-                });
-            }
-        }).start();
     }
 
     /**
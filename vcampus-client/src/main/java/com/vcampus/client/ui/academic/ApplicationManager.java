@@ -17,6 +17,7 @@ import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 申请管理功能实现
@@ -149,13 +150,13 @@ public class ApplicationManager {
         Scene loadingScene = new Scene(loadingBox, 200, 100);
         dialog.setScene(loadingScene);
 
-        // 异步提交
-        new Thread(() -> {
-            try {
-                Message response = clientService.request(Message.Type.APPLICATION_SUBMIT, applicationData);
-
-                Platform.runLater(() -> {
-                    if (response.getCode() == Message.Code.SUCCESS) {
+        // 异步提交，回调在FX线程执行
+        clientService.requestAsync(Message.Type.APPLICATION_SUBMIT, applicationData, ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        showAlert("网络错误", "提交申请时发生网络错误：" + error.getMessage(), Alert.AlertType.ERROR);
+                        dialog.close();
+                    } else if (response.getCode() == Message.Code.SUCCESS) {
                         Map<String, Object> result = (Map<String, Object>) response.getData();
                         String applicationNo = (String) result.get("applicationNo");
 
@@ -170,71 +171,54 @@ public class ApplicationManager {
                         showNewApplicationDialog(); // 重新显示申请对话框
                     }
                 });
-
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    showAlert("网络错误", "提交申请时发生网络错误：" + e.getMessage(), Alert.AlertType.ERROR);
-                    dialog.close();
-                });
-            }
-        }).start();
     }
 
     /**
-     * 加载我的申请列表
+     * 异步加载我的申请列表
      */
-    public List<Map<String, Object>> loadMyApplications() {
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("isMyApplications", true);
-            params.put("page", 1);
-            params.put("pageSize", 20);
-
-            Message response = clientService.request(Message.Type.APPLICATION_LIST, params);
-
-            if (response.getCode() == Message.Code.SUCCESS) {
-                Map<String, Object> result = (Map<String, Object>) response.getData();
-                return (List<Map<String, Object>>) result.get("applications");
-            } else {
-                showAlert("加载失败", "加载申请列表失败：" + response.getData(), Alert.AlertType.ERROR);
-                return new ArrayList<>();
-            }
+    public CompletableFuture<List<Map<String, Object>>> loadMyApplications() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("isMyApplications", true);
+        params.put("page", 1);
+        params.put("pageSize", 20);
 
-        } catch (Exception e) {
-            showAlert("网络错误", "加载申请列表时发生错误：" + e.getMessage(), Alert.AlertType.ERROR);
-            return new ArrayList<>();
-        }
+        return loadApplications(params, "加载申请列表");
     }
 
     /**
-     * 加载待审批申请（管理员/教师）
+     * 异步加载待审批申请（管理员/教师）
      */
-    public List<Map<String, Object>> loadPendingApplications() {
+    public CompletableFuture<List<Map<String, Object>>> loadPendingApplications() {
         if (!currentUser.isAdmin() && !currentUser.isTeacher()) {
             showAlert("权限不足", "只有管理员和教师可以查看待审批申请", Alert.AlertType.WARNING);
-            return new ArrayList<>();
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
 
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("status", "已提交");
-            params.put("page", 1);
-            params.put("pageSize", 20);
-
-            Message response = clientService.request(Message.Type.APPLICATION_LIST, params);
+        Map<String, Object> params = new HashMap<>();
+        params.put("status", "已提交");
+        params.put("page", 1);
+        params.put("pageSize", 20);
 
-            if (response.getCode() == Message.Code.SUCCESS) {
-                Map<String, Object> result = (Map<String, Object>) response.getData();
-                return (List<Map<String, Object>>) result.get("applications");
-            } else {
-                showAlert("加载失败", "加载待审批申请失败：" + response.getData(), Alert.AlertType.ERROR);
-                return new ArrayList<>();
-            }
+        return loadApplications(params, "加载待审批申请");
+    }
 
-        } catch (Exception e) {
-            showAlert("网络错误", "加载待审批申请时发生错误：" + e.getMessage(), Alert.AlertType.ERROR);
-            return new ArrayList<>();
-        }
+    /**
+     * 按条件异步查询申请列表，失败时提示并返回空列表
+     */
+    private CompletableFuture<List<Map<String, Object>>> loadApplications(Map<String, Object> params, String action) {
+        return clientService.requestAsync(Message.Type.APPLICATION_LIST, params)
+                .handle((response, error) -> {
+                    if (error != null) {
+                        showAlert("网络错误", action + "时发生错误：" + error.getMessage(), Alert.AlertType.ERROR);
+                        return new ArrayList<>();
+                    }
+                    if (response.getCode() == Message.Code.SUCCESS) {
+                        Map<String, Object> result = (Map<String, Object>) response.getData();
+                        return (List<Map<String, Object>>) result.get("applications");
+                    }
+                    showAlert("加载失败", action + "失败：" + response.getData(), Alert.AlertType.ERROR);
+                    return new ArrayList<>();
+                });
     }
 
     /**
@@ -269,32 +253,21 @@ public class ApplicationManager {
         Label loadingLabel = new Label("正在加载申请详情...");
         container.getChildren().addAll(progress, loadingLabel);
 
-        new Thread(() -> {
-            try {
-                Message response = clientService.request(Message.Type.APPLICATION_DETAIL, applicationId);
-
-                Platform.runLater(() -> {
+        clientService.requestAsync(Message.Type.APPLICATION_DETAIL, applicationId, ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
                     container.getChildren().clear();
 
-                    if (response.getCode() == Message.Code.SUCCESS) {
+                    if (error == null && response.getCode() == Message.Code.SUCCESS) {
                         Map<String, Object> detail = (Map<String, Object>) response.getData();
                         createApplicationDetailContent(detail, container, stage);
                     } else {
-                        Label errorLabel = new Label("加载失败：" + response.getData());
+                        Label errorLabel = new Label(error != null
+                                ? "网络错误：" + error.getMessage()
+                                : "加载失败：" + response.getData());
                         errorLabel.setTextFill(Color.web(ERROR_COLOR));
                         container.getChildren().add(errorLabel);
                     }
                 });
-
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    container.getChildren().clear();
-                    Label errorLabel = new Label("网络错误：" + e.getMessage());
-                    errorLabel.setTextFill(Color.web(ERROR_COLOR));
-                    container.getChildren().add(errorLabel);
-                });
-            }
-        }).start();
     }
 
     /**
@@ -553,13 +526,12 @@ public class ApplicationManager {
 
         Message.Type requestType = isApprove ? Message.Type.APPLICATION_APPROVE : Message.Type.APPLICATION_REJECT;
 
-        // 异步处理
-        new Thread(() -> {
-            try {
-                Message response = clientService.request(requestType, approvalData);
-
-                Platform.runLater(() -> {
-                    if (response.getCode() == Message.Code.SUCCESS) {
+        // 异步处理，回调在FX线程执行
+        clientService.requestAsync(requestType, approvalData, ClientService.fxExecutor())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        showAlert("网络错误", "审批时发生网络错误：" + error.getMessage(), Alert.AlertType.ERROR);
+                    } else if (response.getCode() == Message.Code.SUCCESS) {
                         showAlert("审批成功",
                                 "申请已" + (isApprove ? "通过" : "拒绝"),
                                 Alert.AlertType.INFORMATION);
@@ -569,13 +541,6 @@ public class ApplicationManager {
                         showAlert("审批失败", "审批失败：" + response.getData(), Alert.AlertType.ERROR);
                     }
                 });
-
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    showAlert("网络错误", "审批时发生网络错误：" + e.getMessage(), Alert.AlertType.ERROR);
-                });
-            }
-        }).start();
     }
 
     /**
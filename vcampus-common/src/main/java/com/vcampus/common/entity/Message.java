@@ -1,6 +1,7 @@
 package com.vcampus.common.entity;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 客户端与服务器通信的消息类
@@ -9,6 +10,9 @@ import java.io.Serializable;
 public class Message implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // uid序号，保证同一进程内生成的uid不重复（响应按uid与请求匹配）
+    private static final AtomicLong UID_SEQUENCE = new AtomicLong();
+
     // 消息类型枚举
     public enum Type {
         // 用户相关
@@ -70,7 +74,28 @@ public class Message implements Serializable {
         // 响应类型
         SUCCESS,
         ERROR,
-        ANNOUNCEMENT_PUBLISH, FILE_DELETE, BOOK_RENEW, BOOK_ADD, BOOK_DELETE, BOOK_UPDATE, BORROW_RECORD_LIST, DATA
+        ANNOUNCEMENT_PUBLISH, FILE_DELETE, BOOK_RENEW, BOOK_ADD, BOOK_DELETE, BOOK_UPDATE, BORROW_RECORD_LIST, DATA,
+
+        // 连接管理
+        HANDSHAKE,             // 连接握手
+
+        // 消息推送
+        SUBSCRIBE,             // 订阅主题
+        UNSUBSCRIBE,           // 取消订阅
+        PUSH,                  // 服务器主动推送
+
+        // 批量请求
+        BATCH,                 // 一次往返执行多个请求
+
+        // 连接保活（数据为发送方的时间戳，对方原样带回）
+        PING,
+        PONG,
+
+        // 断线重连后凭登录时签发的会话令牌恢复登录状态
+        SESSION_RESUME,
+
+        // 服务器即将停止，客户端应在未完成的请求结束后重新连接（数据为建议的新地址host:port，可为空）
+        SERVER_DRAIN
     }
 
     // 状态码枚举
@@ -86,7 +111,8 @@ public class Message implements Serializable {
         INVALID_INPUT(400, "输入无效"),
         DUPLICATE_ENTRY(409, "重复条目"),
         ANNOUNCEMENT_PUBLISH(200, "公告发布操作已完成"),
-        SERVER_ERROR(500, "服务器内部错误");     // 服务器内部错误
+        SERVER_ERROR(500, "服务器内部错误"),     // 服务器内部错误
+        SERVER_BUSY(503, "服务器繁忙");          // 过载拒绝，请求未执行，客户端可退避后重试
 
         private final int value;
         private final String message;
@@ -129,7 +155,7 @@ public class Message implements Serializable {
 
     // 生成唯一ID
     private String generateUID() {
-        return System.currentTimeMillis() + "_" + (int)(Math.random() * 10000);
+        return System.currentTimeMillis() + "_" + UID_SEQUENCE.incrementAndGet();
     }
 
     // 创建成功响应
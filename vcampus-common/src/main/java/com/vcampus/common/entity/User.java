@@ -57,6 +57,7 @@ public class User implements Serializable {
     private Date createTime;     // 创建时间
     private Date lastLoginTime;  // 最后登录时间
     private boolean isActive;    // 是否激活
+    private String sessionToken; // 会话令牌（仅登录和会话恢复的响应中携带）
 
     // 构造函数
     public User() {
@@ -141,6 +142,9 @@ public class User implements Serializable {
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
 
+    public String getSessionToken() { return sessionToken; }
+    public void setSessionToken(String sessionToken) { this.sessionToken = sessionToken; }
+
     @Override
     public String toString() {
         return String.format("User[id=%s, name=%s, role=%s]", userId, realName, role);
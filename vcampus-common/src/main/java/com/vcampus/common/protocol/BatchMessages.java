@@ -0,0 +1,78 @@
+package com.vcampus.common.protocol;
+
+import com.vcampus.common.entity.Message;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量请求封装
+ * 一条BATCH消息携带有序的子请求列表，服务器返回的成功响应数据为同样顺序的子响应列表，
+ * 每个子响应的uid与对应子请求一致
+ */
+public final class BatchMessages {
+
+    // 单个批量请求允许的子请求数上限，可通过系统属性覆盖
+    public static final int MAX_SIZE = Integer.getInteger("vcampus.batch.maxSize", 32);
+
+    // 批量请求数据中的字段
+    public static final String KEY_REQUESTS = "requests";
+    public static final String KEY_PARALLEL = "parallel";
+
+    private BatchMessages() {
+    }
+
+    /**
+     * 构造批量请求；parallel为true时服务器可并行执行子请求，否则按顺序执行并共享数据库连接
+     */
+    public static Message batch(List<Message> requests, boolean parallel) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(KEY_REQUESTS, new ArrayList<>(requests));
+        data.put(KEY_PARALLEL, parallel);
+        return new Message(Message.Type.BATCH, data);
+    }
+
+    /**
+     * 取出子请求列表，格式不正确时返回null
+     */
+    public static List<Message> requestsOf(Message batch) {
+        Object requests = batch.getData() instanceof Map ? ((Map<?, ?>) batch.getData()).get(KEY_REQUESTS) : null;
+        if (!(requests instanceof List)) {
+            return null;
+        }
+        List<Message> result = new ArrayList<>();
+        for (Object item : (List<?>) requests) {
+            if (!(item instanceof Message)) {
+                return null;
+            }
+            result.add((Message) item);
+        }
+        return result;
+    }
+
+    public static boolean isParallel(Message batch) {
+        return batch.getData() instanceof Map && Boolean.TRUE.equals(((Map<?, ?>) batch.getData()).get(KEY_PARALLEL));
+    }
+
+    /**
+     * 取出子响应列表；整个批量请求失败时，每个子请求都以该错误响应作为结果
+     */
+    public static List<Message> resultsOf(Message response, int size) {
+        List<Message> results = new ArrayList<>();
+        if (response.getCode() == Message.Code.SUCCESS && response.getData() instanceof List) {
+            for (Object item : (List<?>) response.getData()) {
+                results.add(item instanceof Message ? (Message) item : Message.error("批量响应格式错误"));
+            }
+        }
+        if (results.size() != size) {
+            Message failure = response.getCode() == Message.Code.SUCCESS ? Message.error("批量响应格式错误") : response;
+            results.clear();
+            for (int i = 0; i < size; i++) {
+                results.add(failure);
+            }
+        }
+        return results;
+    }
+}
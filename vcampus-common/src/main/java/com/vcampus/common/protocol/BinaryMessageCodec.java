@@ -0,0 +1,463 @@
+package com.vcampus.common.protocol;
+
+import com.vcampus.common.entity.Book;
+import com.vcampus.common.entity.BorrowRecord;
+import com.vcampus.common.entity.Course;
+import com.vcampus.common.entity.Message;
+import com.vcampus.common.entity.User;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * 紧凑二进制编解码器
+ * 类型和状态码按序号编码，常用实体和Map/List行数据使用专用编码，
+ * 其他对象回退为Java序列化
+ */
+public class BinaryMessageCodec implements MessageCodec {
+
+    public static final byte ID = 1;
+
+    // 枚举空值标记
+    private static final int NULL_ORDINAL = 0xFF;
+
+    // 数据类型标记
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INTEGER = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_TRUE = 4;
+    private static final int TAG_FALSE = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_DATE = 7;
+    private static final int TAG_TIMESTAMP = 8;
+    private static final int TAG_MAP = 9;
+    private static final int TAG_LIST = 10;
+    private static final int TAG_BYTES = 11;
+    private static final int TAG_USER = 20;
+    private static final int TAG_BOOK = 21;
+    private static final int TAG_BORROW_RECORD = 22;
+    private static final int TAG_COURSE = 23;
+    private static final int TAG_MESSAGE = 24;
+    private static final int TAG_SERIALIZED = 127;
+
+    private static final Message.Type[] TYPES = Message.Type.values();
+    private static final Message.Code[] CODES = Message.Code.values();
+    private static final User.Role[] ROLES = User.Role.values();
+    private static final User.Gender[] GENDERS = User.Gender.values();
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    @Override
+    public void encode(Message message, OutputStream out) throws IOException {
+        DataOutputStream dos = new DataOutputStream(out);
+        writeMessage(dos, message);
+        dos.flush();
+    }
+
+    @Override
+    public Message decode(InputStream in) throws IOException {
+        return readMessage(new DataInputStream(in));
+    }
+
+    /**
+     * 消息字段编码，批量请求中嵌套的子消息使用同样的格式
+     */
+    private void writeMessage(DataOutputStream out, Message message) throws IOException {
+        writeOrdinal(out, message.getType());
+        writeOrdinal(out, message.getCode());
+        writeString(out, message.getUid());
+        writeString(out, message.getSender());
+        out.writeLong(message.getTimestamp());
+        writeValue(out, message.getData());
+    }
+
+    private Message readMessage(DataInputStream in) throws IOException {
+        Message message = new Message();
+        message.setType(readEnum(in, TYPES));
+        message.setCode(readEnum(in, CODES));
+        message.setUid(readString(in));
+        message.setSender(readString(in));
+        message.setTimestamp(in.readLong());
+        message.setData(readValue(in));
+        return message;
+    }
+
+    // ==================== 通用数据 ====================
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value.getClass() == Timestamp.class) {
+            Timestamp ts = (Timestamp) value;
+            out.writeByte(TAG_TIMESTAMP);
+            out.writeLong(ts.getTime());
+            out.writeInt(ts.getNanos());
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(TAG_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TAG_MAP);
+            writeLength(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(TAG_LIST);
+            writeLength(out, list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(TAG_BYTES);
+            writeLength(out, bytes.length);
+            out.write(bytes);
+        } else if (value.getClass() == User.class) {
+            out.writeByte(TAG_USER);
+            writeUser(out, (User) value);
+        } else if (value.getClass() == Book.class) {
+            out.writeByte(TAG_BOOK);
+            writeBook(out, (Book) value);
+        } else if (value.getClass() == BorrowRecord.class) {
+            out.writeByte(TAG_BORROW_RECORD);
+            writeBorrowRecord(out, (BorrowRecord) value);
+        } else if (value.getClass() == Course.class) {
+            out.writeByte(TAG_COURSE);
+            writeCourse(out, (Course) value);
+        } else if (value.getClass() == Message.class) {
+            out.writeByte(TAG_MESSAGE);
+            writeMessage(out, (Message) value);
+        } else {
+            out.writeByte(TAG_SERIALIZED);
+            writeSerialized(out, value);
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return readString(in);
+            case TAG_INTEGER:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_TIMESTAMP: {
+                Timestamp ts = new Timestamp(in.readLong());
+                ts.setNanos(in.readInt());
+                return ts;
+            }
+            case TAG_DATE:
+                return new Date(in.readLong());
+            case TAG_MAP: {
+                int size = readLength(in);
+                Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, size * 4 / 3 + 1));
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            case TAG_LIST: {
+                int size = readLength(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case TAG_BYTES: {
+                byte[] bytes = new byte[readLength(in)];
+                in.readFully(bytes);
+                return bytes;
+            }
+            case TAG_USER:
+                return readUser(in);
+            case TAG_BOOK:
+                return readBook(in);
+            case TAG_BORROW_RECORD:
+                return readBorrowRecord(in);
+            case TAG_COURSE:
+                return readCourse(in);
+            case TAG_MESSAGE:
+                return readMessage(in);
+            case TAG_SERIALIZED:
+                return readSerialized(in);
+            default:
+                throw new IOException("未知的数据类型标记: " + tag);
+        }
+    }
+
+    // ==================== 实体编码 ====================
+
+    private void writeUser(DataOutputStream out, User user) throws IOException {
+        writeString(out, user.getUserId());
+        writeString(out, user.getPassword());
+        writeString(out, user.getRealName());
+        writeOrdinal(out, user.getRole());
+        writeOrdinal(out, user.getGender());
+        out.writeInt(user.getAge());
+        writeString(out, user.getEmail());
+        writeString(out, user.getPhone());
+        writeString(out, user.getDepartment());
+        writeString(out, user.getClassName());
+        writeString(out, user.getMajor());
+        writeDate(out, user.getCreateTime());
+        writeDate(out, user.getLastLoginTime());
+        out.writeBoolean(user.isActive());
+        writeString(out, user.getSessionToken());
+    }
+
+    private User readUser(DataInputStream in) throws IOException {
+        User user = new User();
+        user.setUserId(readString(in));
+        user.setPassword(readString(in));
+        user.setRealName(readString(in));
+        user.setRole(readEnum(in, ROLES));
+        user.setGender(readEnum(in, GENDERS));
+        user.setAge(in.readInt());
+        user.setEmail(readString(in));
+        user.setPhone(readString(in));
+        user.setDepartment(readString(in));
+        user.setClassName(readString(in));
+        user.setMajor(readString(in));
+        user.setCreateTime(readDate(in));
+        user.setLastLoginTime(readDate(in));
+        user.setActive(in.readBoolean());
+        user.setSessionToken(readString(in));
+        return user;
+    }
+
+    private void writeBook(DataOutputStream out, Book book) throws IOException {
+        writeString(out, book.getBookId());
+        writeString(out, book.getTitle());
+        writeString(out, book.getAuthor());
+        writeString(out, book.getPublisher());
+        writeString(out, book.getStatus());
+        writeValue(out, book.getStock());
+    }
+
+    private Book readBook(DataInputStream in) throws IOException {
+        Book book = new Book();
+        book.setBookId(readString(in));
+        book.setTitle(readString(in));
+        book.setAuthor(readString(in));
+        book.setPublisher(readString(in));
+        book.setStatus(readString(in));
+        book.setStock((Integer) readValue(in));
+        return book;
+    }
+
+    private void writeBorrowRecord(DataOutputStream out, BorrowRecord record) throws IOException {
+        writeValue(out, record.getRecordId());
+        writeString(out, record.getBookId());
+        writeString(out, record.getUserId());
+        writeValue(out, record.getBorrowDate());
+        writeValue(out, record.getReturnDate());
+        writeString(out, record.getStatus());
+    }
+
+    private BorrowRecord readBorrowRecord(DataInputStream in) throws IOException {
+        BorrowRecord record = new BorrowRecord();
+        record.setRecordId((Integer) readValue(in));
+        record.setBookId(readString(in));
+        record.setUserId(readString(in));
+        record.setBorrowDate((Timestamp) readValue(in));
+        record.setReturnDate((Timestamp) readValue(in));
+        record.setStatus(readString(in));
+        return record;
+    }
+
+    private void writeCourse(DataOutputStream out, Course course) throws IOException {
+        writeString(out, course.getCourseId());
+        writeString(out, course.getCourseName());
+        writeString(out, course.getTeacherId());
+        writeString(out, course.getTeacherName());
+        writeString(out, course.getDescription());
+        out.writeInt(course.getCredits());
+        out.writeInt(course.getCapacity());
+        out.writeInt(course.getEnrolled());
+        writeString(out, course.getSchedule());
+        writeString(out, course.getClassroom());
+        writeString(out, course.getSemester());
+        writeString(out, course.getStatus());
+        writeString(out, course.getDepartment());
+        writeString(out, course.getCourseType());
+        writeLocalDateTime(out, course.getCreateTime());
+        writeLocalDateTime(out, course.getUpdateTime());
+        writeString(out, course.getClassName());
+        writeString(out, course.getStartDate());
+        writeString(out, course.getEndDate());
+    }
+
+    private Course readCourse(DataInputStream in) throws IOException {
+        Course course = new Course();
+        course.setCourseId(readString(in));
+        course.setCourseName(readString(in));
+        course.setTeacherId(readString(in));
+        course.setTeacherName(readString(in));
+        course.setDescription(readString(in));
+        course.setCredits(in.readInt());
+        course.setCapacity(in.readInt());
+        course.setEnrolled(in.readInt());
+        course.setSchedule(readString(in));
+        course.setClassroom(readString(in));
+        course.setSemester(readString(in));
+        // setEnrolled会自动计算状态，这里以发送方的状态为准
+        course.setStatus(readString(in));
+        course.setDepartment(readString(in));
+        course.setCourseType(readString(in));
+        course.setCreateTime(readLocalDateTime(in));
+        course.setUpdateTime(readLocalDateTime(in));
+        course.setClassName(readString(in));
+        course.setStartDate(readString(in));
+        course.setEndDate(readString(in));
+        return course;
+    }
+
+    // ==================== 基础类型 ====================
+
+    private void writeOrdinal(DataOutputStream out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? NULL_ORDINAL : value.ordinal());
+    }
+
+    private <E extends Enum<E>> E readEnum(DataInputStream in, E[] values) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal == NULL_ORDINAL) {
+            return null;
+        }
+        if (ordinal >= values.length) {
+            throw new IOException("非法的枚举序号: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    /**
+     * 字符串编码：变长长度（0表示null，否则为字节数+1）+ UTF-8字节
+     */
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeLength(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeLength(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = readLength(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeDate(DataOutputStream out, Date value) throws IOException {
+        writeValue(out, value);
+    }
+
+    private Date readDate(DataInputStream in) throws IOException {
+        return (Date) readValue(in);
+    }
+
+    private void writeLocalDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private LocalDateTime readLocalDateTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private void writeSerialized(DataOutputStream out, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(value);
+        }
+        writeLength(out, bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private Object readSerialized(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("数据反序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 变长整数编码（每字节7位）
+     */
+    private void writeLength(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private int readLength(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0 || value > MessageFrames.MAX_FRAME_LENGTH) {
+                    throw new IOException("非法的长度: " + value);
+                }
+                return value;
+            }
+        }
+        throw new IOException("变长整数格式错误");
+    }
+}
@@ -0,0 +1,62 @@
+package com.vcampus.common.protocol;
+
+/**
+ * 文件传输通道协议
+ * 文件内容不经过消息连接：FILE_DOWNLOAD响应携带一次性令牌和传输端口，客户端另建连接后
+ * 发送 [UTF 令牌][long 起始偏移]，服务器回复 [byte 状态][long 剩余长度]，随后是文件原始字节。
+ *
+ * 上传时FILE_UPLOAD先携带文件名、大小和SHA-256创建上传会话，客户端以会话ID为令牌连接后同样先发送
+ * [UTF 令牌][long 任意值]，服务器回复 [byte 状态][long 已确认偏移]；之后客户端从该偏移起逐块发送
+ * [long 偏移][int 长度][long CRC32][数据]，服务器对每块回复 [byte 状态][long 已确认偏移]，
+ * 长度为0的块表示发送完毕，服务器核对SHA-256后回复最终状态。出错时服务器关闭连接，
+ * 客户端重新连接后从已确认偏移继续。最后再以FILE_UPLOAD携带会话ID登记文件
+ */
+public final class FileTransfers {
+
+    // FILE_DOWNLOAD响应数据中的字段
+    public static final String KEY_TOKEN = "transferToken";
+    public static final String KEY_PORT = "transferPort";
+    public static final String KEY_SIZE = "transferSize";
+
+    // FILE_UPLOAD请求和响应中的字段
+    public static final String KEY_UPLOAD_ID = "uploadId";
+    public static final String KEY_SHA256 = "sha256";
+    public static final String KEY_CHUNK_SIZE = "chunkSize";
+    public static final String KEY_OFFSET = "uploadOffset";
+
+    // 传输通道的响应状态
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_INVALID = 1;
+    public static final byte STATUS_BUSY = 2;
+    public static final byte STATUS_ERROR = 3;
+    public static final byte STATUS_CHECKSUM = 4;
+
+    private FileTransfers() {
+    }
+
+    /**
+     * 字节数组的小写十六进制表示（SHA-256摘要）
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    public static String describe(byte status) {
+        switch (status) {
+            case STATUS_OK:
+                return "成功";
+            case STATUS_INVALID:
+                return "传输令牌无效或已过期";
+            case STATUS_BUSY:
+                return "服务器传输繁忙，请稍后重试";
+            case STATUS_CHECKSUM:
+                return "数据校验失败";
+            default:
+                return "服务器读取文件失败";
+        }
+    }
+}
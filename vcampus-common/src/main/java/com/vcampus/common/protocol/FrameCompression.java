@@ -0,0 +1,225 @@
+package com.vcampus.common.protocol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 帧压缩（deflate）
+ * 握手时协商，每个连接一个实例；只压缩超过阈值的帧，编码过程边写边压缩，
+ * 未压缩的完整消息不会在内存中缓存
+ */
+public class FrameCompression {
+
+    public static final String DEFLATE = "deflate";
+
+    // 握手参数名
+    public static final String HANDSHAKE_KEY = "compression";
+
+    // 编码标识字节的最高位表示帧体已压缩
+    public static final int FLAG_COMPRESSED = 0x80;
+
+    // 默认配置，可通过系统属性覆盖（vcampus.compression=none 关闭压缩）
+    private static final String ENABLED = System.getProperty("vcampus.compression", DEFLATE);
+    private static final int DEFAULT_THRESHOLD = Integer.getInteger("vcampus.compression.threshold", 1024);
+    private static final int DEFAULT_LEVEL = Integer.getInteger("vcampus.compression.level", Deflater.BEST_SPEED);
+
+    // 全局统计（所有连接）
+    private static final AtomicLong TOTAL_COMPRESSED_FRAMES = new AtomicLong();
+    private static final AtomicLong TOTAL_SKIPPED_FRAMES = new AtomicLong();
+    private static final AtomicLong TOTAL_RAW_BYTES = new AtomicLong();
+    private static final AtomicLong TOTAL_SENT_BYTES = new AtomicLong();
+
+    private final int threshold;
+    private final int level;
+
+    // 连接统计
+    private final AtomicLong compressedFrames = new AtomicLong();
+    private final AtomicLong skippedFrames = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+
+    public FrameCompression() {
+        this(DEFAULT_THRESHOLD, DEFAULT_LEVEL);
+    }
+
+    public FrameCompression(int threshold, int level) {
+        this.threshold = threshold;
+        this.level = level;
+    }
+
+    /**
+     * 本端支持的压缩算法
+     */
+    public static List<String> supportedNames() {
+        List<String> names = new ArrayList<>();
+        if (DEFLATE.equalsIgnoreCase(ENABLED)) {
+            names.add(DEFLATE);
+        }
+        return names;
+    }
+
+    /**
+     * 根据对方提供的算法列表协商，双方都不支持时返回null（不压缩）
+     */
+    public static FrameCompression negotiate(Object offered) {
+        if (offered instanceof List && ((List<?>) offered).contains(DEFLATE) && supportedNames().contains(DEFLATE)) {
+            return new FrameCompression();
+        }
+        return null;
+    }
+
+    /**
+     * 包装帧输出流：写入量超过阈值后切换为压缩输出
+     */
+    CompressingOutputStream open(OutputStream frame) {
+        return new CompressingOutputStream(frame);
+    }
+
+    /**
+     * 包装已压缩帧体的输入流，解压后的数据不超过maxLength
+     */
+    static InputStream inflate(InputStream compressed, int maxLength) {
+        return new InflaterInputStream(compressed) {
+            private long total;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0 && (total += n) > maxLength) {
+                    throw new IOException("解压后的消息过大");
+                }
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inf.end();
+            }
+        };
+    }
+
+    private void record(boolean compressed, long raw, long sent) {
+        if (compressed) {
+            compressedFrames.incrementAndGet();
+            rawBytes.addAndGet(raw);
+            sentBytes.addAndGet(sent);
+            TOTAL_COMPRESSED_FRAMES.incrementAndGet();
+            TOTAL_RAW_BYTES.addAndGet(raw);
+            TOTAL_SENT_BYTES.addAndGet(sent);
+        } else {
+            skippedFrames.incrementAndGet();
+            TOTAL_SKIPPED_FRAMES.incrementAndGet();
+        }
+    }
+
+    // 连接统计
+    public int getThreshold() { return threshold; }
+    public long getCompressedFrames() { return compressedFrames.get(); }
+    public long getSkippedFrames() { return skippedFrames.get(); }
+    public long getBytesSaved() { return rawBytes.get() - sentBytes.get(); }
+
+    /**
+     * 全局压缩统计，用于调整阈值
+     */
+    public static String summary() {
+        long raw = TOTAL_RAW_BYTES.get();
+        long sent = TOTAL_SENT_BYTES.get();
+        return String.format("压缩帧 %d，未达阈值 %d，压缩前 %d 字节，压缩后 %d 字节，节省 %d 字节（%.1f%%）",
+                TOTAL_COMPRESSED_FRAMES.get(), TOTAL_SKIPPED_FRAMES.get(), raw, sent, raw - sent,
+                raw > 0 ? (raw - sent) * 100.0 / raw : 0.0);
+    }
+
+    public static long getTotalBytesSaved() {
+        return TOTAL_RAW_BYTES.get() - TOTAL_SENT_BYTES.get();
+    }
+
+    /**
+     * 阈值内的数据先暂存，超过阈值后把暂存部分和后续数据一起送入Deflater
+     */
+    class CompressingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private final byte[] pending = new byte[threshold];
+        private int pendingCount;
+        private long total;
+        private long sent;
+        private Deflater deflater;
+        private DeflaterOutputStream deflating;
+        private boolean closed;
+
+        CompressingOutputStream(OutputStream target) {
+            this.target = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    target.write(b);
+                    sent++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    target.write(b, off, len);
+                    sent += len;
+                }
+            };
+        }
+
+        boolean isCompressed() {
+            return deflating != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            total += len;
+            if (total > MessageFrames.MAX_FRAME_LENGTH) {
+                throw new IOException("消息帧过大: " + total);
+            }
+
+            if (deflating == null) {
+                if (pendingCount + len <= pending.length) {
+                    System.arraycopy(b, off, pending, pendingCount, len);
+                    pendingCount += len;
+                    return;
+                }
+                deflater = new Deflater(level);
+                deflating = new DeflaterOutputStream(target, deflater, 8192);
+                deflating.write(pending, 0, pendingCount);
+            }
+            deflating.write(b, off, len);
+        }
+
+        /**
+         * 结束编码：压缩模式下输出剩余压缩数据，否则原样写出暂存数据
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            if (deflating != null) {
+                try {
+                    deflating.finish();
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                target.write(pending, 0, pendingCount);
+            }
+            record(deflating != null, total, sent);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.vcampus.common.protocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 增量帧解码器
+ * 用于非阻塞IO，从不完整的字节流中逐步拼出完整帧体
+ */
+public class FrameDecoder {
+
+    private final ByteBuffer header = ByteBuffer.allocate(MessageFrames.HEADER_LENGTH);
+    private ByteBuffer body;
+
+    /**
+     * 从缓冲区中读取数据，返回一个完整的帧体；数据不足时返回null
+     * 调用方应循环调用直到返回null
+     */
+    public byte[] decode(ByteBuffer in) throws IOException {
+        if (body == null) {
+            while (header.hasRemaining() && in.hasRemaining()) {
+                header.put(in.get());
+            }
+            if (header.hasRemaining()) {
+                return null;
+            }
+
+            int bodyLength = header.getInt(0);
+            MessageFrames.checkBodyLength(bodyLength);
+            body = ByteBuffer.allocate(bodyLength);
+        }
+
+        int count = Math.min(body.remaining(), in.remaining());
+        if (count > 0) {
+            ByteBuffer slice = in.duplicate();
+            slice.limit(slice.position() + count);
+            body.put(slice);
+            in.position(in.position() + count);
+        }
+
+        if (body.hasRemaining()) {
+            return null;
+        }
+
+        byte[] frame = body.array();
+        body = null;
+        header.clear();
+        return frame;
+    }
+}
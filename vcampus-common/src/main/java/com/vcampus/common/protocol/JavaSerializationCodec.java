@@ -0,0 +1,40 @@
+package com.vcampus.common.protocol;
+
+import com.vcampus.common.entity.Message;
+
+import java.io.*;
+
+/**
+ * Java序列化编解码器
+ * 兼容所有可序列化的数据，作为协商失败时的回退编码
+ */
+public class JavaSerializationCodec implements MessageCodec {
+
+    public static final byte ID = 0;
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "java";
+    }
+
+    @Override
+    public void encode(Message message, OutputStream out) throws IOException {
+        ObjectOutputStream oos = new ObjectOutputStream(out);
+        oos.writeObject(message);
+        oos.flush();
+    }
+
+    @Override
+    public Message decode(InputStream in) throws IOException {
+        try {
+            return (Message) new ObjectInputStream(in).readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("消息反序列化失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.vcampus.common.protocol;
+
+import com.vcampus.common.entity.Message;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 消息编解码器接口
+ * 每种编码对应帧头中的一个格式标识，接收方按帧头选择解码器
+ */
+public interface MessageCodec {
+
+    /**
+     * 帧头中的格式标识
+     */
+    byte id();
+
+    /**
+     * 握手协商时使用的名称
+     */
+    String name();
+
+    /**
+     * 将消息编码写入输出流（不关闭输出流）
+     */
+    void encode(Message message, OutputStream out) throws IOException;
+
+    /**
+     * 从输入流中解码一条消息
+     */
+    Message decode(InputStream in) throws IOException;
+}
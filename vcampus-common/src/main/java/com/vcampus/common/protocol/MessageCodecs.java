@@ -0,0 +1,86 @@
+package com.vcampus.common.protocol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编解码器注册表
+ * 负责按帧头标识查找解码器，以及握手时的编码协商
+ */
+public final class MessageCodecs {
+
+    public static final MessageCodec JAVA = new JavaSerializationCodec();
+    public static final MessageCodec BINARY = new BinaryMessageCodec();
+
+    // 握手参数名
+    public static final String HANDSHAKE_CODECS = "codecs";
+    public static final String HANDSHAKE_CODEC = "codec";
+
+    private static final MessageCodec[] BY_ID = new MessageCodec[128];
+    private static final Map<String, MessageCodec> BY_NAME = new ConcurrentHashMap<>();
+
+    static {
+        register(JAVA);
+        register(BINARY);
+    }
+
+    private MessageCodecs() {
+    }
+
+    /**
+     * 注册编解码器
+     */
+    public static synchronized void register(MessageCodec codec) {
+        if (codec.id() < 0) {
+            throw new IllegalArgumentException("编解码器标识必须在0-127之间: " + codec.id());
+        }
+        BY_ID[codec.id()] = codec;
+        BY_NAME.put(codec.name(), codec);
+    }
+
+    /**
+     * 按帧头标识查找编解码器，未注册时返回null
+     */
+    public static MessageCodec byId(int id) {
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+
+    public static MessageCodec byName(String name) {
+        return name != null ? BY_NAME.get(name) : null;
+    }
+
+    /**
+     * 本端希望使用的编码（按优先级），可通过系统属性vcampus.codecs配置，如"binary,java"
+     */
+    public static List<String> preferredNames() {
+        String configured = System.getProperty("vcampus.codecs", BINARY.name() + "," + JAVA.name());
+        List<String> names = new ArrayList<>();
+        for (String name : Arrays.asList(configured.split(","))) {
+            if (byName(name.trim()) != null) {
+                names.add(name.trim());
+            }
+        }
+        if (!names.contains(JAVA.name())) {
+            names.add(JAVA.name());
+        }
+        return names;
+    }
+
+    /**
+     * 按对方给出的优先级选择第一个双方都支持的编码，否则回退到Java序列化
+     */
+    public static MessageCodec negotiate(Object offered) {
+        if (offered instanceof List) {
+            List<String> supported = preferredNames();
+            for (Object name : (List<?>) offered) {
+                if (name instanceof String && supported.contains(name)) {
+                    return byName((String) name);
+                }
+            }
+        }
+        return JAVA;
+    }
+}
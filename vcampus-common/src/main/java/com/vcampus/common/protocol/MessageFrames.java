@@ -0,0 +1,148 @@
+package com.vcampus.common.protocol;
+
+import com.vcampus.common.entity.Message;
+
+import java.io.*;
+
+/**
+ * 消息帧编解码工具类
+ * 帧格式：[4字节帧体长度][1字节编码标识][消息体]，每一帧都可以独立解码；
+ * 编码标识最高位为1时消息体经过deflate压缩
+ */
+public final class MessageFrames {
+
+    // 协议版本
+    public static final int PROTOCOL_VERSION = 1;
+
+    // 帧头长度（长度字段）
+    public static final int HEADER_LENGTH = 4;
+
+    // 单帧最大长度，防止异常数据耗尽内存
+    public static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    private MessageFrames() {
+    }
+
+    /**
+     * 判断连接的前两个字节是否为旧版ObjectStream流头（0xACED）
+     */
+    public static boolean isLegacyStreamHeader(int b0, int b1) {
+        return b0 == 0xAC && b1 == 0xED;
+    }
+
+    /**
+     * 使用Java序列化将消息编码为完整的帧
+     */
+    public static byte[] encode(Message message) throws IOException {
+        return encode(message, MessageCodecs.JAVA);
+    }
+
+    /**
+     * 将消息编码为完整的帧（包含长度字段）
+     */
+    public static byte[] encode(Message message, MessageCodec codec) throws IOException {
+        return encode(message, codec, null);
+    }
+
+    /**
+     * 将消息编码为完整的帧，compression不为null时超过阈值的帧边编码边压缩
+     */
+    public static byte[] encode(Message message, MessageCodec codec, FrameCompression compression) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        bytes.write(new byte[HEADER_LENGTH]);
+        bytes.write(codec.id());
+
+        boolean compressed = false;
+        if (compression == null) {
+            codec.encode(message, bytes);
+        } else {
+            FrameCompression.CompressingOutputStream out = compression.open(bytes);
+            BufferedOutputStream buffered = new BufferedOutputStream(out, 4096);
+            codec.encode(message, buffered);
+            buffered.flush();
+            out.close();
+            compressed = out.isCompressed();
+        }
+
+        byte[] frame = bytes.toByteArray();
+        if (compressed) {
+            frame[HEADER_LENGTH] |= FrameCompression.FLAG_COMPRESSED;
+        }
+        int bodyLength = frame.length - HEADER_LENGTH;
+        if (bodyLength > MAX_FRAME_LENGTH) {
+            throw new IOException("消息帧过大: " + bodyLength);
+        }
+        frame[0] = (byte) (bodyLength >>> 24);
+        frame[1] = (byte) (bodyLength >>> 16);
+        frame[2] = (byte) (bodyLength >>> 8);
+        frame[3] = (byte) bodyLength;
+        return frame;
+    }
+
+    /**
+     * 解码帧体（不含长度字段），按帧头中的编码标识选择解码器
+     */
+    public static Message decode(byte[] body) throws IOException {
+        if (body.length < 1) {
+            throw new IOException("空消息帧");
+        }
+
+        int id = body[0] & 0x7F; // 低7位为编码标识
+        MessageCodec codec = MessageCodecs.byId(id);
+        if (codec == null) {
+            throw new IOException("不支持的消息编码: " + id);
+        }
+
+        InputStream payload = new ByteArrayInputStream(body, 1, body.length - 1);
+        if ((body[0] & FrameCompression.FLAG_COMPRESSED) == 0) {
+            return codec.decode(payload);
+        }
+        try (InputStream inflated = FrameCompression.inflate(payload, MAX_FRAME_LENGTH)) {
+            return codec.decode(inflated);
+        }
+    }
+
+    /**
+     * 校验帧体长度
+     */
+    public static void checkBodyLength(int bodyLength) throws IOException {
+        if (bodyLength <= 0 || bodyLength > MAX_FRAME_LENGTH) {
+            throw new IOException("非法的消息帧长度: " + bodyLength);
+        }
+    }
+
+    /**
+     * 使用Java序列化向阻塞流写入一帧并刷新
+     */
+    public static void write(OutputStream out, Message message) throws IOException {
+        write(out, message, MessageCodecs.JAVA);
+    }
+
+    /**
+     * 向阻塞流写入一帧并刷新
+     */
+    public static void write(OutputStream out, Message message, MessageCodec codec) throws IOException {
+        write(out, message, codec, null);
+    }
+
+    /**
+     * 向阻塞流写入一帧并刷新，按连接协商的压缩设置处理
+     */
+    public static void write(OutputStream out, Message message, MessageCodec codec,
+                             FrameCompression compression) throws IOException {
+        out.write(encode(message, codec, compression));
+        out.flush();
+    }
+
+    /**
+     * 从阻塞流读取一帧，流结束时抛出EOFException
+     */
+    public static Message read(DataInputStream in) throws IOException {
+        int bodyLength = in.readInt();
+        checkBodyLength(bodyLength);
+
+        byte[] body = new byte[bodyLength];
+        in.readFully(body);
+        return decode(body);
+    }
+}
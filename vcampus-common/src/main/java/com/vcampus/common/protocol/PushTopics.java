@@ -0,0 +1,102 @@
+package com.vcampus.common.protocol;
+
+import com.vcampus.common.entity.Message;
+import com.vcampus.common.entity.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 推送主题定义
+ * 主题为带前缀的字符串：公告分类、公告受众、用户收件箱
+ */
+public final class PushTopics {
+
+    public static final String ANNOUNCEMENT_CATEGORY = "announcement.category.";
+    public static final String ANNOUNCEMENT_AUDIENCE = "announcement.audience.";
+    public static final String INBOX = "inbox.";
+
+    // 公告面向全体时的受众值
+    public static final String AUDIENCE_ALL = "全体";
+
+    // 推送事件
+    public static final String EVENT_ANNOUNCEMENT_ADDED = "announcement.added";
+    public static final String EVENT_APPLICATION_STATUS = "application.status";
+
+    // 推送消息数据中的字段
+    public static final String KEY_TOPICS = "topics";
+    public static final String KEY_EVENT = "event";
+    public static final String KEY_PAYLOAD = "payload";
+
+    private PushTopics() {
+    }
+
+    public static String announcementCategory(String category) {
+        return ANNOUNCEMENT_CATEGORY + category;
+    }
+
+    public static String announcementAudience(String audience) {
+        return ANNOUNCEMENT_AUDIENCE + (audience != null ? audience : AUDIENCE_ALL);
+    }
+
+    public static String inbox(String userId) {
+        return INBOX + userId;
+    }
+
+    /**
+     * 判断主题格式是否合法（前缀已知且名称非空）
+     */
+    public static boolean isValid(String topic) {
+        if (topic == null) {
+            return false;
+        }
+        for (String prefix : new String[]{ANNOUNCEMENT_CATEGORY, ANNOUNCEMENT_AUDIENCE, INBOX}) {
+            if (topic.startsWith(prefix) && topic.length() > prefix.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 某角色应关注的公告受众主题：全体公告以及面向本角色的公告
+     */
+    public static List<String> audienceTopics(User.Role role) {
+        List<String> topics = new ArrayList<>();
+        topics.add(announcementAudience(AUDIENCE_ALL));
+        if (role == User.Role.STUDENT || role == User.Role.TEACHER) {
+            topics.add(announcementAudience(role.getDisplayName()));
+        }
+        return topics;
+    }
+
+    /**
+     * 构造推送消息
+     */
+    public static Message push(List<String> topics, String event, Object payload) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(KEY_TOPICS, new ArrayList<>(topics));
+        data.put(KEY_EVENT, event);
+        data.put(KEY_PAYLOAD, payload);
+
+        Message message = new Message(Message.Type.PUSH, data);
+        message.setSender("server");
+        return message;
+    }
+
+    public static String eventOf(Message push) {
+        return push.getData() instanceof Map ? (String) ((Map<?, ?>) push.getData()).get(KEY_EVENT) : null;
+    }
+
+    public static Object payloadOf(Message push) {
+        return push.getData() instanceof Map ? ((Map<?, ?>) push.getData()).get(KEY_PAYLOAD) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> topicsOf(Message push) {
+        Object topics = push.getData() instanceof Map ? ((Map<?, ?>) push.getData()).get(KEY_TOPICS) : null;
+        return topics instanceof List ? (List<String>) topics : new ArrayList<>();
+    }
+}
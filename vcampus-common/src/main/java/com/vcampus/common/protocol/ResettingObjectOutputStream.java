@@ -0,0 +1,118 @@
+package com.vcampus.common.protocol;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * 按策略定期reset的对象输出流，用于长连接的旧版ObjectStream协议
+ * ObjectOutputStream会在句柄表中保留写过的每个对象，连接越久占用内存越多；
+ * 每写出N条消息或M字节后在消息边界调用reset()，对端的ObjectInputStream同步清空句柄表
+ */
+public class ResettingObjectOutputStream extends ObjectOutputStream {
+
+    // 默认策略，可通过系统属性覆盖
+    public static final int DEFAULT_RESET_MESSAGES = Integer.getInteger("vcampus.stream.resetMessages", 64);
+    public static final long DEFAULT_RESET_BYTES = Long.getLong("vcampus.stream.resetBytes", 1024 * 1024);
+
+    private final CountingOutputStream counter;
+    private final int resetMessages;
+    private final long resetBytes;
+
+    // 上次reset以来的状态
+    private int messagesSinceReset;
+    private long bytesAtReset;
+    private volatile int retainedHandles;
+
+    // 统计信息
+    private volatile long resetCount;
+
+    public ResettingObjectOutputStream(OutputStream out) throws IOException {
+        this(new CountingOutputStream(out), DEFAULT_RESET_MESSAGES, DEFAULT_RESET_BYTES);
+    }
+
+    public ResettingObjectOutputStream(OutputStream out, int resetMessages, long resetBytes) throws IOException {
+        this(new CountingOutputStream(out), resetMessages, resetBytes);
+    }
+
+    private ResettingObjectOutputStream(CountingOutputStream counter, int resetMessages, long resetBytes)
+            throws IOException {
+        super(counter);
+        this.counter = counter;
+        this.resetMessages = resetMessages;
+        this.resetBytes = resetBytes;
+        // 通过replaceObject回调统计新进入句柄表的对象
+        enableReplaceObject(true);
+    }
+
+    /**
+     * 写出一条完整消息并刷新，达到阈值时在消息之后reset
+     */
+    public void writeMessage(Object message) throws IOException {
+        writeMessage(message, true);
+    }
+
+    /**
+     * 写出一条完整消息，flush为false时由调用方写完一批消息后统一flush
+     */
+    public void writeMessage(Object message, boolean flush) throws IOException {
+        writeObject(message);
+        if (flush) {
+            flush();
+        }
+
+        messagesSinceReset++;
+        if (messagesSinceReset >= resetMessages || counter.count - bytesAtReset >= resetBytes) {
+            reset();
+        }
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        flush();
+        messagesSinceReset = 0;
+        bytesAtReset = counter.count;
+        retainedHandles = 0;
+        resetCount++;
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) {
+        // 只有尚未写过的对象才会走到这里，即句柄表新增的条目
+        retainedHandles++;
+        return obj;
+    }
+
+    /**
+     * 当前句柄表中保留的对象数（不含类描述符）
+     */
+    public int getRetainedHandles() { return retainedHandles; }
+    public long getResetCount() { return resetCount; }
+    public long getBytesWritten() { return counter.count; }
+
+    /**
+     * 统计写出字节数
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private volatile long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,690 @@
+package com.vcampus.common.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据库连接池
+ * 借出的是连接的代理，调用close时归还而不是关闭物理连接；借用数由信号量限制，
+ * 空闲连接放在无锁队列中按最近使用顺序复用。空闲一段时间的连接借出前先检查有效性，
+ * 超过最长存活时间的连接归还时关闭；借出过久未归还的连接由后台线程报告。
+ * 每个物理连接按SQL文本缓存预编译语句（LRU），调用方关闭语句时放回缓存，同一SQL在该连接上只预编译一次。
+ * 配置了onWrite时，借出的连接上执行写入或提交会回调，用于读写分离时记录会话的写入
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * 连接池配置，时间单位为毫秒
+     */
+    public static final class Config {
+        private int maxConnections = 10;
+        private int minConnections = 2;
+        private int initialConnections = 3;
+        private long acquireTimeout = 30_000;
+        private long validateAfter = 5_000;
+        private int validationTimeoutSeconds = 3;
+        private long idleTimeout = 10 * 60_000L;
+        private long maxLifetime = 30 * 60_000L;
+        private long leakDetectionThreshold = 60_000;
+        private int statementCacheSize = 64;
+        // 借出的连接上执行写入语句或提交后在调用线程上回调，为null时不回调
+        private Runnable onWrite;
+
+        public Config maxConnections(int value) { maxConnections = Math.max(1, value); return this; }
+        public Config minConnections(int value) { minConnections = Math.max(0, value); return this; }
+        public Config initialConnections(int value) { initialConnections = Math.max(0, value); return this; }
+        public Config acquireTimeout(long value) { acquireTimeout = value; return this; }
+        public Config validateAfter(long value) { validateAfter = value; return this; }
+        public Config validationTimeoutSeconds(int value) { validationTimeoutSeconds = Math.max(1, value); return this; }
+        public Config idleTimeout(long value) { idleTimeout = value; return this; }
+        public Config maxLifetime(long value) { maxLifetime = value; return this; }
+        public Config leakDetectionThreshold(long value) { leakDetectionThreshold = value; return this; }
+        public Config statementCacheSize(int value) { statementCacheSize = Math.max(0, value); return this; }
+        public Config onWrite(Runnable value) { onWrite = value; return this; }
+    }
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Config config;
+
+    // 借出的连接数上限，空闲连接按最近使用顺序存放
+    private final Semaphore permits;
+    private final Deque<PhysicalConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger totalCount = new AtomicInteger();
+
+    // 借出中的连接，用于泄漏检测
+    private final Map<Lease, Boolean> leases = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    // 统计信息
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong borrowedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String username, String password, Config config) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.maxConnections, true);
+
+        for (int i = 0; i < Math.min(config.initialConnections, config.maxConnections); i++) {
+            try {
+                idle.offerLast(open());
+            } catch (SQLException e) {
+                System.err.println("创建初始数据库连接失败: " + e.getMessage());
+                break;
+            }
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vcampus-db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(30_000, config.leakDetectionThreshold > 0
+                ? config.leakDetectionThreshold / 2 : 30_000));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 借用连接，等待超过acquireTimeout时抛出SQLTransientConnectionException
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("数据库连接池已关闭");
+        }
+        try {
+            if (!permits.tryAcquire(config.acquireTimeout, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTransientConnectionException("数据库连接繁忙，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("等待数据库连接时被中断");
+        }
+
+        try {
+            PhysicalConnection physical = takeIdle();
+            if (physical == null) {
+                physical = open();
+            }
+            borrowedCount.incrementAndGet();
+            return new Lease(physical).proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 取出可用的空闲连接，过期或失效的连接直接关闭；没有可用连接时返回null
+     */
+    private PhysicalConnection takeIdle() {
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (!physical.isExpired(now) && (now - physical.lastUsed <= config.validateAfter
+                    || physical.isValid(config.validationTimeoutSeconds))) {
+                return physical;
+            }
+            discard(physical);
+        }
+        return null;
+    }
+
+    private PhysicalConnection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        totalCount.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PhysicalConnection(connection);
+    }
+
+    private void discard(PhysicalConnection physical) {
+        totalCount.decrementAndGet();
+        physical.close();
+    }
+
+    /**
+     * 归还连接：回滚未提交的事务并恢复默认状态，出错或已过期的连接关闭
+     */
+    private void giveBack(Lease lease) {
+        leases.remove(lease);
+        PhysicalConnection physical = lease.physical;
+        try {
+            physical.statements.checkinAll();
+            if (closed || physical.broken || physical.isExpired(System.currentTimeMillis()) || !physical.reset()) {
+                discard(physical);
+            } else {
+                physical.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(physical);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 后台维护：报告疑似泄漏的连接，关闭空闲过久和超过存活时间的连接，并补足最小连接数
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        if (config.leakDetectionThreshold > 0) {
+            for (Lease lease : leases.keySet()) {
+                if (!lease.reported && now - lease.borrowedAt > config.leakDetectionThreshold) {
+                    lease.reported = true;
+                    leakCount.incrementAndGet();
+                    System.err.println("疑似数据库连接泄漏：借出 " + (now - lease.borrowedAt) +
+                            " 毫秒未归还，借用线程 " + lease.thread);
+                    lease.origin.printStackTrace();
+                }
+            }
+        }
+
+        for (PhysicalConnection physical : idle) {
+            boolean idleTooLong = now - physical.lastUsed > config.idleTimeout
+                    && totalCount.get() > config.minConnections;
+            if ((idleTooLong || physical.isExpired(now)) && idle.remove(physical)) {
+                discard(physical);
+            }
+        }
+
+        while (!closed && totalCount.get() < config.minConnections) {
+            try {
+                idle.offerLast(open());
+            } catch (SQLException e) {
+                System.err.println("补充数据库连接失败: " + e.getMessage());
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            discard(physical);
+        }
+    }
+
+    public String summary() {
+        return String.format("连接 %d/%d，空闲 %d，等待 %d，已创建 %d，借出 %d，超时 %d，疑似泄漏 %d；" +
+                        "语句缓存命中 %d，未命中 %d，淘汰 %d",
+                totalCount.get(), config.maxConnections, idle.size(), permits.getQueueLength(),
+                createdCount.get(), borrowedCount.get(), timeoutCount.get(), leakCount.get(),
+                statementHits.get(), statementMisses.get(), statementEvictions.get());
+    }
+
+    // Getter方法
+    public String getUrl() { return url; }
+    public int getMaxConnections() { return config.maxConnections; }
+    public int getTotalCount() { return totalCount.get(); }
+    public int getIdleCount() { return idle.size(); }
+    public int getActiveCount() { return config.maxConnections - permits.availablePermits(); }
+    public int getWaitingCount() { return permits.getQueueLength(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getBorrowedCount() { return borrowedCount.get(); }
+    public long getTimeoutCount() { return timeoutCount.get(); }
+    public long getLeakCount() { return leakCount.get(); }
+    public long getStatementHits() { return statementHits.get(); }
+    public long getStatementMisses() { return statementMisses.get(); }
+    public long getStatementEvictions() { return statementEvictions.get(); }
+
+    /**
+     * 物理连接，同一时间只被一个借用者使用
+     */
+    private final class PhysicalConnection {
+        private final Connection connection;
+        private final long expiresAt;
+        private final StatementCache statements = new StatementCache(this);
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        // 使用中出现连接级错误（SQLState 08xxx）时标记，归还时关闭
+        private volatile boolean broken;
+
+        PhysicalConnection(Connection connection) {
+            this.connection = connection;
+            this.expiresAt = config.maxLifetime > 0 ? System.currentTimeMillis() + config.maxLifetime : Long.MAX_VALUE;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        boolean isValid(int timeoutSeconds) {
+            try {
+                return connection.isValid(timeoutSeconds);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        boolean reset() {
+            try {
+                if (connection.isClosed()) {
+                    return false;
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                if (connection.isReadOnly()) {
+                    connection.setReadOnly(false);
+                }
+                connection.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // 忽略关闭异常
+            }
+        }
+    }
+
+    /**
+     * 一次借用，调用方拿到的代理只在归还前有效
+     */
+    private final class Lease implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final Connection proxy;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String thread = Thread.currentThread().getName();
+        private final Exception origin;
+        private volatile boolean returned;
+        private volatile boolean reported;
+
+        Lease(PhysicalConnection physical) {
+            this.physical = physical;
+            this.origin = config.leakDetectionThreshold > 0 ? new Exception("连接借用位置") : null;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+            if (origin != null) {
+                leases.put(this, Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (method.getParameterCount() == 0) {
+                        if (!returned) {
+                            returned = true;
+                            giveBack(this);
+                        }
+                        return null;
+                    }
+                    break;
+                case "isClosed":
+                    if (returned) {
+                        return true;
+                    }
+                    break;
+                case "prepareStatement":
+                    if (!returned && isCacheable(args)) {
+                        return physical.statements.prepare(this, args);
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical.connection + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("连接已归还连接池");
+            }
+            Object result = forward(physical, physical.connection, method, args);
+            if (config.onWrite != null) {
+                if ("commit".equals(method.getName())) {
+                    config.onWrite.run();
+                } else if (result instanceof Statement) {
+                    // 不经过缓存的语句（createStatement等）同样要报告写入
+                    return new WriteTracker(this, result, method.getReturnType()).proxy;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 是否为可能写入的执行方法：executeQuery以外的execute*都按写入处理
+     */
+    private static boolean isWrite(String method) {
+        return method.startsWith("execute") && !"executeQuery".equals(method);
+    }
+
+    /**
+     * 未缓存语句的代理，执行写入后回调onWrite
+     */
+    private final class WriteTracker implements InvocationHandler {
+        private final Lease lease;
+        private final Object statement;
+        private final Object proxy;
+
+        WriteTracker(Lease lease, Object statement, Class<?> type) {
+            this.lease = lease;
+            this.statement = statement;
+            this.proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return lease.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return statement.toString();
+                default:
+                    break;
+            }
+            try {
+                return forward(lease.physical, statement, method, args);
+            } finally {
+                if (isWrite(method.getName())) {
+                    config.onWrite.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * 只缓存prepareStatement(sql)和prepareStatement(sql, autoGeneratedKeys)
+     */
+    private static boolean isCacheable(Object[] args) {
+        return args != null && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer));
+    }
+
+    /**
+     * 调用物理连接或语句的方法，连接级错误（SQLState 08xxx）时标记连接不可再用
+     */
+    private static Object forward(PhysicalConnection physical, Object target, Method method, Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    physical.broken = true;
+                }
+            }
+            throw cause;
+        }
+    }
+
+    /**
+     * 物理连接上的预编译语句缓存，按SQL文本（及是否返回自增主键）索引，按最近使用顺序淘汰；
+     * 物理连接同一时间只有一个借用者，不需要加锁
+     */
+    private final class StatementCache {
+        private final PhysicalConnection physical;
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        StatementCache(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement prepare(Lease lease, Object[] args) throws SQLException {
+            String sql = (String) args[0];
+            int keys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+            if (config.statementCacheSize == 0) {
+                return uncached(lease, open(sql, keys));
+            }
+
+            String key = keys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.handle == null) {
+                statementHits.incrementAndGet();
+                return cached.checkout(lease);
+            }
+
+            statementMisses.incrementAndGet();
+            if (cached != null) {
+                // 同一SQL的语句尚未关闭，这次使用不缓存的语句
+                return uncached(lease, open(sql, keys));
+            }
+
+            cached = new CachedStatement(key, open(sql, keys));
+            statements.put(key, cached);
+            evictOverflow();
+            return cached.checkout(lease);
+        }
+
+        private PreparedStatement uncached(Lease lease, PreparedStatement statement) {
+            if (config.onWrite == null) {
+                return statement;
+            }
+            return (PreparedStatement) new WriteTracker(lease, statement, PreparedStatement.class).proxy;
+        }
+
+        private PreparedStatement open(String sql, int keys) throws SQLException {
+            try {
+                return keys == Statement.NO_GENERATED_KEYS
+                        ? physical.connection.prepareStatement(sql)
+                        : physical.connection.prepareStatement(sql, keys);
+            } catch (SQLException e) {
+                String state = e.getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    physical.broken = true;
+                }
+                throw e;
+            }
+        }
+
+        private void evictOverflow() {
+            Iterator<CachedStatement> iterator = statements.values().iterator();
+            while (statements.size() > config.statementCacheSize && iterator.hasNext()) {
+                CachedStatement eldest = iterator.next();
+                iterator.remove();
+                statementEvictions.incrementAndGet();
+                eldest.evicted = true;
+                if (eldest.handle == null) {
+                    eldest.close();
+                }
+            }
+        }
+
+        /**
+         * 放回缓存：关闭调用方未关闭的结果集，清空参数和批处理并恢复语句属性，重置失败的语句直接关闭
+         */
+        void checkin(CachedStatement cached) {
+            StatementHandle handle = cached.handle;
+            cached.handle = null;
+            if (handle != null) {
+                handle.closeResults();
+            }
+            if (cached.evicted) {
+                cached.close();
+                return;
+            }
+            try {
+                PreparedStatement statement = cached.statement;
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                if (handle != null && handle.propertiesChanged) {
+                    statement.setMaxRows(cached.maxRows);
+                    statement.setFetchSize(cached.fetchSize);
+                    statement.setQueryTimeout(cached.queryTimeout);
+                }
+            } catch (SQLException e) {
+                statements.remove(cached.key, cached);
+                cached.close();
+            }
+        }
+
+        /**
+         * 连接归还时收回调用方未关闭的语句
+         */
+        void checkinAll() {
+            for (CachedStatement cached : new ArrayList<>(statements.values())) {
+                StatementHandle handle = cached.handle;
+                if (handle != null) {
+                    handle.closed = true;
+                    checkin(cached);
+                }
+            }
+        }
+    }
+
+    /**
+     * 缓存中的一个语句，handle不为null时正被借用者使用；记录语句属性的初始值，放回缓存时恢复
+     */
+    private final class CachedStatement {
+        private final String key;
+        private final PreparedStatement statement;
+        private final int maxRows;
+        private final int fetchSize;
+        private final int queryTimeout;
+        private StatementHandle handle;
+        private boolean evicted;
+
+        CachedStatement(String key, PreparedStatement statement) throws SQLException {
+            this.key = key;
+            this.statement = statement;
+            try {
+                this.maxRows = statement.getMaxRows();
+                this.fetchSize = statement.getFetchSize();
+                this.queryTimeout = statement.getQueryTimeout();
+            } catch (SQLException e) {
+                close();
+                throw e;
+            }
+        }
+
+        PreparedStatement checkout(Lease lease) {
+            handle = new StatementHandle(lease, this);
+            return handle.proxy;
+        }
+
+        void close() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // 忽略关闭异常
+            }
+        }
+    }
+
+    /**
+     * 调用方拿到的语句代理，close时放回缓存；记录本次借用中打开的结果集和修改过的语句属性
+     */
+    private final class StatementHandle implements InvocationHandler {
+        private final Lease lease;
+        private final CachedStatement cached;
+        private final PreparedStatement proxy;
+        private final List<ResultSet> results = new ArrayList<>();
+        private boolean propertiesChanged;
+        private volatile boolean closed;
+
+        StatementHandle(Lease lease, CachedStatement cached) {
+            this.lease = lease;
+            this.cached = cached;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        lease.physical.statements.checkin(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return lease.proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("语句已关闭");
+            }
+            String name = method.getName();
+            if ("setMaxRows".equals(name) || "setLargeMaxRows".equals(name)
+                    || "setFetchSize".equals(name) || "setQueryTimeout".equals(name)) {
+                propertiesChanged = true;
+            }
+            Object result;
+            try {
+                result = forward(lease.physical, cached.statement, method, args);
+            } finally {
+                if (config.onWrite != null && isWrite(name)) {
+                    config.onWrite.run();
+                }
+            }
+            if (result instanceof ResultSet) {
+                results.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        void closeResults() {
+            for (ResultSet rs : results) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    // 忽略关闭异常
+                }
+            }
+            results.clear();
+        }
+    }
+}
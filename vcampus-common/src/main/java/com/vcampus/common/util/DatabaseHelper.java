@@ -1,7 +1,14 @@
 package com.vcampus.common.util;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.io.InputStream;
 
 /**
@@ -17,10 +24,33 @@ public class DatabaseHelper {
     private static String PASSWORD;
     private static String DRIVER;
 
-    // 连接池相关
-    private static final int MAX_CONNECTIONS = 10;
-    private static Connection[] connectionPool = new Connection[MAX_CONNECTIONS];
-    private static boolean[] connectionUsed = new boolean[MAX_CONNECTIONS];
+    // 连接池配置（db.pool.*，系统属性优先于配置文件）
+    private static Properties SETTINGS = new Properties();
+
+    // 连接池；借出的连接关闭时归还，不会关闭物理连接
+    private static ConnectionPool pool;
+
+    // 只读副本，未配置db.replica.urls时为null，所有读写都走主库
+    private static ReplicaSet replicas;
+
+    // 会话写入主库后多久内的读取仍走主库（读己之写）
+    private static long STICKINESS;
+
+    // 当前线程正在处理的会话的写入标记
+    private static final ThreadLocal<WriteMark> WRITE_MARK = new ThreadLocal<>();
+
+    // 读连接统计：因刚写入而读主库、没有可用副本而读主库
+    private static final AtomicLong stickyReads = new AtomicLong();
+    private static final AtomicLong fallbackReads = new AtomicLong();
+
+    // 批量写入时每次executeBatch包含的行数
+    private static int BATCH_SIZE = 500;
+
+    // MySQL流式读取的fetchSize，结果逐行从服务器读取而不是一次全部载入内存
+    public static final int STREAMING = Integer.MIN_VALUE;
+
+    // 当前线程共享的连接（批量请求按顺序执行时使用）
+    private static final ThreadLocal<SharedConnection> SHARED = new ThreadLocal<>();
 
     static {
         loadConfig();
@@ -35,6 +65,7 @@ public class DatabaseHelper {
                 .getResourceAsStream(CONFIG_FILE)) {
 
             Properties props = new Properties();
+            SETTINGS = props;
             if (is != null) {
                 props.load(is);
                 URL = props.getProperty("db.url", "jdbc:mysql://localhost:3306/vcampus");
@@ -43,7 +74,8 @@ public class DatabaseHelper {
                 DRIVER = props.getProperty("db.driver", "com.mysql.cj.jdbc.Driver");
             } else {
                 // 默认配置
-                URL = "jdbc:mysql://localhost:3306/vcampus?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
+                URL = "jdbc:mysql://localhost:3306/vcampus?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&useServerPrepStmts=true" +
+                        "&rewriteBatchedStatements=true";
                 USERNAME = "root";
                 PASSWORD = "123456";
                 DRIVER = "com.mysql.cj.jdbc.Driver";
@@ -63,53 +95,179 @@ public class DatabaseHelper {
      * 初始化连接池
      */
     private static void initConnectionPool() {
-        try {
-            for (int i = 0; i < MAX_CONNECTIONS; i++) {
-                connectionPool[i] = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-                connectionUsed[i] = false;
+        // 主库连接上的写入和提交更新当前会话的写入标记
+        pool = new ConnectionPool(URL, USERNAME, PASSWORD, poolConfig().onWrite(DatabaseHelper::markWrite));
+        BATCH_SIZE = Math.max(1, intSetting("db.batch.size", 500));
+        System.out.println("数据库连接池初始化完成: " + pool.summary());
+        initReplicas();
+    }
+
+    /**
+     * 按db.replica.*配置只读副本；副本连接池的大小与主库相同，但不预先建立连接，借用等待时间较短
+     */
+    private static void initReplicas() {
+        String urls = stringSetting("db.replica.urls", "");
+        List<String> list = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.trim().isEmpty()) {
+                list.add(url.trim());
             }
-            System.out.println("数据库连接池初始化成功，连接数: " + MAX_CONNECTIONS);
-        } catch (SQLException e) {
-            System.err.println("数据库连接池初始化失败: " + e.getMessage());
-            e.printStackTrace();
+        }
+        if (list.isEmpty()) {
+            return;
+        }
+
+        ReplicaSet.Config config = new ReplicaSet.Config()
+                .strategy(ReplicaSet.Strategy.parse(stringSetting("db.replica.strategy", "round-robin")))
+                .maxLag(longSetting("db.replica.maxLag", 2_000))
+                .checkInterval(longSetting("db.replica.checkInterval", 1_000))
+                .lagQuery(stringSetting("db.replica.lagQuery", "SHOW SLAVE STATUS"));
+        ConnectionPool.Config replicaPool = poolConfig()
+                .initialConnections(0)
+                .acquireTimeout(longSetting("db.replica.acquireTimeout", 1_000));
+        replicas = new ReplicaSet(list, stringSetting("db.replica.username", USERNAME),
+                stringSetting("db.replica.password", PASSWORD), replicaPool, config);
+        // 默认覆盖允许的最大延迟加一个检查周期
+        STICKINESS = longSetting("db.replica.stickiness", replicas.getMaxLag() + replicas.getCheckInterval());
+        System.out.println("数据库读写分离已启用: " + list.size() + " 个只读副本，" + replicas.getStrategy());
+    }
+
+    private static ConnectionPool.Config poolConfig() {
+        return new ConnectionPool.Config()
+                .maxConnections(intSetting("db.pool.maxConnections", 10))
+                .minConnections(intSetting("db.pool.minConnections", 2))
+                .initialConnections(intSetting("db.pool.initialConnections", 3))
+                .acquireTimeout(longSetting("db.connection.timeout", 30_000))
+                .validateAfter(longSetting("db.pool.validateAfter", 5_000))
+                .validationTimeoutSeconds(intSetting("db.pool.validationTimeout", 3))
+                .idleTimeout(longSetting("db.pool.idleTimeout", 10 * 60_000L))
+                .maxLifetime(longSetting("db.pool.maxLifetime", 30 * 60_000L))
+                .leakDetectionThreshold(longSetting("db.pool.leakDetectionThreshold", 60_000))
+                .statementCacheSize(intSetting("db.pool.statementCacheSize", 64));
+    }
+
+    private static String stringSetting(String key, String defaultValue) {
+        return System.getProperty(key, SETTINGS.getProperty(key, defaultValue));
+    }
+
+    private static int intSetting(String key, int defaultValue) {
+        return (int) longSetting(key, defaultValue);
+    }
+
+    private static long longSetting(String key, long defaultValue) {
+        String value = System.getProperty(key, SETTINGS.getProperty(key));
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("数据库配置项 " + key + " 无效: " + value);
+            return defaultValue;
         }
     }
 
     /**
-     * 获取数据库连接
+     * 获取主库连接；当前线程处于共享作用域内时返回共享的连接
+     * 只有在连接上执行写入或提交时才记为当前会话的一次写入，只读取主库不影响之后的读连接选择
      */
-    public static synchronized Connection getConnection() throws SQLException {
-        for (int i = 0; i < MAX_CONNECTIONS; i++) {
-            if (!connectionUsed[i]) {
-                // 检查连接是否有效
-                if (connectionPool[i].isClosed()) {
-                    connectionPool[i] = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+    public static Connection getConnection() throws SQLException {
+        SharedConnection shared = SHARED.get();
+        if (shared != null) {
+            return shared.connection();
+        }
+        return acquireConnection();
+    }
+
+    /**
+     * 获取只读连接，只能用于查询：配置了副本时从可用副本借用；
+     * 共享作用域内、当前会话刚写入过主库、或没有可用副本时返回主库连接
+     */
+    public static Connection getReadConnection() throws SQLException {
+        SharedConnection shared = SHARED.get();
+        if (shared != null) {
+            return shared.connection();
+        }
+        ReplicaSet set = replicas;
+        if (set != null) {
+            WriteMark mark = WRITE_MARK.get();
+            if (mark != null && mark.isWithin(STICKINESS)) {
+                stickyReads.incrementAndGet();
+            } else {
+                Connection conn = set.getConnection();
+                if (conn != null) {
+                    return conn;
                 }
-                connectionUsed[i] = true;
-                return connectionPool[i];
+                fallbackReads.incrementAndGet();
+            }
+        }
+        return acquireConnection();
+    }
+
+    /**
+     * 在当前线程上设置会话的写入标记，直到返回的作用域关闭；
+     * 作用域内通过本类写主库会更新标记，之后一段时间内该会话的读取走主库
+     */
+    public static WriteScope trackWrites(WriteMark mark) {
+        WriteScope scope = new WriteScope(WRITE_MARK.get());
+        WRITE_MARK.set(mark);
+        return scope;
+    }
+
+    private static void markWrite() {
+        if (replicas != null) {
+            WriteMark mark = WRITE_MARK.get();
+            if (mark != null) {
+                mark.mark();
             }
         }
+    }
 
-        // 如果连接池已满，创建新连接
-        System.out.println("连接池已满，创建临时连接");
-        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+    /**
+     * 在当前线程内共享一个连接，直到返回的作用域关闭
+     * 作用域内getConnection总是返回同一连接，调用方的close/releaseConnection不会真正归还；
+     * 连接在首次使用时才获取，嵌套调用复用外层作用域
+     */
+    public static SharedConnection shareConnection() {
+        SharedConnection shared = SHARED.get();
+        if (shared == null) {
+            shared = new SharedConnection();
+            SHARED.set(shared);
+        } else {
+            shared.depth++;
+        }
+        return shared;
+    }
+
+    private static Connection acquireConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    /**
+     * 包装连接，调用方close时执行onClose而不是直接关闭
+     */
+    private static Connection withCloseAction(Connection delegate, Runnable onClose) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        onClose.run();
+                        return null;
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
     }
 
     /**
-     * 释放数据库连接
+     * 释放数据库连接（等同于close，连接归还连接池）
      */
-    public static synchronized void releaseConnection(Connection conn) {
+    public static void releaseConnection(Connection conn) {
         if (conn == null) return;
 
         try {
-            for (int i = 0; i < MAX_CONNECTIONS; i++) {
-                if (connectionPool[i] == conn) {
-                    connectionUsed[i] = false;
-                    return;
-                }
-            }
-
-            // 临时连接直接关闭
             conn.close();
         } catch (SQLException e) {
             System.err.println("释放连接失败: " + e.getMessage());
@@ -134,18 +292,58 @@ public class DatabaseHelper {
     }
 
     /**
-     * 执行查询操作
+     * 查询并把每一行映射为对象，连接、语句和结果集在返回前释放
+     * query、queryOne和forEach使用只读连接，配置了副本时可能读到稍旧的数据（当前会话刚写入的除外）
+     */
+    public static <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        forEach(sql, 0, mapper, rows::add, params);
+        return rows;
+    }
+
+    /**
+     * 查询第一行，没有结果时返回null
      */
-    public static ResultSet executeQuery(String sql, Object... params) throws SQLException {
-        Connection conn = getConnection();
-        PreparedStatement stmt = conn.prepareStatement(sql);
+    public static <T> T queryOne(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (Connection conn = getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameters(stmt, params);
+            stmt.setMaxRows(1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapper.map(rs) : null;
+            }
+        }
+    }
 
-        // 设置参数
+    /**
+     * 逐行查询，每行映射后立即交给action，内存占用与结果行数无关；返回处理的行数
+     * fetchSize为0时使用驱动默认值；为STREAMING时使用MySQL流式游标，
+     * 此时在action返回前同一连接不能执行其他语句（共享连接作用域内不要在action中查询数据库）
+     */
+    public static <T> long forEach(String sql, int fetchSize, RowMapper<T> mapper, Consumer<? super T> action,
+                                   Object... params) throws SQLException {
+        try (Connection conn = getReadConnection();
+             // 语句放回缓存时连接池恢复读取大小，不影响后续复用
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setParameters(stmt, params);
+            if (fetchSize != 0) {
+                stmt.setFetchSize(fetchSize);
+            }
+            long count = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapper.map(rs));
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static void setParameters(PreparedStatement stmt, Object... params) throws SQLException {
         for (int i = 0; i < params.length; i++) {
             stmt.setObject(i + 1, params[i]);
         }
-
-        return stmt.executeQuery();
     }
 
     /**
@@ -158,11 +356,7 @@ public class DatabaseHelper {
         try {
             conn = getConnection();
             stmt = conn.prepareStatement(sql);
-
-            // 设置参数
-            for (int i = 0; i < params.length; i++) {
-                stmt.setObject(i + 1, params[i]);
-            }
+            setParameters(stmt, params);
 
             return stmt.executeUpdate();
         } finally {
@@ -170,6 +364,112 @@ public class DatabaseHelper {
         }
     }
 
+    /**
+     * 批量写入，按db.batch.size分批提交给驱动（配合rewriteBatchedStatements，多行插入合并为一条语句）；
+     * 全部写入在一个事务中完成，失败时回滚。返回每行的影响行数，驱动合并语句时可能为SUCCESS_NO_INFO
+     */
+    public static <T> int[] batchUpdate(String sql, Collection<? extends T> items, ParameterBinder<? super T> binder)
+            throws SQLException {
+        int[][] counts = new int[1][];
+        inTransaction(conn -> counts[0] = batchUpdate(conn, sql, items, binder));
+        return counts[0];
+    }
+
+    /**
+     * 在调用方的连接（和事务）中批量写入，不提交也不归还连接
+     */
+    public static <T> int[] batchUpdate(Connection conn, String sql, Collection<? extends T> items,
+                                        ParameterBinder<? super T> binder) throws SQLException {
+        int[] counts = new int[items.size()];
+        int written = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (T item : items) {
+                binder.bind(stmt, item);
+                stmt.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    written = copyCounts(stmt.executeBatch(), counts, written);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                copyCounts(stmt.executeBatch(), counts, written);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 批量插入并按插入顺序返回自增主键，每批执行后立即读取该批的主键；在一个事务中完成
+     */
+    public static <T> List<Long> batchInsert(String sql, Collection<? extends T> items,
+                                             ParameterBinder<? super T> binder) throws SQLException {
+        List<Long> keys = new ArrayList<>(items.size());
+        inTransaction(conn -> keys.addAll(batchInsert(conn, sql, items, binder)));
+        return keys;
+    }
+
+    /**
+     * 在调用方的连接（和事务）中批量插入并返回自增主键
+     */
+    public static <T> List<Long> batchInsert(Connection conn, String sql, Collection<? extends T> items,
+                                             ParameterBinder<? super T> binder) throws SQLException {
+        List<Long> keys = new ArrayList<>(items.size());
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            int pending = 0;
+            for (T item : items) {
+                binder.bind(stmt, item);
+                stmt.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    executeBatchForKeys(stmt, keys);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                executeBatchForKeys(stmt, keys);
+            }
+        }
+        return keys;
+    }
+
+    private static void executeBatchForKeys(PreparedStatement stmt, List<Long> keys) throws SQLException {
+        stmt.executeBatch();
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            while (rs.next()) {
+                keys.add(rs.getLong(1));
+            }
+        }
+    }
+
+    private static int copyCounts(int[] batch, int[] counts, int offset) {
+        System.arraycopy(batch, 0, counts, offset, Math.min(batch.length, counts.length - offset));
+        return offset + batch.length;
+    }
+
+    /**
+     * 在一个事务中执行，异常时回滚；事务结束后恢复自动提交并归还连接
+     */
+    private static void inTransaction(SqlWork work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                work.run(conn);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run(Connection conn) throws SQLException;
+    }
+
     /**
      * 测试数据库连接
      */
@@ -189,18 +489,98 @@ public class DatabaseHelper {
     }
 
     /**
-     * 关闭连接池
+     * 线程内共享连接的作用域
      */
-    public static void closeConnectionPool() {
-        try {
-            for (int i = 0; i < MAX_CONNECTIONS; i++) {
-                if (connectionPool[i] != null && !connectionPool[i].isClosed()) {
-                    connectionPool[i].close();
+    public static final class SharedConnection implements AutoCloseable {
+
+        private Connection target;
+        private Connection view;
+        private int depth = 1;
+
+        private SharedConnection() {
+        }
+
+        private Connection connection() throws SQLException {
+            if (target == null) {
+                target = acquireConnection();
+                // 调用方关闭连接时不做任何事，由作用域统一归还
+                view = withCloseAction(target, () -> { });
+            }
+            return view;
+        }
+
+        /**
+         * 结束作用域并归还连接；子操作异常时可能遗留未提交的事务，归还前回滚
+         */
+        @Override
+        public void close() {
+            if (--depth > 0) {
+                return;
+            }
+            SHARED.remove();
+            if (target == null) {
+                return;
+            }
+            try {
+                if (!target.isClosed() && !target.getAutoCommit()) {
+                    target.rollback();
+                    target.setAutoCommit(true);
                 }
+            } catch (SQLException e) {
+                System.err.println("重置共享连接失败: " + e.getMessage());
             }
-            System.out.println("数据库连接池已关闭");
-        } catch (SQLException e) {
-            System.err.println("关闭连接池失败: " + e.getMessage());
+            releaseConnection(target);
+        }
+    }
+
+    /**
+     * 会话写入标记的作用域，关闭时恢复外层的标记
+     */
+    public static final class WriteScope implements AutoCloseable {
+
+        private final WriteMark previous;
+
+        private WriteScope(WriteMark previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                WRITE_MARK.set(previous);
+            } else {
+                WRITE_MARK.remove();
+            }
+        }
+    }
+
+    /**
+     * 连接池状态
+     */
+    public static String getPoolSummary() {
+        return pool.summary();
+    }
+
+    /**
+     * 只读副本状态，未配置副本时返回null
+     */
+    public static String getReplicaSummary() {
+        ReplicaSet set = replicas;
+        if (set == null) {
+            return null;
+        }
+        return String.format("%s，可用 %d/%d，刚写入读主库 %d，无可用副本读主库 %d\n%s", set.getStrategy(),
+                set.getAvailableCount(), set.size(), stickyReads.get(), fallbackReads.get(), set.summary());
+    }
+
+    /**
+     * 关闭连接池
+     */
+    public static void closeConnectionPool() {
+        if (replicas != null) {
+            replicas.close();
         }
+        pool.close();
+        System.out.println("数据库连接池已关闭");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.vcampus.common.util;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * 把一个对象的字段设置为预编译语句的参数，用于批量写入
+ */
+@FunctionalInterface
+public interface ParameterBinder<T> {
+    void bind(PreparedStatement stmt, T item) throws SQLException;
+}
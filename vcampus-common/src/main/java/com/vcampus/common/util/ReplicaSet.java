@@ -0,0 +1,283 @@
+package com.vcampus.common.util;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 只读副本集合
+ * 每个副本使用独立的连接池，读连接按轮询或最少使用选择副本；后台线程通过连接池以外的专用连接定期查询各副本的复制延迟，
+ * 连接池借满时检查不受影响。延迟超过上限、复制已停止或无法连接的副本暂不使用，直到下一次检查恢复。
+ * 没有可用副本时返回null，由调用方改用主库
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    /**
+     * 副本选择方式
+     */
+    public enum Strategy {
+        ROUND_ROBIN, LEAST_LOADED;
+
+        /**
+         * 解析配置值（round-robin、least-loaded），无法识别时使用轮询
+         */
+        public static Strategy parse(String value) {
+            if (value != null && "least-loaded".equalsIgnoreCase(value.trim())) {
+                return LEAST_LOADED;
+            }
+            return ROUND_ROBIN;
+        }
+    }
+
+    /**
+     * 副本集合配置，时间单位为毫秒
+     */
+    public static final class Config {
+        private Strategy strategy = Strategy.ROUND_ROBIN;
+        private long maxLag = 2_000;
+        private long checkInterval = 1_000;
+        private int checkTimeoutSeconds = 2;
+        private String lagQuery = "SHOW SLAVE STATUS";
+
+        public Config strategy(Strategy value) { strategy = value; return this; }
+        public Config maxLag(long value) { maxLag = value; return this; }
+        public Config checkInterval(long value) { checkInterval = Math.max(100, value); return this; }
+        public Config checkTimeoutSeconds(int value) { checkTimeoutSeconds = Math.max(1, value); return this; }
+        public Config lagQuery(String value) { lagQuery = value; return this; }
+    }
+
+    private final List<Replica> replicas;
+    private final Config config;
+    private final String username;
+    private final String password;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ScheduledExecutorService monitor;
+
+    public ReplicaSet(List<String> urls, String username, String password,
+                      ConnectionPool.Config poolConfig, Config config) {
+        this.config = config;
+        this.username = username;
+        this.password = password;
+        List<Replica> list = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            list.add(new Replica(url, new ConnectionPool(url, username, password, poolConfig)));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+
+        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vcampus-db-replica-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        // 首次检查完成前副本不可用，读请求走主库
+        monitor.scheduleWithFixedDelay(this::checkAll, 0, config.checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从可用副本借用连接；副本借用失败时换下一个，没有可用副本时返回null
+     */
+    public Connection getConnection() {
+        int size = replicas.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int attempt = 0; attempt < size; attempt++) {
+            Replica replica = config.strategy == Strategy.LEAST_LOADED
+                    ? leastLoaded(start) : replicas.get((start + attempt) % size);
+            if (replica == null) {
+                return null;
+            }
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replica.readCount.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                // 连接失败的副本在下一次检查前不再使用；只是繁忙则尝试其他副本
+                if (!(e instanceof SQLTransientConnectionException)) {
+                    replica.markDown("借用连接失败: " + e.getMessage());
+                } else if (config.strategy == Strategy.LEAST_LOADED) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 借出比例最低的可用副本，比例相同时从start开始轮流选择
+     */
+    private Replica leastLoaded(int start) {
+        Replica best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.available) {
+                continue;
+            }
+            ConnectionPool pool = replica.pool;
+            double load = (double) (pool.getActiveCount() + pool.getWaitingCount()) / pool.getMaxConnections();
+            if (load < bestLoad) {
+                best = replica;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 检查所有副本的复制延迟
+     */
+    private void checkAll() {
+        for (Replica replica : replicas) {
+            try {
+                long lag = measureLag(replica);
+                replica.lag = lag;
+                if (lag < 0) {
+                    replica.markDown("复制已停止");
+                } else if (lag > config.maxLag) {
+                    replica.markDown("复制延迟 " + lag + " 毫秒");
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException | RuntimeException e) {
+                // 下一次检查重新建立监控连接
+                replica.closeMonitor();
+                replica.markDown("检查失败: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 执行延迟查询，返回延迟毫秒数，复制已停止时返回-1
+     * SHOW SLAVE/REPLICA STATUS按Seconds_Behind_Master（Source）列读取，其他查询读取第一列，单位为秒；
+     * 没有结果行说明不是复制副本（例如独立维护的只读库），视为没有延迟
+     */
+    private long measureLag(Replica replica) throws SQLException {
+        if (replica.monitor == null) {
+            replica.monitor = DriverManager.getConnection(replica.url, username, password);
+        }
+        try (Statement stmt = replica.monitor.createStatement()) {
+            stmt.setQueryTimeout(config.checkTimeoutSeconds);
+            try (ResultSet rs = stmt.executeQuery(config.lagQuery)) {
+                if (!rs.next()) {
+                    return 0;
+                }
+                double seconds = rs.getDouble(lagColumn(rs.getMetaData()));
+                return rs.wasNull() ? -1 : Math.round(seconds * 1000);
+            }
+        }
+    }
+
+    private static int lagColumn(ResultSetMetaData meta) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String name = meta.getColumnLabel(i);
+            if ("Seconds_Behind_Master".equalsIgnoreCase(name) || "Seconds_Behind_Source".equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    @Override
+    public void close() {
+        monitor.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.closeMonitor();
+            replica.pool.close();
+        }
+    }
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Replica replica : replicas) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(replica.name).append(' ')
+                    .append(replica.available ? "可用，延迟 " + replica.lag + " 毫秒" : "不可用（" + replica.reason + "）")
+                    .append("，读取 ").append(replica.readCount.get())
+                    .append("；").append(replica.pool.summary());
+        }
+        return sb.toString();
+    }
+
+    // Getter方法
+    public int size() { return replicas.size(); }
+    public Strategy getStrategy() { return config.strategy; }
+    public long getMaxLag() { return config.maxLag; }
+    public long getCheckInterval() { return config.checkInterval; }
+
+    public int getAvailableCount() {
+        int count = 0;
+        for (Replica replica : replicas) {
+            if (replica.available) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 一个副本及其连接池、监控连接和最近一次检查结果
+     */
+    private static final class Replica {
+        private final String url;
+        private final String name;
+        private final ConnectionPool pool;
+        // 由监控线程建立和使用，关闭副本集合时一并关闭
+        private volatile Connection monitor;
+        private final AtomicLong readCount = new AtomicLong();
+        private volatile boolean available;
+        private volatile long lag = -1;
+        private volatile String reason = "尚未检查";
+
+        Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            // 日志中不显示连接参数
+            int query = url.indexOf('?');
+            this.name = query >= 0 ? url.substring(0, query) : url;
+            this.pool = pool;
+        }
+
+        void markUp() {
+            if (!available) {
+                System.out.println("数据库副本恢复使用: " + name);
+            }
+            available = true;
+            reason = null;
+        }
+
+        void closeMonitor() {
+            Connection connection = monitor;
+            monitor = null;
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // 忽略关闭异常
+                }
+            }
+        }
+
+        void markDown(String why) {
+            if (available) {
+                System.err.println("数据库副本暂停使用: " + name + "，" + why);
+            }
+            available = false;
+            reason = why;
+        }
+    }
+}
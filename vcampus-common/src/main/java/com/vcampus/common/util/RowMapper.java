@@ -0,0 +1,12 @@
+package com.vcampus.common.util;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 结果集行映射，每次调用时结果集已定位到当前行，实现中不要调用next或关闭结果集
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,40 @@
+package com.vcampus.common.util;
+
+import java.io.Serializable;
+
+/**
+ * 一个会话最近一次使用主库的时间
+ * 读写分离时，会话在写入后的一段时间内读主库，保证能读到自己刚写入的数据
+ */
+public final class WriteMark implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private volatile long lastWrite;
+
+    /**
+     * 记录一次写入
+     */
+    public void mark() {
+        lastWrite = System.currentTimeMillis();
+    }
+
+    /**
+     * 合并另一个标记的写入时间，例如登录前在同一连接上的写入
+     */
+    public void follow(WriteMark other) {
+        long time = other.lastWrite;
+        if (time > lastWrite) {
+            lastWrite = time;
+        }
+    }
+
+    /**
+     * 最近window毫秒内是否写入过
+     */
+    public boolean isWithin(long window) {
+        return System.currentTimeMillis() - lastWrite < window;
+    }
+
+    // Getter方法
+    public long getLastWrite() { return lastWrite; }
+}
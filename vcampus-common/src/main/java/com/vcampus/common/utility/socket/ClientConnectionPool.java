@@ -0,0 +1,258 @@
+package com.vcampus.common.utility.socket;
+
+import com.vcampus.common.entity.Message;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 客户端连接池
+ * 复用到服务器的持久连接（旧版ObjectStream协议），避免每个请求都建立TCP连接、交换流头并占用一个服务器线程；
+ * 空闲一段时间的连接借出前先用PING检查，空闲过久的连接由后台线程关闭
+ */
+public class ClientConnectionPool implements Closeable {
+
+    // 默认配置，可通过系统属性覆盖
+    private static final int MAX_TOTAL = Integer.getInteger("vcampus.client.pool.maxTotal", 8);
+    private static final long MAX_IDLE = Long.getLong("vcampus.client.pool.maxIdle", 60_000);
+    private static final long VALIDATE_AFTER = Long.getLong("vcampus.client.pool.validateAfter", 5_000);
+    private static final long ACQUIRE_TIMEOUT = Long.getLong("vcampus.client.pool.acquireTimeout", 5_000);
+    private static final int READ_TIMEOUT = Integer.getInteger("vcampus.client.pool.readTimeout", 30_000);
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int PING_TIMEOUT = 2000;
+
+    private final String host;
+    private final int port;
+
+    // 借出的连接数上限，空闲连接按最近使用顺序存放
+    private final Semaphore permits = new Semaphore(MAX_TOTAL);
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed = false;
+
+    // 统计信息
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong reusedCount = new AtomicLong();
+
+    public ClientConnectionPool(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vcampus-client-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, MAX_IDLE / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 借用一个连接发送请求并等待响应，可被多个线程同时调用
+     */
+    public Message sendAndReceive(Message request) throws IOException, ClassNotFoundException {
+        if (closed) {
+            throw new IOException("连接池已关闭");
+        }
+        try {
+            if (!permits.tryAcquire(ACQUIRE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                throw new IOException("等待可用连接超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待可用连接时被中断");
+        }
+
+        try {
+            PooledConnection connection = idle.pollFirst();
+            connection = connection != null ? validate(connection) : null;
+            boolean reused = connection != null;
+            if (!reused) {
+                connection = open();
+            }
+
+            try {
+                connection.send(request);
+            } catch (IOException e) {
+                connection.close();
+                if (!reused) {
+                    throw e;
+                }
+                // 复用的连接可能已被服务器关闭，请求尚未发出，换新连接重发一次
+                connection = open();
+                try {
+                    return release(connection, connection.exchange(request));
+                } catch (IOException | ClassNotFoundException | RuntimeException retryError) {
+                    connection.close();
+                    throw retryError;
+                }
+            } catch (RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+
+            // 请求已发出后失败不重发，服务器可能已经执行（例如借书、提交申请）
+            try {
+                return release(connection, connection.receive(request));
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 检查取出的空闲连接，不可用时关闭并继续取下一个；没有可用连接时返回null
+     */
+    private PooledConnection validate(PooledConnection connection) {
+        while (connection != null) {
+            long idleMillis = System.currentTimeMillis() - connection.lastUsed;
+            if (idleMillis <= MAX_IDLE && connection.isOpen()
+                    && (idleMillis <= VALIDATE_AFTER || connection.ping())) {
+                reusedCount.incrementAndGet();
+                return connection;
+            }
+            connection.close();
+            connection = idle.pollFirst();
+        }
+        return null;
+    }
+
+    private PooledConnection open() throws IOException, ClassNotFoundException {
+        PooledConnection connection = new PooledConnection(host, port);
+        createdCount.incrementAndGet();
+        return connection;
+    }
+
+    private Message release(PooledConnection connection, Message response) {
+        connection.lastUsed = System.currentTimeMillis();
+        if (closed) {
+            connection.close();
+        } else {
+            idle.offerFirst(connection);
+        }
+        return response;
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection connection : idle) {
+            if (now - connection.lastUsed > MAX_IDLE && idle.remove(connection)) {
+                connection.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+    public String summary() {
+        return String.format("%s:%d 空闲 %d，使用中 %d，已创建 %d，复用 %d", host, port, idle.size(),
+                MAX_TOTAL - permits.availablePermits(), createdCount.get(), reusedCount.get());
+    }
+
+    // Getter方法
+    public String getHost() { return host; }
+    public int getPort() { return port; }
+    public int getIdleCount() { return idle.size(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getReusedCount() { return reusedCount.get(); }
+
+    /**
+     * 池中的一个连接，同一时间只被一个线程使用
+     */
+    private static final class PooledConnection {
+        private final Socket socket;
+        private final ObjectOutputStream output;
+        private final ObjectInputStream input;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(String host, int port) throws IOException, ClassNotFoundException {
+            socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+                socket.setSoTimeout(READ_TIMEOUT);
+                socket.setTcpNoDelay(true);
+                socket.setKeepAlive(true);
+
+                output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                output.flush();
+                input = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+
+                // 服务器连接后先发送欢迎消息
+                input.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * 发送请求并读取uid对应的响应，跳过其他消息
+         */
+        Message exchange(Message request) throws IOException, ClassNotFoundException {
+            send(request);
+            return receive(request);
+        }
+
+        void send(Message request) throws IOException {
+            output.writeObject(request);
+            // 每条消息后重置句柄表，避免两端缓存已发送的对象
+            output.reset();
+            output.flush();
+        }
+
+        Message receive(Message request) throws IOException, ClassNotFoundException {
+            while (true) {
+                Message response = (Message) input.readObject();
+                if (request.getUid() == null || request.getUid().equals(response.getUid())) {
+                    return response;
+                }
+            }
+        }
+
+        boolean ping() {
+            try {
+                socket.setSoTimeout(PING_TIMEOUT);
+                Message response = exchange(new Message(Message.Type.PING, null));
+                socket.setSoTimeout(READ_TIMEOUT);
+                return response.getType() == Message.Type.PONG;
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                return false;
+            }
+        }
+
+        boolean isOpen() {
+            return !socket.isClosed() && socket.isConnected() && !socket.isInputShutdown();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // 忽略关闭异常
+            }
+        }
+    }
+}
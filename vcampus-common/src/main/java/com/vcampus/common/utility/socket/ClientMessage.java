@@ -3,25 +3,45 @@ package com.vcampus.common.utility.socket;
 import com.vcampus.common.entity.Message;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.Socket;
 
+/**
+ * 同步请求工具
+ * 请求经连接池中的持久连接发送；登录状态属于单个连接，依赖登录的请求应使用客户端的ClientService
+ */
 public class ClientMessage {
-    private static final String SERVER_IP = "127.0.0.1"; // 或你的服务器IP地址
-    private static final int SERVER_PORT = 8888; // 你的服务器端口
+    private static final String SERVER_IP = System.getProperty("vcampus.server.host", "127.0.0.1");
+    private static final int SERVER_PORT = Integer.getInteger("vcampus.server.port", 8888);
+
+    private static ClientConnectionPool pool;
 
     public static Message sendAndReceive(Message request) throws IOException, ClassNotFoundException {
-        try (Socket socket = new Socket(SERVER_IP, SERVER_PORT);
-             ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream());
-             ObjectInputStream ois = new ObjectInputStream(socket.getInputStream())) {
+        return pool().sendAndReceive(request);
+    }
 
-            // 发送请求消息
-            oos.writeObject(request);
-            oos.flush();
+    /**
+     * 切换服务器地址，原连接池中的连接全部关闭
+     */
+    public static synchronized void setEndpoint(String host, int port) {
+        if (pool != null) {
+            pool.close();
+        }
+        pool = new ClientConnectionPool(host, port);
+    }
+
+    /**
+     * 关闭所有连接，之后的请求会重新建立连接池
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
 
-            // 接收响应消息
-            return (Message) ois.readObject();
+    private static synchronized ClientConnectionPool pool() {
+        if (pool == null) {
+            pool = new ClientConnectionPool(SERVER_IP, SERVER_PORT);
         }
+        return pool;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package com.vcampus.common.protocol;
+
+import com.vcampus.common.entity.Book;
+import com.vcampus.common.entity.BorrowRecord;
+import com.vcampus.common.entity.Course;
+import com.vcampus.common.entity.Message;
+import com.vcampus.common.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryMessageCodecTest {
+
+    private final MessageCodec codec = MessageCodecs.BINARY;
+
+    private Message roundTrip(Message message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.encode(message, out);
+        return codec.decode(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private Object roundTripData(Object data) throws IOException {
+        return roundTrip(new Message(Message.Type.BOOK_LIST, data)).getData();
+    }
+
+    @Test
+    void headerFieldsSurvive() throws IOException {
+        Message message = new Message(Message.Type.SESSION_RESUME, Message.Code.SERVER_BUSY, null);
+        message.setUid("uid-1");
+        message.setSender("客户端");
+        message.setTimestamp(123456789L);
+
+        Message decoded = roundTrip(message);
+        assertEquals(Message.Type.SESSION_RESUME, decoded.getType());
+        assertEquals(Message.Code.SERVER_BUSY, decoded.getCode());
+        assertEquals("uid-1", decoded.getUid());
+        assertEquals("客户端", decoded.getSender());
+        assertEquals(123456789L, decoded.getTimestamp());
+        assertNull(decoded.getData());
+    }
+
+    @Test
+    void nullEnumsAndStrings() throws IOException {
+        Message message = new Message();
+        message.setType(null);
+        message.setCode(null);
+        message.setUid(null);
+
+        Message decoded = roundTrip(message);
+        assertNull(decoded.getType());
+        assertNull(decoded.getCode());
+        assertNull(decoded.getUid());
+    }
+
+    @Test
+    void scalarTags() throws IOException {
+        assertEquals("图书馆 ✓", roundTripData("图书馆 ✓"));
+        assertEquals("", roundTripData(""));
+        assertEquals(Integer.MIN_VALUE, roundTripData(Integer.MIN_VALUE));
+        assertEquals(Long.MAX_VALUE, roundTripData(Long.MAX_VALUE));
+        assertEquals(Boolean.TRUE, roundTripData(true));
+        assertEquals(Boolean.FALSE, roundTripData(false));
+        assertEquals(3.25, roundTripData(3.25));
+        assertArrayEquals(new byte[]{1, 2, (byte) 0xFF}, (byte[]) roundTripData(new byte[]{1, 2, (byte) 0xFF}));
+    }
+
+    @Test
+    void dateAndTimestampKeepTheirClassAndNanos() throws IOException {
+        Date date = new Date(1_700_000_000_123L);
+        Object decodedDate = roundTripData(date);
+        assertEquals(Date.class, decodedDate.getClass());
+        assertEquals(date, decodedDate);
+
+        Timestamp ts = new Timestamp(1_700_000_000_000L);
+        ts.setNanos(123_456_789);
+        Object decodedTs = roundTripData(ts);
+        assertEquals(Timestamp.class, decodedTs.getClass());
+        assertEquals(ts, decodedTs);
+    }
+
+    @Test
+    void nestedMapsAndListsKeepOrder() throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("z", 1);
+        row.put("a", Arrays.asList("x", null, 2L));
+        row.put("m", new LinkedHashMap<>(Map.of("k", false)));
+        row.put("n", null);
+
+        Object decoded = roundTripData(List.of(row, row));
+        assertEquals(List.of(row, row), decoded);
+        assertEquals(List.of("z", "a", "m", "n"), List.copyOf(((Map<?, ?>) ((List<?>) decoded).get(0)).keySet()));
+    }
+
+    @Test
+    void userTagIncludesSessionToken() throws IOException {
+        User user = new User("2023001", "secret", "张三", User.Role.STUDENT);
+        user.setGender(User.Gender.FEMALE);
+        user.setAge(20);
+        user.setEmail("a@b.c");
+        user.setDepartment("计算机");
+        user.setCreateTime(new Date(1000));
+        user.setActive(true);
+        user.setSessionToken("token");
+
+        User decoded = (User) roundTripData(user);
+        assertEquals("2023001", decoded.getUserId());
+        assertEquals("secret", decoded.getPassword());
+        assertEquals("张三", decoded.getRealName());
+        assertEquals(User.Role.STUDENT, decoded.getRole());
+        assertEquals(User.Gender.FEMALE, decoded.getGender());
+        assertEquals(20, decoded.getAge());
+        assertEquals("a@b.c", decoded.getEmail());
+        assertNull(decoded.getPhone());
+        assertEquals(new Date(1000), decoded.getCreateTime());
+        assertNull(decoded.getLastLoginTime());
+        assertTrue(decoded.isActive());
+        assertEquals("token", decoded.getSessionToken());
+    }
+
+    @Test
+    void bookAndBorrowRecordTags() throws IOException {
+        Book book = new Book();
+        book.setBookId("B1");
+        book.setTitle("Java");
+        book.setStock(null);
+        Book decodedBook = (Book) roundTripData(book);
+        assertEquals("B1", decodedBook.getBookId());
+        assertEquals("Java", decodedBook.getTitle());
+        assertNull(decodedBook.getStock());
+
+        Timestamp borrowed = new Timestamp(5000);
+        BorrowRecord record = new BorrowRecord(7, "B1", "U1", borrowed, null, "BORROWED");
+        BorrowRecord decodedRecord = (BorrowRecord) roundTripData(record);
+        assertEquals(7, decodedRecord.getRecordId());
+        assertEquals("U1", decodedRecord.getUserId());
+        assertEquals(borrowed, decodedRecord.getBorrowDate());
+        assertNull(decodedRecord.getReturnDate());
+        assertEquals("BORROWED", decodedRecord.getStatus());
+    }
+
+    @Test
+    void courseTagKeepsLocalDateTime() throws IOException {
+        Course course = new Course();
+        course.setCourseId("C1");
+        course.setCourseName("数据结构");
+        course.setCredits(3);
+        course.setCreateTime(LocalDateTime.of(2024, 9, 1, 8, 0, 0, 500));
+        course.setUpdateTime(null);
+        course.setStartDate("2024-09-01");
+
+        Course decoded = (Course) roundTripData(course);
+        assertEquals("C1", decoded.getCourseId());
+        assertEquals("数据结构", decoded.getCourseName());
+        assertEquals(3, decoded.getCredits());
+        assertEquals(course.getCreateTime(), decoded.getCreateTime());
+        assertNull(decoded.getUpdateTime());
+        assertEquals("2024-09-01", decoded.getStartDate());
+    }
+
+    @Test
+    void nestedMessagesInBatch() throws IOException {
+        Message first = new Message(Message.Type.BOOK_LIST, null);
+        Message second = new Message(Message.Type.COURSE_LIST, Map.of("page", 2));
+        Message decoded = roundTrip(BatchMessages.batch(List.of(first, second), true));
+
+        List<Message> requests = BatchMessages.requestsOf(decoded);
+        assertNotNull(requests);
+        assertEquals(2, requests.size());
+        assertEquals(first.getUid(), requests.get(0).getUid());
+        assertEquals(Message.Type.COURSE_LIST, requests.get(1).getType());
+        assertEquals(Map.of("page", 2), requests.get(1).getData());
+        assertTrue(BatchMessages.isParallel(decoded));
+    }
+
+    @Test
+    void otherObjectsFallBackToSerialization() throws IOException {
+        assertEquals(new BigDecimal("12.50"), roundTripData(new BigDecimal("12.50")));
+    }
+
+    @Test
+    void smallerThanJavaSerialization() throws IOException {
+        Message message = new Message(Message.Type.BOOK_LIST, List.of(Map.of("id", 1, "title", "Java")));
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        ByteArrayOutputStream java = new ByteArrayOutputStream();
+        MessageCodecs.BINARY.encode(message, binary);
+        MessageCodecs.JAVA.encode(message, java);
+        assertTrue(binary.size() < java.size() / 2, binary.size() + " vs " + java.size());
+    }
+}
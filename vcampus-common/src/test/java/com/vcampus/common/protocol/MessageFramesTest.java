@@ -0,0 +1,131 @@
+package com.vcampus.common.protocol;
+
+import com.vcampus.common.entity.Message;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageFramesTest {
+
+    private static Message large() {
+        return new Message(Message.Type.ANNOUNCEMENT_LIST, String.join("", Collections.nCopies(500, "公告内容")));
+    }
+
+    private static byte[] body(byte[] frame) {
+        return Arrays.copyOfRange(frame, MessageFrames.HEADER_LENGTH, frame.length);
+    }
+
+    @Test
+    void headerHoldsBodyLengthAndCodecId() throws IOException {
+        byte[] frame = MessageFrames.encode(new Message(Message.Type.PING, null), MessageCodecs.BINARY);
+        int length = ByteBuffer.wrap(frame).getInt();
+        assertEquals(frame.length - MessageFrames.HEADER_LENGTH, length);
+        assertEquals(BinaryMessageCodec.ID, frame[MessageFrames.HEADER_LENGTH]);
+    }
+
+    @Test
+    void roundTripWithEachCodec() throws IOException {
+        for (MessageCodec codec : List.of(MessageCodecs.JAVA, MessageCodecs.BINARY)) {
+            Message message = new Message(Message.Type.BOOK_SEARCH, "java");
+            Message decoded = MessageFrames.decode(body(MessageFrames.encode(message, codec)));
+            assertEquals(message.getUid(), decoded.getUid(), codec.name());
+            assertEquals("java", decoded.getData(), codec.name());
+        }
+    }
+
+    @Test
+    void largeFramesAreCompressed() throws IOException {
+        FrameCompression compression = new FrameCompression(256, Deflater.BEST_SPEED);
+        Message message = large();
+
+        byte[] plain = MessageFrames.encode(message, MessageCodecs.BINARY);
+        byte[] packed = MessageFrames.encode(message, MessageCodecs.BINARY, compression);
+
+        assertNotEquals(0, packed[MessageFrames.HEADER_LENGTH] & FrameCompression.FLAG_COMPRESSED);
+        assertTrue(packed.length < plain.length / 4, packed.length + " vs " + plain.length);
+        assertEquals(message.getData(), MessageFrames.decode(body(packed)).getData());
+        assertEquals(1, compression.getCompressedFrames());
+        assertTrue(compression.getBytesSaved() > 0);
+    }
+
+    @Test
+    void smallFramesStayUncompressed() throws IOException {
+        FrameCompression compression = new FrameCompression(256, Deflater.BEST_SPEED);
+        byte[] frame = MessageFrames.encode(new Message(Message.Type.PING, null), MessageCodecs.BINARY, compression);
+
+        assertEquals(BinaryMessageCodec.ID, frame[MessageFrames.HEADER_LENGTH]);
+        assertEquals(Message.Type.PING, MessageFrames.decode(body(frame)).getType());
+        assertEquals(0, compression.getCompressedFrames());
+        assertEquals(1, compression.getSkippedFrames());
+    }
+
+    @Test
+    void blockingReadAndWrite() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Message first = new Message(Message.Type.PING, null);
+        Message second = large();
+        MessageFrames.write(out, first, MessageCodecs.BINARY);
+        MessageFrames.write(out, second, MessageCodecs.JAVA, new FrameCompression(256, Deflater.BEST_SPEED));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(first.getUid(), MessageFrames.read(in).getUid());
+        assertEquals(second.getData(), MessageFrames.read(in).getData());
+        assertThrows(EOFException.class, () -> MessageFrames.read(in));
+    }
+
+    @Test
+    void frameDecoderReassemblesSplitInput() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Message> sent = List.of(new Message(Message.Type.PING, null), large(), new Message(Message.Type.PONG, 7));
+        for (Message message : sent) {
+            out.write(MessageFrames.encode(message, MessageCodecs.BINARY, new FrameCompression(256, Deflater.BEST_SPEED)));
+        }
+        byte[] stream = out.toByteArray();
+
+        // 每次只送入3个字节，帧头和帧体都会被拆开
+        FrameDecoder decoder = new FrameDecoder();
+        List<Message> received = new ArrayList<>();
+        for (int offset = 0; offset < stream.length; offset += 3) {
+            ByteBuffer chunk = ByteBuffer.wrap(stream, offset, Math.min(3, stream.length - offset));
+            byte[] frameBody;
+            while ((frameBody = decoder.decode(chunk)) != null) {
+                received.add(MessageFrames.decode(frameBody));
+            }
+        }
+
+        assertEquals(sent.size(), received.size());
+        for (int i = 0; i < sent.size(); i++) {
+            assertEquals(sent.get(i).getUid(), received.get(i).getUid());
+            assertEquals(sent.get(i).getData(), received.get(i).getData());
+        }
+    }
+
+    @Test
+    void invalidFramesAreRejected() {
+        assertThrows(IOException.class, () -> MessageFrames.checkBodyLength(0));
+        assertThrows(IOException.class, () -> MessageFrames.checkBodyLength(MessageFrames.MAX_FRAME_LENGTH + 1));
+        assertThrows(IOException.class, () -> MessageFrames.decode(new byte[0]));
+        assertThrows(IOException.class, () -> MessageFrames.decode(new byte[]{100, 1, 2}));
+
+        FrameDecoder decoder = new FrameDecoder();
+        assertThrows(IOException.class, () -> decoder.decode(ByteBuffer.wrap(new byte[]{(byte) 0xFF, 0, 0, 0})));
+    }
+
+    @Test
+    void legacyStreamHeaderIsDetected() {
+        assertTrue(MessageFrames.isLegacyStreamHeader(0xAC, 0xED));
+        assertFalse(MessageFrames.isLegacyStreamHeader(0x00, 0x00));
+    }
+}
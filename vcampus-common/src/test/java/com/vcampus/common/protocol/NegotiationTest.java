@@ -0,0 +1,49 @@
+package com.vcampus.common.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegotiationTest {
+
+    @Test
+    void firstCommonCodecWins() {
+        assertSame(MessageCodecs.BINARY, MessageCodecs.negotiate(List.of("binary", "java")));
+        assertSame(MessageCodecs.JAVA, MessageCodecs.negotiate(List.of("java", "binary")));
+        assertSame(MessageCodecs.BINARY, MessageCodecs.negotiate(List.of("protobuf", "binary")));
+    }
+
+    @Test
+    void unknownOrMissingOfferFallsBackToJava() {
+        assertSame(MessageCodecs.JAVA, MessageCodecs.negotiate(List.of("protobuf")));
+        assertSame(MessageCodecs.JAVA, MessageCodecs.negotiate(List.of()));
+        assertSame(MessageCodecs.JAVA, MessageCodecs.negotiate(null));
+        assertSame(MessageCodecs.JAVA, MessageCodecs.negotiate("binary"));
+    }
+
+    @Test
+    void javaIsAlwaysPreferredLast() {
+        List<String> names = MessageCodecs.preferredNames();
+        assertEquals(MessageCodecs.JAVA.name(), names.get(names.size() - 1));
+        assertTrue(names.contains(MessageCodecs.BINARY.name()));
+    }
+
+    @Test
+    void codecsAreFoundByIdAndName() {
+        assertSame(MessageCodecs.BINARY, MessageCodecs.byId(BinaryMessageCodec.ID));
+        assertSame(MessageCodecs.BINARY, MessageCodecs.byName("binary"));
+        assertNull(MessageCodecs.byId(99));
+        assertNull(MessageCodecs.byId(-1));
+        assertNull(MessageCodecs.byName(null));
+    }
+
+    @Test
+    void compressionNeedsDeflateOnBothSides() {
+        assertNotNull(FrameCompression.negotiate(List.of("gzip", FrameCompression.DEFLATE)));
+        assertNull(FrameCompression.negotiate(List.of("gzip")));
+        assertNull(FrameCompression.negotiate(FrameCompression.DEFLATE));
+        assertNull(FrameCompression.negotiate(null));
+    }
+}
@@ -0,0 +1,240 @@
+package com.vcampus.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    private static ConnectionPool.Config config() {
+        return new ConnectionPool.Config().initialConnections(0).minConnections(0).maxConnections(2)
+                .acquireTimeout(100).leakDetectionThreshold(0);
+    }
+
+    @Test
+    void returnedConnectionIsReused() throws SQLException {
+        StubDriver.Database db = StubDriver.database("pool-reuse");
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url(db.name), "u", "p", config())) {
+            Connection first = pool.getConnection();
+            first.close();
+            try (Connection second = pool.getConnection()) {
+                assertNotSame(first, second);
+            }
+            assertEquals(1, db.opened.get());
+            assertEquals(2, pool.getBorrowedCount());
+            assertEquals(1, pool.getIdleCount());
+            assertEquals(0, pool.getActiveCount());
+        }
+        assertEquals(0, db.open());
+    }
+
+    @Test
+    void returnedProxyCannotBeUsed() throws SQLException {
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url("pool-returned"), "u", "p", config())) {
+            Connection connection = pool.getConnection();
+            connection.close();
+            connection.close();
+            assertTrue(connection.isClosed());
+            assertThrows(SQLException.class, connection::createStatement);
+            assertEquals(0, pool.getActiveCount());
+        }
+    }
+
+    @Test
+    void acquireTimesOutWhenAllConnectionsAreBorrowed() throws SQLException {
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url("pool-timeout"), "u", "p", config())) {
+            Connection a = pool.getConnection();
+            Connection b = pool.getConnection();
+            assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+            assertEquals(1, pool.getTimeoutCount());
+
+            a.close();
+            pool.getConnection().close();
+            b.close();
+        }
+    }
+
+    @Test
+    void uncommittedTransactionIsRolledBackOnReturn() throws SQLException {
+        StubDriver.Database db = StubDriver.database("pool-rollback");
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url(db.name), "u", "p", config())) {
+            try (Connection connection = pool.getConnection()) {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+            }
+            assertEquals(1, db.rollbacks.get());
+            try (Connection connection = pool.getConnection()) {
+                assertTrue(connection.getAutoCommit());
+                assertFalse(connection.isReadOnly());
+            }
+        }
+    }
+
+    @Test
+    void idleConnectionIsValidatedBeforeReuse() throws Exception {
+        StubDriver.Database db = StubDriver.database("pool-validate");
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url(db.name), "u", "p", config().validateAfter(0))) {
+            pool.getConnection().close();
+
+            // 失效的空闲连接被关闭，换一个新连接
+            db.valid = false;
+            Thread.sleep(5);
+            pool.getConnection().close();
+            assertEquals(2, db.opened.get());
+            assertEquals(1, db.closed.get());
+        }
+    }
+
+    @Test
+    void expiredConnectionIsClosedInsteadOfReused() throws Exception {
+        StubDriver.Database db = StubDriver.database("pool-lifetime");
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url(db.name), "u", "p", config().maxLifetime(50))) {
+            Connection connection = pool.getConnection();
+            Thread.sleep(80);
+            // 借出期间过期，归还时关闭
+            connection.close();
+            assertEquals(1, db.closed.get());
+            assertEquals(0, pool.getTotalCount());
+
+            pool.getConnection().close();
+            Thread.sleep(80);
+            // 空闲期间过期，借出前关闭
+            pool.getConnection().close();
+            assertEquals(3, db.opened.get());
+        }
+    }
+
+    @Test
+    void connectionLevelErrorDiscardsTheConnection() throws SQLException {
+        StubDriver.Database db = StubDriver.database("pool-broken");
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url(db.name), "u", "p", config())) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement("UPDATE t SET a = 1")) {
+                db.failure.set(new SQLNonTransientConnectionException("连接已断开", "08S01"));
+                assertThrows(SQLException.class, stmt::executeUpdate);
+            }
+            assertEquals(1, db.closed.get());
+            assertEquals(0, pool.getIdleCount());
+        }
+    }
+
+    @Test
+    void leakedConnectionIsReported() throws Exception {
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url("pool-leak"), "u", "p",
+                config().leakDetectionThreshold(100))) {
+            Connection leaked = pool.getConnection();
+            pool.getConnection().close();
+
+            // 后台检查至少每秒一次
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (pool.getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, pool.getLeakCount());
+            leaked.close();
+        }
+    }
+
+    @Test
+    void cachedStatementIsResetWhenReturned() throws SQLException {
+        StubDriver.Database db = StubDriver.database("pool-statement-reset");
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url(db.name), "u", "p", config())) {
+            ResultSet leftOpen;
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement("SELECT * FROM t WHERE id = ?")) {
+                stmt.setInt(1, 7);
+                stmt.setMaxRows(1);
+                stmt.setFetchSize(500);
+                stmt.setQueryTimeout(5);
+                stmt.addBatch();
+                leftOpen = stmt.executeQuery();
+            }
+
+            // 调用方未关闭的结果集随语句放回缓存时关闭，语句属性恢复初始值
+            assertTrue(leftOpen.isClosed());
+            StubDriver.StubStatement physical = db.statements.get(0);
+            assertTrue(physical.getParameters().isEmpty());
+            assertEquals(0, physical.getBatchSize());
+            assertEquals(0, physical.maxRows);
+            assertEquals(0, physical.fetchSize);
+            assertEquals(0, physical.queryTimeout);
+            assertFalse(physical.closed);
+
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement("SELECT * FROM t WHERE id = ?")) {
+                assertEquals(0, stmt.getMaxRows());
+            }
+            assertEquals(1, db.prepared.get());
+        }
+    }
+
+    @Test
+    void resultSetsAreClosedWhenConnectionIsReturned() throws SQLException {
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url("pool-unclosed"), "u", "p", config())) {
+            ResultSet rs;
+            try (Connection connection = pool.getConnection()) {
+                // 语句和结果集都未关闭，连接归还时一并收回
+                rs = connection.prepareStatement("SELECT 1").executeQuery();
+            }
+            assertTrue(rs.isClosed());
+        }
+    }
+
+    @Test
+    void preparedStatementsAreCachedPerConnection() throws SQLException {
+        StubDriver.Database db = StubDriver.database("pool-statements");
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url(db.name), "u", "p", config())) {
+            for (int i = 0; i < 3; i++) {
+                try (Connection connection = pool.getConnection();
+                     PreparedStatement stmt = connection.prepareStatement("SELECT 1")) {
+                    stmt.executeQuery();
+                }
+            }
+            assertEquals(1, db.prepared.get());
+            assertEquals(2, pool.getStatementHits());
+            assertEquals(1, pool.getStatementMisses());
+        }
+    }
+
+    @Test
+    void writesAndCommitsAreReported() throws SQLException {
+        AtomicInteger writes = new AtomicInteger();
+        try (ConnectionPool pool = new ConnectionPool(StubDriver.url("pool-writes"), "u", "p",
+                config().onWrite(writes::incrementAndGet))) {
+            try (Connection connection = pool.getConnection()) {
+                try (PreparedStatement stmt = connection.prepareStatement("SELECT 1")) {
+                    stmt.executeQuery().close();
+                }
+                assertEquals(0, writes.get());
+
+                try (PreparedStatement stmt = connection.prepareStatement("UPDATE t SET a = ?")) {
+                    stmt.setInt(1, 1);
+                    stmt.executeUpdate();
+                    stmt.addBatch();
+                    stmt.executeBatch();
+                }
+                assertEquals(2, writes.get());
+
+                // 不经过语句缓存的语句同样报告
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeQuery("SELECT 1").close();
+                    stmt.executeUpdate("DELETE FROM t");
+                }
+                assertEquals(3, writes.get());
+
+                connection.setAutoCommit(false);
+                connection.commit();
+                assertEquals(4, writes.get());
+            }
+        }
+    }
+}
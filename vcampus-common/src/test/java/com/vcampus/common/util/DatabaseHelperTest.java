@@ -0,0 +1,136 @@
+package com.vcampus.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试配置见src/test/resources/database.properties：主库为jdbc:stub:helper，每批3行；
+ * 一个只读副本jdbc:stub:helper-replica，写入后300毫秒内读主库
+ */
+class DatabaseHelperTest {
+
+    private static final String INSERT_SQL = "INSERT INTO t (name) VALUES (?)";
+    private static final String PRIMARY = "helper";
+    private static final String REPLICA = "helper-replica";
+
+    private final StubDriver.Database db = StubDriver.database(PRIMARY);
+    private final StubDriver.Database replica = StubDriver.database(REPLICA);
+
+    static {
+        // 查询返回执行查询的库名；副本没有复制状态行，延迟视为0
+        StubDriver.database(PRIMARY).query = sql -> StubDriver.Rows.single("server", PRIMARY);
+        StubDriver.database(REPLICA).query = sql -> sql.startsWith("SHOW")
+                ? StubDriver.Rows.empty() : StubDriver.Rows.single("server", REPLICA);
+    }
+
+    private static String server() throws SQLException {
+        return DatabaseHelper.queryOne("SELECT @@hostname", rs -> rs.getString(1));
+    }
+
+    private static void awaitServer(String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!expected.equals(server())) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void batchUpdateIsSplitByConfiguredSize() throws SQLException {
+        List<String> names = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+        int batches = db.batchSizes.size();
+        int rows = db.batchRows.size();
+        int commits = db.commits.get();
+
+        int[] counts = DatabaseHelper.batchUpdate(INSERT_SQL, names, (stmt, name) -> stmt.setString(1, name));
+
+        assertEquals(7, counts.length);
+        assertTrue(Arrays.stream(counts).allMatch(count -> count == 1));
+        assertEquals(Arrays.asList(3, 3, 1), db.batchSizes.subList(batches, db.batchSizes.size()));
+        // 按集合顺序绑定，全部在一个事务中提交
+        List<Map<Integer, Object>> written = db.batchRows.subList(rows, db.batchRows.size());
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(names.get(i), written.get(i).get(1));
+        }
+        assertEquals(commits + 1, db.commits.get());
+    }
+
+    @Test
+    void batchInsertReturnsKeysOfEveryBatchInOrder() throws SQLException {
+        long first = db.nextKey.get() + 1;
+        int batches = db.batchSizes.size();
+
+        List<Long> keys = DatabaseHelper.batchInsert(INSERT_SQL, Arrays.asList("a", "b", "c", "d", "e"),
+                (stmt, name) -> stmt.setString(1, name));
+
+        assertEquals(Arrays.asList(first, first + 1, first + 2, first + 3, first + 4), keys);
+        assertEquals(Arrays.asList(3, 2), db.batchSizes.subList(batches, db.batchSizes.size()));
+    }
+
+    @Test
+    void failedBatchIsRolledBack() {
+        int rollbacks = db.rollbacks.get();
+        int commits = db.commits.get();
+        db.failure.set(new SQLException("主键冲突", "23000"));
+
+        assertThrows(SQLException.class, () -> DatabaseHelper.batchUpdate(INSERT_SQL, Arrays.asList("a", "b"),
+                (stmt, name) -> stmt.setString(1, name)));
+        assertEquals(rollbacks + 1, db.rollbacks.get());
+        assertEquals(commits, db.commits.get());
+    }
+
+    @Test
+    void emptyBatchWritesNothing() throws SQLException {
+        int batches = db.batchSizes.size();
+        assertEquals(0, DatabaseHelper.batchUpdate(INSERT_SQL, List.<String>of(),
+                (stmt, name) -> stmt.setString(1, name)).length);
+        assertEquals(batches, db.batchSizes.size());
+    }
+
+    @Test
+    void sessionReadsPrimaryOnlyAfterWriting() throws Exception {
+        awaitServer(REPLICA);
+        WriteMark mark = new WriteMark();
+        try (DatabaseHelper.WriteScope scope = DatabaseHelper.trackWrites(mark)) {
+            // 借用主库连接只做查询不算写入
+            try (Connection conn = DatabaseHelper.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+                stmt.executeQuery().close();
+            }
+            assertEquals(REPLICA, server());
+
+            DatabaseHelper.executeUpdate("UPDATE t SET a = 1");
+            assertEquals(PRIMARY, server());
+            Thread.sleep(400);
+            assertEquals(REPLICA, server());
+
+            // 事务提交同样记为写入
+            DatabaseHelper.batchUpdate(INSERT_SQL, List.of("a"), (stmt, name) -> stmt.setString(1, name));
+            assertEquals(PRIMARY, server());
+        }
+        // 其他会话不受影响
+        assertEquals(REPLICA, server());
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaStops() throws Exception {
+        awaitServer(REPLICA);
+        replica.query = sql -> sql.startsWith("SHOW")
+                ? StubDriver.Rows.single("Seconds_Behind_Master", null) : StubDriver.Rows.single("server", REPLICA);
+        try {
+            awaitServer(PRIMARY);
+        } finally {
+            replica.query = sql -> sql.startsWith("SHOW")
+                    ? StubDriver.Rows.empty() : StubDriver.Rows.single("server", REPLICA);
+        }
+        awaitServer(REPLICA);
+    }
+}
@@ -0,0 +1,132 @@
+package com.vcampus.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaSetTest {
+
+    private ReplicaSet set;
+
+    @AfterEach
+    void close() {
+        if (set != null) {
+            set.close();
+        }
+    }
+
+    /**
+     * 副本按SQL返回：延迟查询返回给定的Seconds_Behind_Master（null表示复制已停止），其他查询返回库名
+     */
+    private static StubDriver.Database replica(String name, Integer lagSeconds) {
+        StubDriver.Database db = StubDriver.database(name);
+        lag(db, lagSeconds);
+        return db;
+    }
+
+    private static void lag(StubDriver.Database db, Integer lagSeconds) {
+        db.query = sql -> sql.startsWith("SHOW")
+                ? StubDriver.Rows.single("Seconds_Behind_Master", lagSeconds)
+                : StubDriver.Rows.single("server", db.name);
+    }
+
+    private ReplicaSet start(ConnectionPool.Config poolConfig, StubDriver.Database... dbs) {
+        List<String> urls = new ArrayList<>();
+        for (StubDriver.Database db : dbs) {
+            urls.add(StubDriver.url(db.name));
+        }
+        set = new ReplicaSet(urls, "u", "p", poolConfig,
+                new ReplicaSet.Config().maxLag(1_000).checkInterval(100));
+        return set;
+    }
+
+    private static ConnectionPool.Config poolConfig() {
+        return new ConnectionPool.Config().initialConnections(0).minConnections(0).maxConnections(2)
+                .acquireTimeout(50).leakDetectionThreshold(0);
+    }
+
+    private String read() throws SQLException {
+        try (Connection connection = set.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT @@hostname")) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void roundRobinAlternatesBetweenReplicas() throws Exception {
+        start(poolConfig(), replica("replica-rr-a", 0), replica("replica-rr-b", 0));
+        await(() -> set.getAvailableCount() == 2);
+
+        List<String> reads = Arrays.asList(read(), read(), read(), read());
+        assertEquals(2, new HashSet<>(reads).size());
+        for (int i = 1; i < reads.size(); i++) {
+            assertNotEquals(reads.get(i - 1), reads.get(i));
+        }
+    }
+
+    @Test
+    void laggingOrStoppedReplicaIsSkipped() throws Exception {
+        StubDriver.Database a = replica("replica-lag-a", 0);
+        StubDriver.Database b = replica("replica-lag-b", 5);
+        start(poolConfig(), a, b);
+        await(() -> set.getAvailableCount() == 1);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(a.name, read());
+        }
+
+        // 复制停止同样跳过，延迟恢复后重新使用
+        lag(b, null);
+        Thread.sleep(250);
+        assertEquals(1, set.getAvailableCount());
+        lag(b, 0);
+        await(() -> set.getAvailableCount() == 2);
+    }
+
+    @Test
+    void noAvailableReplicaReturnsNull() throws Exception {
+        StubDriver.Database a = replica("replica-none-a", null);
+        StubDriver.Database b = replica("replica-none-b", 0);
+        b.down = true;
+        start(poolConfig(), a, b);
+
+        Thread.sleep(250);
+        assertEquals(0, set.getAvailableCount());
+        assertNull(set.getConnection());
+    }
+
+    @Test
+    void busyReplicaStaysAvailable() throws Exception {
+        StubDriver.Database db = replica("replica-busy", 0);
+        start(poolConfig().maxConnections(1), db);
+        await(() -> set.getAvailableCount() == 1);
+
+        // 连接池借满时延迟检查仍能进行，副本不会被误判为不可用
+        Connection held = set.getConnection();
+        Thread.sleep(350);
+        assertEquals(1, set.getAvailableCount());
+        assertNull(set.getConnection());
+        held.close();
+        assertEquals(db.name, read());
+    }
+}
@@ -0,0 +1,442 @@
+package com.vcampus.common.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * 测试用的内存JDBC驱动，URL为jdbc:stub:库名
+ * 不解析SQL，只记录连接、语句和结果集上的调用；查询结果由各库的query函数按SQL文本给出
+ */
+final class StubDriver implements Driver {
+
+    private static final String PREFIX = "jdbc:stub:";
+    private static final Map<String, Database> DATABASES = new ConcurrentHashMap<>();
+
+    static {
+        try {
+            DriverManager.registerDriver(new StubDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 取得库的URL，同时确保驱动已注册
+     */
+    static String url(String name) {
+        database(name);
+        return PREFIX + name;
+    }
+
+    static Database database(String name) {
+        return DATABASES.computeIfAbsent(name, Database::new);
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        Database db = database(url.substring(PREFIX.length()));
+        if (db.down) {
+            throw new SQLNonTransientConnectionException("无法连接 " + db.name, "08001");
+        }
+        db.opened.incrementAndGet();
+        return new StubConnection(db).proxy;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() { return 1; }
+
+    @Override
+    public int getMinorVersion() { return 0; }
+
+    @Override
+    public boolean jdbcCompliant() { return false; }
+
+    @Override
+    public Logger getParentLogger() { return Logger.getGlobal(); }
+
+    /**
+     * 查询结果：列名和各行的值
+     */
+    static final class Rows {
+        final String[] labels;
+        final List<Object[]> values;
+
+        Rows(String[] labels, List<Object[]> values) {
+            this.labels = labels;
+            this.values = values;
+        }
+
+        static Rows empty() {
+            return new Rows(new String[]{"value"}, Collections.emptyList());
+        }
+
+        static Rows single(String label, Object value) {
+            return new Rows(new String[]{label}, Collections.singletonList(new Object[]{value}));
+        }
+    }
+
+    /**
+     * 一个库：保存调用计数，可模拟连接失效、拒绝连接和执行失败
+     */
+    static final class Database {
+        final String name;
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final AtomicInteger prepared = new AtomicInteger();
+        final AtomicInteger updates = new AtomicInteger();
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final List<Map<Integer, Object>> batchRows = Collections.synchronizedList(new ArrayList<>());
+        final AtomicLong nextKey = new AtomicLong();
+
+        // 打开的语句，测试用来检查语句被放回缓存时的状态
+        final List<StubStatement> statements = Collections.synchronizedList(new ArrayList<>());
+
+        // isValid的返回值
+        volatile boolean valid = true;
+
+        // 为true时拒绝新连接
+        volatile boolean down;
+
+        // 下一次执行抛出的异常
+        final AtomicReference<SQLException> failure = new AtomicReference<>();
+
+        volatile Function<String, Rows> query = sql -> Rows.empty();
+
+        Database(String name) {
+            this.name = name;
+        }
+
+        int open() {
+            return opened.get() - closed.get();
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+
+    private static final class StubConnection implements InvocationHandler {
+        private final Database db;
+        private final Connection proxy;
+        private boolean autoCommit = true;
+        private boolean readOnly;
+        private boolean closed;
+
+        StubConnection(Database db) {
+            this.db = db;
+            this.proxy = (Connection) Proxy.newProxyInstance(StubDriver.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        db.closed.incrementAndGet();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "isValid":
+                    return !closed && db.valid;
+                case "getAutoCommit":
+                    return autoCommit;
+                case "setAutoCommit":
+                    autoCommit = (Boolean) args[0];
+                    return null;
+                case "isReadOnly":
+                    return readOnly;
+                case "setReadOnly":
+                    readOnly = (Boolean) args[0];
+                    return null;
+                case "commit":
+                    db.commits.incrementAndGet();
+                    return null;
+                case "rollback":
+                    db.rollbacks.incrementAndGet();
+                    return null;
+                case "prepareStatement":
+                    db.prepared.incrementAndGet();
+                    return new StubStatement(db, this.proxy, (String) args[0]).proxy;
+                case "createStatement":
+                    return new StubStatement(db, this.proxy, null).proxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "StubConnection[" + db.name + "]";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+    }
+
+    /**
+     * 语句，同时实现Statement和PreparedStatement
+     */
+    static final class StubStatement implements InvocationHandler {
+        private final Database db;
+        private final Connection connection;
+        private final String sql;
+        private final PreparedStatement proxy;
+        private final Map<Integer, Object> parameters = new HashMap<>();
+        private final List<Map<Integer, Object>> batch = new ArrayList<>();
+        int maxRows;
+        int fetchSize;
+        int queryTimeout;
+        boolean closed;
+        StubResultSet current;
+        private int generated;
+
+        StubStatement(Database db, Connection connection, String sql) {
+            this.db = db;
+            this.connection = connection;
+            this.sql = sql;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(StubDriver.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+            db.statements.add(this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                    && !"setFetchDirection".equals(name)) {
+                parameters.put((Integer) args[0], args[1]);
+                return null;
+            }
+            switch (name) {
+                case "clearParameters":
+                    parameters.clear();
+                    return null;
+                case "addBatch":
+                    batch.add(new HashMap<>(parameters));
+                    return null;
+                case "clearBatch":
+                    batch.clear();
+                    return null;
+                case "executeBatch":
+                    fail();
+                    db.batchSizes.add(batch.size());
+                    db.batchRows.addAll(batch);
+                    int[] counts = new int[batch.size()];
+                    Arrays.fill(counts, 1);
+                    generated = batch.size();
+                    batch.clear();
+                    return counts;
+                case "executeUpdate":
+                    fail();
+                    db.updates.incrementAndGet();
+                    generated = 1;
+                    return 1;
+                case "executeQuery":
+                    fail();
+                    closeCurrent();
+                    current = new StubResultSet(db.query.apply(args != null ? (String) args[0] : sql), maxRows);
+                    return current.proxy;
+                case "getResultSet":
+                    return current != null ? current.proxy : null;
+                case "getGeneratedKeys":
+                    List<Object[]> keys = new ArrayList<>();
+                    for (int i = 0; i < generated; i++) {
+                        keys.add(new Object[]{db.nextKey.incrementAndGet()});
+                    }
+                    generated = 0;
+                    return new StubResultSet(new Rows(new String[]{"GENERATED_KEY"}, keys), 0).proxy;
+                case "setMaxRows":
+                    maxRows = (Integer) args[0];
+                    return null;
+                case "getMaxRows":
+                    return maxRows;
+                case "setFetchSize":
+                    fetchSize = (Integer) args[0];
+                    return null;
+                case "getFetchSize":
+                    return fetchSize;
+                case "setQueryTimeout":
+                    queryTimeout = (Integer) args[0];
+                    return null;
+                case "getQueryTimeout":
+                    return queryTimeout;
+                case "getConnection":
+                    return connection;
+                case "close":
+                    closeCurrent();
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "StubStatement[" + sql + "]";
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }
+
+        private void fail() throws SQLException {
+            SQLException failure = db.failure.getAndSet(null);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void closeCurrent() {
+            if (current != null) {
+                current.closed = true;
+                current = null;
+            }
+        }
+
+        Map<Integer, Object> getParameters() {
+            return parameters;
+        }
+
+        int getBatchSize() {
+            return batch.size();
+        }
+    }
+
+    static final class StubResultSet implements InvocationHandler {
+        private final Rows rows;
+        private final int limit;
+        private final ResultSet proxy;
+        private int index = -1;
+        private boolean wasNull;
+        boolean closed;
+
+        StubResultSet(Rows rows, int maxRows) {
+            this.rows = rows;
+            this.limit = maxRows > 0 ? Math.min(maxRows, rows.values.size()) : rows.values.size();
+            this.proxy = (ResultSet) Proxy.newProxyInstance(StubDriver.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            String name = method.getName();
+            switch (name) {
+                case "next":
+                    return ++index < limit;
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "wasNull":
+                    return wasNull;
+                case "getMetaData":
+                    return Proxy.newProxyInstance(StubDriver.class.getClassLoader(),
+                            new Class<?>[]{ResultSetMetaData.class}, (p, m, a) -> {
+                                switch (m.getName()) {
+                                    case "getColumnCount":
+                                        return rows.labels.length;
+                                    case "getColumnLabel":
+                                    case "getColumnName":
+                                        return rows.labels[(Integer) a[0] - 1];
+                                    default:
+                                        return defaultValue(m.getReturnType());
+                                }
+                            });
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (name.startsWith("get") && args != null && args.length == 1) {
+                return convert(value(args[0]), method.getReturnType());
+            }
+            return defaultValue(method.getReturnType());
+        }
+
+        private Object value(Object column) throws SQLException {
+            if (closed) {
+                throw new SQLException("结果集已关闭");
+            }
+            int i = column instanceof Integer ? (Integer) column - 1 : Arrays.asList(rows.labels).indexOf(column);
+            if (i < 0 || i >= rows.labels.length) {
+                throw new SQLException("没有列: " + column);
+            }
+            Object value = rows.values.get(index)[i];
+            wasNull = value == null;
+            return value;
+        }
+
+        private static Object convert(Object value, Class<?> type) {
+            if (value == null) {
+                return defaultValue(type);
+            }
+            if (type == String.class) {
+                return String.valueOf(value);
+            }
+            if (type == int.class) {
+                return ((Number) value).intValue();
+            }
+            if (type == long.class) {
+                return ((Number) value).longValue();
+            }
+            if (type == double.class) {
+                return ((Number) value).doubleValue();
+            }
+            return value;
+        }
+    }
+}
@@ -1,15 +1,29 @@
 package com.vcampus.server;
 
 import com.vcampus.common.entity.Message;
+import com.vcampus.common.protocol.FrameCompression;
 import com.vcampus.common.util.DatabaseHelper;
+import com.vcampus.server.admission.AdmissionController;
+import com.vcampus.server.bulkhead.Bulkheads;
+import com.vcampus.server.cluster.Cluster;
+import com.vcampus.server.cluster.ClusterNode;
+import com.vcampus.server.cluster.Clusters;
 import com.vcampus.server.handler.ClientHandler;
+import com.vcampus.server.heartbeat.HeartbeatMonitor;
+import com.vcampus.server.nio.NioServer;
+import com.vcampus.server.push.SubscriptionRegistry;
+import com.vcampus.server.service.ServiceContainer;
+import com.vcampus.server.session.SessionStore;
+import com.vcampus.server.transfer.FileTransferServer;
 
 import java.io.*;
 import java.net.*;
 import java.util.concurrent.*;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.Date;
+import java.util.function.IntSupplier;
 
 /**
  * VCampus服务器主类
@@ -17,21 +31,75 @@ import java.util.Date;
  */
 public class VCampusServer {
 
+    /**
+     * 服务器运行模式
+     * THREAD_POOL：每个连接占用线程池中的一个线程（默认）
+     * VIRTUAL：每个连接运行在一个虚拟线程上（需要Java 21及以上，否则回退到THREAD_POOL）
+     * NIO：基于Selector的非阻塞模式，连接数与线程数解耦
+     */
+    public enum Mode {
+        THREAD_POOL,
+        VIRTUAL,
+        NIO
+    }
+
     // 服务器配置
     private static final int DEFAULT_PORT = 8888;
     private static final int MAX_CLIENTS = 100;
+    private static final int REQUEST_WORKERS = Integer.getInteger("vcampus.server.requestWorkers", 32);
+    private static final int REQUEST_QUEUE = Integer.getInteger("vcampus.server.requestQueue", 1000);
+    private static final int CONNECTION_QUEUE = Integer.getInteger("vcampus.server.connectionQueue", 50);
+
+    // 关闭前等待进行中的请求和出站消息的时间，以及通知客户端改连的地址（host:port，为空时客户端重连原地址）
+    private static final long DRAIN_TIMEOUT = Long.getLong("vcampus.drain.timeout", 30_000);
+    private static final String DRAIN_REDIRECT = System.getProperty("vcampus.drain.redirect");
 
     // 服务器状态
     private ServerSocket serverSocket;
     private int port;
-    private boolean isRunning = false;
+    private Mode mode;
+    private volatile boolean isRunning = false;
+    private volatile boolean draining = false;
 
     // 线程池管理
     private ExecutorService threadPool;
 
+    // 帧协议连接内并发处理请求的线程池（阻塞模式）
+    private ExecutorService requestPool;
+
+    // 连接出站队列的写任务线程池（阻塞模式），每个连接同一时刻至多占用一个线程
+    private ExecutorService writerPool;
+
+    // 非阻塞服务器核心（NIO模式）
+    private NioServer nioServer;
+
     // 客户端连接管理
     private Map<String, ClientHandler> activeClients = new ConcurrentHashMap<>();
 
+    // 推送订阅
+    private final SubscriptionRegistry subscriptions = new SubscriptionRegistry();
+
+    // 集群节点，单机运行时为null
+    private final ClusterNode cluster;
+
+    // 登录会话（断线重连时凭令牌恢复），集群部署时各节点共用
+    private final SessionStore sessions;
+
+    // 请求准入控制
+    private final AdmissionController admission = new AdmissionController();
+
+    // 共享的业务服务
+    private final ServiceContainer services;
+
+    // 各业务模块的隔离舱
+    private final Bulkheads bulkheads;
+
+    // 文件内容传输通道（默认端口为服务端口+1）
+    private final FileTransferServer fileTransfer;
+
+    // 心跳检测与空闲连接回收
+    private final HeartbeatMonitor heartbeat = new HeartbeatMonitor(() -> activeClients.values());
+
     // 服务器统计信息
     private int totalConnections = 0;
     private Date startTime;
@@ -41,8 +109,54 @@ public class VCampusServer {
     }
 
     public VCampusServer(int port) {
+        this(port, Mode.THREAD_POOL);
+    }
+
+    public VCampusServer(int port, Mode mode) {
+        this(port, mode, Clusters.fromSystemProperties());
+    }
+
+    /**
+     * cluster为null时单机运行；节点ID默认为node-端口，可通过vcampus.cluster.node指定
+     */
+    public VCampusServer(int port, Mode mode, Cluster cluster) {
         this.port = port;
-        this.threadPool = Executors.newFixedThreadPool(MAX_CLIENTS);
+        if (cluster != null) {
+            this.cluster = new ClusterNode(cluster, System.getProperty("vcampus.cluster.node", "node-" + port), this);
+            this.sessions = new SessionStore(cluster.getSessions());
+        } else {
+            this.cluster = null;
+            this.sessions = new SessionStore();
+        }
+        // 文件传输端口默认由系统分配，客户端从下载响应中得知端口，同一主机上的多个节点不会冲突
+        this.fileTransfer = new FileTransferServer(Integer.getInteger("vcampus.transfer.port", 0));
+        this.services = new ServiceContainer(subscriptions, fileTransfer);
+        if (mode == Mode.VIRTUAL && !VirtualThreads.isSupported()) {
+            System.err.println("当前JDK不支持虚拟线程，回退到线程池模式");
+            mode = Mode.THREAD_POOL;
+        }
+        this.mode = mode;
+        this.bulkheads = mode == Mode.VIRTUAL
+                ? new Bulkheads(module -> VirtualThreads.newPerTaskExecutor())
+                : new Bulkheads();
+
+        if (mode == Mode.THREAD_POOL) {
+            // 连接队列有界，超出时拒绝新连接而不是让其无限等待
+            this.threadPool = new ThreadPoolExecutor(MAX_CLIENTS, MAX_CLIENTS,
+                    60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(CONNECTION_QUEUE));
+            this.requestPool = new ThreadPoolExecutor(REQUEST_WORKERS, REQUEST_WORKERS,
+                    60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(REQUEST_QUEUE));
+            AtomicInteger writerIndex = new AtomicInteger();
+            this.writerPool = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "vcampus-writer-" + writerIndex.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        } else if (mode == Mode.VIRTUAL) {
+            this.threadPool = VirtualThreads.newPerTaskExecutor();
+            this.requestPool = VirtualThreads.newPerTaskExecutor();
+            this.writerPool = VirtualThreads.newPerTaskExecutor();
+        }
     }
 
     /**
@@ -56,6 +170,22 @@ public class VCampusServer {
                 return;
             }
 
+            // 启动共享的业务服务
+            try {
+                services.start();
+            } catch (Exception e) {
+                System.err.println("业务服务启动失败，无法启动服务器: " + e.getMessage());
+                return;
+            }
+
+            startFileTransfer();
+            startCluster();
+
+            if (mode == Mode.NIO) {
+                startNio();
+                return;
+            }
+
             serverSocket = new ServerSocket(port);
             isRunning = true;
             startTime = new Date();
@@ -64,7 +194,11 @@ public class VCampusServer {
             System.out.println("    VCampus服务器启动成功");
             System.out.println("    监听端口: " + port);
             System.out.println("    启动时间: " + startTime);
-            System.out.println("    最大连接数: " + MAX_CLIENTS);
+            if (mode == Mode.VIRTUAL) {
+                System.out.println("    运行模式: 虚拟线程（连接数不受线程池限制）");
+            } else {
+                System.out.println("    最大连接数: " + MAX_CLIENTS);
+            }
             System.out.println("=====================================");
 
             // 启动服务器监控线程
@@ -74,9 +208,8 @@ public class VCampusServer {
             while (isRunning) {
                 try {
                     Socket clientSocket = serverSocket.accept();
-                    totalConnections++;
 
-                    String clientId = "Client_" + totalConnections;
+                    String clientId = nextClientId();
                     String clientAddress = clientSocket.getRemoteSocketAddress().toString();
 
                     System.out.println("新客户端连接: " + clientId + " 来自 " + clientAddress);
@@ -86,7 +219,13 @@ public class VCampusServer {
                     activeClients.put(clientId, handler);
 
                     // 提交到线程池执行
-                    threadPool.submit(handler);
+                    try {
+                        threadPool.execute(handler);
+                    } catch (RejectedExecutionException e) {
+                        System.err.println("连接数已满，拒绝客户端: " + clientId);
+                        activeClients.remove(clientId);
+                        clientSocket.close();
+                    }
 
                 } catch (IOException e) {
                     if (isRunning) {
@@ -102,9 +241,58 @@ public class VCampusServer {
     }
 
     /**
-     * 启动服务器监控线程
+     * 启动文件传输通道，失败时下载只返回文件信息
+     */
+    private void startFileTransfer() {
+        try {
+            fileTransfer.start();
+            System.out.println("文件传输端口: " + fileTransfer.getPort());
+        } catch (IOException e) {
+            System.err.println("文件传输端口启动失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 加入集群，失败时以单机方式继续运行
+     */
+    private void startCluster() {
+        if (cluster == null) {
+            return;
+        }
+        try {
+            cluster.start();
+            System.out.println("已加入集群: " + cluster.summary());
+        } catch (IOException e) {
+            System.err.println("加入集群失败，以单机方式运行: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 以NIO模式启动，在当前线程中接受连接
+     */
+    private void startNio() throws IOException {
+        nioServer = new NioServer(this, port);
+        isRunning = true;
+        startTime = new Date();
+
+        System.out.println("=====================================");
+        System.out.println("    VCampus服务器启动成功（NIO模式）");
+        System.out.println("    监听端口: " + port);
+        System.out.println("    启动时间: " + startTime);
+        System.out.println("    IO线程数: " + nioServer.getIoThreadCount());
+        System.out.println("    业务线程数: " + nioServer.getWorkerThreadCount());
+        System.out.println("=====================================");
+
+        startMonitorThread();
+        nioServer.serve();
+    }
+
+    /**
+     * 启动服务器监控线程和心跳检测
      */
     private void startMonitorThread() {
+        heartbeat.start();
+
         Thread monitorThread = new Thread(() -> {
             while (isRunning) {
                 try {
@@ -127,8 +315,40 @@ public class VCampusServer {
         System.out.println("运行时间: " + getUptime());
         System.out.println("当前在线客户端: " + activeClients.size());
         System.out.println("总连接数: " + totalConnections);
-        System.out.println("线程池状态: " + ((ThreadPoolExecutor)threadPool).getActiveCount() + "/" +
-                ((ThreadPoolExecutor)threadPool).getPoolSize());
+        System.out.println("帧压缩: " + FrameCompression.summary());
+        int retainedHandles = 0;
+        int pendingOutbound = 0;
+        for (ClientHandler handler : activeClients.values()) {
+            retainedHandles += handler.getRetainedHandleCount();
+            pendingOutbound += handler.getPendingOutboundCount();
+        }
+        System.out.println("对象流句柄表保留对象: " + retainedHandles);
+        System.out.println("出站队列积压消息: " + pendingOutbound);
+        System.out.println("请求准入: " + admission.summary());
+        System.out.println("数据库连接池: " + DatabaseHelper.getPoolSummary());
+        String replicaSummary = DatabaseHelper.getReplicaSummary();
+        if (replicaSummary != null) {
+            System.out.println("数据库只读副本: " + replicaSummary);
+        }
+        System.out.println("业务模块:\n" + bulkheads.summary());
+        System.out.println("心跳: " + heartbeat.summary());
+        System.out.println("文件传输: " + fileTransfer.summary());
+        System.out.println("登录会话: " + sessions.summary());
+        if (cluster != null) {
+            System.out.println("集群: " + cluster.summary());
+        }
+        System.out.println("推送订阅: " + subscriptions.getSubscriberCount() + " 个会话，" +
+                subscriptions.getTopicCount() + " 个主题，已投递 " + subscriptions.getDeliveredCount());
+        if (nioServer != null) {
+            System.out.println("业务线程池状态: " + nioServer.getActiveWorkerCount() + "/" +
+                    nioServer.getWorkerThreadCount() + "，排队任务: " + nioServer.getQueuedTaskCount());
+        } else if (threadPool instanceof ThreadPoolExecutor) {
+            System.out.println("线程池状态: " + ((ThreadPoolExecutor)threadPool).getActiveCount() + "/" +
+                    ((ThreadPoolExecutor)threadPool).getPoolSize());
+            ThreadPoolExecutor requests = (ThreadPoolExecutor) requestPool;
+            System.out.println("请求线程池状态: " + requests.getActiveCount() + "/" +
+                    requests.getPoolSize() + "，排队请求: " + requests.getQueue().size());
+        }
         System.out.println("================\n");
     }
 
@@ -146,6 +366,22 @@ public class VCampusServer {
         return String.format("%d小时%d分钟%d秒", hours, minutes, seconds);
     }
 
+    /**
+     * 分配新的客户端ID
+     */
+    public synchronized String nextClientId() {
+        totalConnections++;
+        String clientId = "Client_" + totalConnections;
+        return cluster != null ? cluster.clientId(clientId) : clientId;
+    }
+
+    /**
+     * 登记客户端连接
+     */
+    public void addClient(ClientHandler handler) {
+        activeClients.put(handler.getClientId(), handler);
+    }
+
     /**
      * 移除客户端连接
      */
@@ -157,9 +393,19 @@ public class VCampusServer {
     }
 
     /**
-     * 广播消息给所有在线客户端
+     * 广播消息给所有在线客户端（集群部署时包括其他节点），只入队各连接的出站队列，不等待写出
      */
     public void broadcastMessage(Message message, String excludeClientId) {
+        if (cluster != null) {
+            cluster.broadcast(message, excludeClientId);
+        }
+        broadcastLocal(message, excludeClientId);
+    }
+
+    /**
+     * 只广播给本节点的客户端
+     */
+    public void broadcastLocal(Message message, String excludeClientId) {
         for (Map.Entry<String, ClientHandler> entry : activeClients.entrySet()) {
             if (!entry.getKey().equals(excludeClientId)) {
                 entry.getValue().sendMessage(message);
@@ -168,9 +414,16 @@ public class VCampusServer {
     }
 
     /**
-     * 向指定客户端发送消息
+     * 向指定客户端发送消息，客户端在其他节点时经集群总线转发
      */
     public boolean sendToClient(String clientId, Message message) {
+        if (cluster != null && !cluster.isLocal(clientId)) {
+            return cluster.sendToClient(clientId, message);
+        }
+        return sendToLocalClient(clientId, message);
+    }
+
+    public boolean sendToLocalClient(String clientId, Message message) {
         ClientHandler handler = activeClients.get(clientId);
         if (handler != null) {
             return handler.sendMessage(message);
@@ -179,9 +432,95 @@ public class VCampusServer {
     }
 
     /**
-     * 停止服务器
+     * 排空服务器，用于滚动重启：
+     * 1. 停止接受新连接；2. 通知客户端重新连接（可指定新地址）；
+     * 3. 等待已开始的请求完成，新请求返回SERVER_BUSY由客户端重连后重试；
+     * 4. 等待各连接出站队列中的响应写出。
+     * 超过时限仍未完成时返回false，之后的关闭会中断剩余工作
+     */
+    public boolean drain(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        System.out.println("正在排空服务器，最长等待 " + timeoutMillis + " 毫秒...");
+
+        // 1. 停止接受新连接
+        draining = true;
+        isRunning = false;
+        try {
+            if (serverSocket != null && !serverSocket.isClosed()) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("关闭监听端口失败: " + e.getMessage());
+        }
+        if (nioServer != null) {
+            nioServer.closeAcceptor();
+        }
+
+        // 2. 通知客户端重新连接
+        for (ClientHandler handler : activeClients.values()) {
+            handler.notifyDrain(DRAIN_REDIRECT);
+        }
+
+        // 3. 等待进行中的请求完成
+        boolean completed = awaitZero(this::getInFlightRequestCount, deadline);
+        if (!completed) {
+            System.err.println("排空超时，仍有 " + getInFlightRequestCount() + " 个请求未完成");
+        }
+
+        // 4. 等待出站消息写出
+        if (!awaitZero(this::getPendingOutboundCount, deadline)) {
+            System.err.println("排空超时，仍有 " + getPendingOutboundCount() + " 条消息未写出");
+            completed = false;
+        }
+
+        System.out.println(completed ? "服务器已排空" : "服务器排空未完成");
+        return completed;
+    }
+
+    private static boolean awaitZero(IntSupplier count, long deadline) {
+        while (count.getAsInt() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 已接收但尚未响应的请求数
+     */
+    private int getInFlightRequestCount() {
+        int count = admission.getInFlight();
+        for (ClientHandler handler : activeClients.values()) {
+            count += handler.getInFlightCount();
+        }
+        if (nioServer != null) {
+            count += nioServer.getActiveWorkerCount() + nioServer.getQueuedTaskCount();
+        }
+        return count;
+    }
+
+    private int getPendingOutboundCount() {
+        int count = 0;
+        for (ClientHandler handler : activeClients.values()) {
+            count += handler.getPendingOutboundCount();
+        }
+        return count;
+    }
+
+    /**
+     * 停止服务器，先排空进行中的请求
      */
     public void stop() {
+        if (!draining) {
+            drain(DRAIN_TIMEOUT);
+        }
         System.out.println("正在关闭服务器...");
         isRunning = false;
 
@@ -191,11 +530,36 @@ public class VCampusServer {
                 handler.disconnect();
             }
             activeClients.clear();
+            if (cluster != null) {
+                cluster.stop();
+            }
+            subscriptions.shutdown();
+            heartbeat.shutdown();
+            fileTransfer.stop();
 
             // 关闭线程池
-            threadPool.shutdown();
-            if (!threadPool.awaitTermination(5, TimeUnit.SECONDS)) {
-                threadPool.shutdownNow();
+            if (threadPool != null) {
+                threadPool.shutdown();
+                if (!threadPool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    threadPool.shutdownNow();
+                }
+            }
+
+            if (requestPool != null) {
+                requestPool.shutdown();
+                if (!requestPool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    requestPool.shutdownNow();
+                }
+            }
+
+            if (writerPool != null) {
+                writerPool.shutdownNow();
+            }
+            bulkheads.shutdown();
+
+            // 关闭非阻塞服务器核心
+            if (nioServer != null) {
+                nioServer.stop();
             }
 
             // 关闭服务器Socket
@@ -203,6 +567,9 @@ public class VCampusServer {
                 serverSocket.close();
             }
 
+            // 请求已排空、工作线程已结束，停止业务服务后再关闭数据库连接池
+            services.stop();
+
             // 关闭数据库连接池
             DatabaseHelper.closeConnectionPool();
 
@@ -229,7 +596,18 @@ public class VCampusServer {
             }
         }
 
-        VCampusServer server = new VCampusServer(port);
+        // 运行模式：第二个参数或系统属性vcampus.server.mode
+        Mode mode = Mode.THREAD_POOL;
+        String modeName = args.length > 1 ? args[1] : System.getProperty("vcampus.server.mode");
+        if (modeName != null) {
+            try {
+                mode = Mode.valueOf(modeName.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("无效的运行模式: " + modeName + "，使用默认模式: " + Mode.THREAD_POOL);
+            }
+        }
+
+        VCampusServer server = new VCampusServer(port, mode);
 
         // 添加关闭钩子
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -243,7 +621,19 @@ public class VCampusServer {
 
     // Getter方法
     public boolean isRunning() { return isRunning; }
+    public boolean isDraining() { return draining; }
     public int getPort() { return port; }
+    public Mode getMode() { return mode; }
+    public ExecutorService getRequestPool() { return requestPool; }
+    public Bulkheads getBulkheads() { return bulkheads; }
+    public ServiceContainer getServices() { return services; }
+    public ExecutorService getWriterPool() { return writerPool; }
+    public SubscriptionRegistry getSubscriptions() { return subscriptions; }
+    public SessionStore getSessions() { return sessions; }
+    public ClusterNode getCluster() { return cluster; }
+    public AdmissionController getAdmission() { return admission; }
+    public HeartbeatMonitor getHeartbeat() { return heartbeat; }
+    public FileTransferServer getFileTransfer() { return fileTransfer; }
     public int getActiveClientCount() { return activeClients.size(); }
     public int getTotalConnections() { return totalConnections; }
     public Date getStartTime() { return startTime; }
@@ -0,0 +1,27 @@
+package com.vcampus.server;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 虚拟线程支持（Java 11基础实现）
+ * 在Java 21及以上运行多版本JAR时，由META-INF/versions/21中的实现替换
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器
+     */
+    static ExecutorService newPerTaskExecutor() {
+        throw new UnsupportedOperationException("当前JDK不支持虚拟线程，需要Java 21及以上");
+    }
+}
@@ -0,0 +1,106 @@
+package com.vcampus.server.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求准入控制
+ * 在请求进入业务处理前检查全局并发数和单个用户的并发数，超过上限时立即拒绝，
+ * 由客户端退避后重试，避免请求在队列中无限堆积
+ */
+public class AdmissionController {
+
+    // 默认配置，可通过系统属性覆盖
+    private static final int DEFAULT_MAX_IN_FLIGHT = Integer.getInteger("vcampus.admission.maxInFlight", 256);
+    private static final int DEFAULT_MAX_PER_USER = Integer.getInteger("vcampus.admission.perUser", 8);
+
+    private final int maxPerUser;
+    private final Semaphore global;
+
+    // 用户（未登录时为连接）-> 处理中的请求数，归零时移除
+    private final Map<String, Integer> inFlightByUser = new ConcurrentHashMap<>();
+
+    // 统计信息
+    private final AtomicLong admittedCount = new AtomicLong();
+    private final AtomicLong rejectedGlobalCount = new AtomicLong();
+    private final AtomicLong rejectedUserCount = new AtomicLong();
+
+    public AdmissionController() {
+        this(DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_PER_USER);
+    }
+
+    public AdmissionController(int maxInFlight, int maxPerUser) {
+        this.global = new Semaphore(maxInFlight);
+        this.maxPerUser = maxPerUser;
+    }
+
+    /**
+     * 尝试准入一个请求，成功时返回许可（处理结束后必须release），超过上限时返回null
+     */
+    public Permit tryAdmit(String key) {
+        if (!global.tryAcquire()) {
+            rejectedGlobalCount.incrementAndGet();
+            return null;
+        }
+
+        boolean[] admitted = {false};
+        inFlightByUser.compute(key, (k, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= maxPerUser) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+
+        if (!admitted[0]) {
+            global.release();
+            rejectedUserCount.incrementAndGet();
+            return null;
+        }
+        admittedCount.incrementAndGet();
+        return new Permit(key);
+    }
+
+    private void release(String key) {
+        inFlightByUser.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        global.release();
+    }
+
+    /**
+     * 准入统计
+     */
+    public String summary() {
+        return String.format("处理中 %d，已准入 %d，全局拒绝 %d，用户并发拒绝 %d",
+                getInFlight(), admittedCount.get(), rejectedGlobalCount.get(), rejectedUserCount.get());
+    }
+
+    // Getter方法
+    public int getInFlight() { return inFlightByUser.values().stream().mapToInt(Integer::intValue).sum(); }
+    public int getMaxPerUser() { return maxPerUser; }
+    public long getAdmittedCount() { return admittedCount.get(); }
+    public long getRejectedCount() { return rejectedGlobalCount.get() + rejectedUserCount.get(); }
+
+    /**
+     * 准入许可，重复释放无副作用
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final String key;
+        private boolean released;
+
+        private Permit(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                release(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.vcampus.server.bulkhead;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 模块隔离舱
+ * 模块内同时执行的请求数受信号量限制：异步请求进入模块自己的有界队列和线程池，
+ * 在调用线程中同步执行的请求（旧版协议、批量子请求）短暂等待许可，仍不可用时拒绝
+ */
+public class Bulkhead {
+
+    // 同步执行时等待许可的时间（毫秒）
+    private static final long WAIT_MILLIS = Long.getLong("vcampus.bulkhead.waitMillis", 100);
+
+    // 当前线程正在执行的隔离舱，已持有许可的任务内再次进入时不重复获取
+    private static final ThreadLocal<Bulkhead> CURRENT = new ThreadLocal<>();
+
+    private final ServiceModule module;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    // 统计信息
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicInteger peakActive = new AtomicInteger();
+
+    public Bulkhead(ServiceModule module, ExecutorService executor) {
+        this.module = module;
+        this.permits = new Semaphore(module.getConcurrency());
+        this.executor = executor;
+    }
+
+    /**
+     * 异步执行，排队已满时抛出RejectedExecutionException
+     */
+    public void execute(Runnable task) {
+        // 排队数不计入尚有空闲许可、马上就会开始执行的任务
+        if (queued.incrementAndGet() > module.getQueueCapacity() + permits.availablePermits()) {
+            queued.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException(module.getDisplayName() + "模块繁忙");
+        }
+
+        try {
+            executor.execute(() -> {
+                permits.acquireUninterruptibly();
+                queued.decrementAndGet();
+                run(() -> {
+                    task.run();
+                    return null;
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * 在当前线程中执行，等待许可超时时抛出RejectedExecutionException
+     */
+    public <T> T call(Supplier<T> task) {
+        if (CURRENT.get() == this) {
+            return task.get();
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException(module.getDisplayName() + "模块繁忙");
+        }
+        return run(task);
+    }
+
+    private <T> T run(Supplier<T> task) {
+        Bulkhead previous = CURRENT.get();
+        CURRENT.set(this);
+        peakActive.accumulateAndGet(getActiveCount(), Math::max);
+        try {
+            return task.get();
+        } finally {
+            CURRENT.set(previous);
+            permits.release();
+            completedCount.incrementAndGet();
+        }
+    }
+
+    public String summary() {
+        return String.format("%s: 执行中 %d/%d（峰值 %d），排队 %d/%d，已完成 %d，已拒绝 %d",
+                module.getDisplayName(), getActiveCount(), module.getConcurrency(), peakActive.get(),
+                getQueuedCount(), module.getQueueCapacity(), completedCount.get(), rejectedCount.get());
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    // Getter方法
+    public ServiceModule getModule() { return module; }
+    public int getActiveCount() { return module.getConcurrency() - permits.availablePermits(); }
+    public int getQueuedCount() { return Math.max(0, queued.get()); }
+    public long getCompletedCount() { return completedCount.get(); }
+    public long getRejectedCount() { return rejectedCount.get(); }
+
+    /**
+     * 执行中的请求已达上限
+     */
+    public boolean isSaturated() { return permits.availablePermits() == 0; }
+}
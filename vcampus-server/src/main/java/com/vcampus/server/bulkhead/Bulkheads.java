@@ -0,0 +1,65 @@
+package com.vcampus.server.bulkhead;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 所有业务模块的隔离舱
+ */
+public class Bulkheads {
+
+    private final Map<ServiceModule, Bulkhead> bulkheads = new EnumMap<>(ServiceModule.class);
+
+    /**
+     * 每个模块使用与其并发上限相同线程数的线程池
+     */
+    public Bulkheads() {
+        this(Bulkheads::newModulePool);
+    }
+
+    public Bulkheads(Function<ServiceModule, ExecutorService> executorFactory) {
+        for (ServiceModule module : ServiceModule.values()) {
+            bulkheads.put(module, new Bulkhead(module, executorFactory.apply(module)));
+        }
+    }
+
+    private static ExecutorService newModulePool(ServiceModule module) {
+        // 排队上限由Bulkhead控制，线程池队列本身不设上限
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(module.getConcurrency(), module.getConcurrency(),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "vcampus-" + module.name().toLowerCase() + "-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public Bulkhead get(ServiceModule module) {
+        return bulkheads.get(module);
+    }
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append("  ").append(bulkhead.isSaturated() ? "[已满] " : "").append(bulkhead.summary());
+        }
+        return sb.toString();
+    }
+
+    public void shutdown() {
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            bulkhead.shutdown();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.vcampus.server.bulkhead;
+
+/**
+ * 业务模块
+ * 每个模块有独立的并发上限和排队上限，某一模块请求激增时不会占满其他模块的处理能力；
+ * 上限可通过系统属性 vcampus.bulkhead.模块名.concurrency / .queue 覆盖，例如 vcampus.bulkhead.file.concurrency
+ */
+public enum ServiceModule {
+    USER("用户", 8, 64),
+    STUDENT("学籍", 4, 64),
+    COURSE("课程", 8, 128),
+    LIBRARY("图书馆", 8, 128),
+    SHOP("商店", 8, 128),
+    ACADEMIC("教务", 8, 128),
+    FILE("文件", 4, 64);
+
+    private final String displayName;
+    private final int concurrency;
+    private final int queueCapacity;
+
+    ServiceModule(String displayName, int defaultConcurrency, int defaultQueue) {
+        String prefix = "vcampus.bulkhead." + name().toLowerCase() + ".";
+        this.displayName = displayName;
+        this.concurrency = Math.max(1, Integer.getInteger(prefix + "concurrency", defaultConcurrency));
+        this.queueCapacity = Math.max(0, Integer.getInteger(prefix + "queue", defaultQueue));
+    }
+
+    // Getter方法
+    public String getDisplayName() { return displayName; }
+    public int getConcurrency() { return concurrency; }
+    public int getQueueCapacity() { return queueCapacity; }
+}
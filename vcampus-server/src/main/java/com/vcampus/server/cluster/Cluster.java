@@ -0,0 +1,24 @@
+package com.vcampus.server.cluster;
+
+import com.vcampus.server.session.SessionRegistry;
+
+import java.io.IOException;
+
+/**
+ * 集群
+ * 提供节点之间的消息总线和各节点共用的会话注册表，具体实现可替换
+ */
+public interface Cluster {
+
+    String getName();
+
+    /**
+     * 以指定节点ID加入集群，节点ID在集群内必须唯一
+     */
+    ClusterBus join(String nodeId, ClusterBus.Listener listener) throws IOException;
+
+    /**
+     * 各节点共用的会话注册表
+     */
+    SessionRegistry getSessions();
+}
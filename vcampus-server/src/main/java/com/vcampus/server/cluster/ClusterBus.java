@@ -0,0 +1,28 @@
+package com.vcampus.server.cluster;
+
+/**
+ * 集群消息总线
+ * 一个节点加入集群后得到的发送端，收到的消息交给加入时登记的监听器
+ */
+public interface ClusterBus {
+
+    /**
+     * 收到其他节点发来的消息，同一总线上的消息按发送顺序回调
+     */
+    @FunctionalInterface
+    interface Listener {
+        void onEnvelope(ClusterEnvelope envelope);
+    }
+
+    String getNodeId();
+
+    /**
+     * 发送消息，目标节点为null时发往除本节点外的所有节点；不等待对方处理
+     */
+    void send(ClusterEnvelope envelope);
+
+    /**
+     * 离开集群
+     */
+    void close();
+}
@@ -0,0 +1,67 @@
+package com.vcampus.server.cluster;
+
+import com.vcampus.common.entity.Message;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 节点之间传递的消息
+ * BROADCAST：发给各节点的全部在线客户端（clientId为排除的客户端）；
+ * CLIENT：发给clientId所在节点的该客户端；
+ * PUBLISH：在各节点按主题推送给本地订阅者
+ */
+public final class ClusterEnvelope implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Kind {
+        BROADCAST,
+        CLIENT,
+        PUBLISH
+    }
+
+    private final Kind kind;
+    private final String sourceNode;
+    private final String targetNode;    // 为null时发往所有其他节点
+    private final String clientId;
+    private final Message message;
+    private final List<String> topics;
+    private final String event;
+    private final Object payload;
+
+    private ClusterEnvelope(Kind kind, String sourceNode, String targetNode, String clientId, Message message,
+                            List<String> topics, String event, Object payload) {
+        this.kind = kind;
+        this.sourceNode = sourceNode;
+        this.targetNode = targetNode;
+        this.clientId = clientId;
+        this.message = message;
+        this.topics = topics;
+        this.event = event;
+        this.payload = payload;
+    }
+
+    public static ClusterEnvelope broadcast(String sourceNode, Message message, String excludeClientId) {
+        return new ClusterEnvelope(Kind.BROADCAST, sourceNode, null, excludeClientId, message, null, null, null);
+    }
+
+    public static ClusterEnvelope toClient(String sourceNode, String targetNode, String clientId, Message message) {
+        return new ClusterEnvelope(Kind.CLIENT, sourceNode, targetNode, clientId, message, null, null, null);
+    }
+
+    public static ClusterEnvelope publish(String sourceNode, List<String> topics, String event, Object payload) {
+        return new ClusterEnvelope(Kind.PUBLISH, sourceNode, null, null, null,
+                new ArrayList<>(topics), event, payload);
+    }
+
+    // Getter方法
+    public Kind getKind() { return kind; }
+    public String getSourceNode() { return sourceNode; }
+    public String getTargetNode() { return targetNode; }
+    public String getClientId() { return clientId; }
+    public Message getMessage() { return message; }
+    public List<String> getTopics() { return topics; }
+    public String getEvent() { return event; }
+    public Object getPayload() { return payload; }
+}
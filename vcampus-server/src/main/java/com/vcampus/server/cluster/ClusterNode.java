@@ -0,0 +1,130 @@
+package com.vcampus.server.cluster;
+
+import com.vcampus.common.entity.Message;
+import com.vcampus.server.VCampusServer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本服务器在集群中的节点
+ * 把广播、定向发送和主题推送转发给其他节点，并把其他节点发来的消息投递给本地客户端；
+ * 集群内的客户端ID带有节点后缀（Client_1@node-8888），定向发送据此找到目标节点
+ */
+public class ClusterNode {
+
+    private static final char NODE_SEPARATOR = '@';
+
+    private final Cluster cluster;
+    private final String nodeId;
+    private final VCampusServer server;
+    private volatile ClusterBus bus;
+
+    // 统计信息
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong receivedCount = new AtomicLong();
+
+    public ClusterNode(Cluster cluster, String nodeId, VCampusServer server) {
+        this.cluster = cluster;
+        this.nodeId = nodeId;
+        this.server = server;
+    }
+
+    /**
+     * 加入集群，之后本节点的主题推送会同时发往其他节点
+     */
+    public void start() throws IOException {
+        if (bus != null) {
+            return;
+        }
+        bus = cluster.join(nodeId, this::onEnvelope);
+        server.getSubscriptions().setRelay(this::publish);
+    }
+
+    public void stop() {
+        ClusterBus current = bus;
+        bus = null;
+        if (current != null) {
+            server.getSubscriptions().setRelay(null);
+            current.close();
+        }
+    }
+
+    /**
+     * 集群内唯一的客户端ID
+     */
+    public String clientId(String localId) {
+        return localId + NODE_SEPARATOR + nodeId;
+    }
+
+    /**
+     * 客户端所在节点，ID不带节点后缀时返回null
+     */
+    public static String nodeOf(String clientId) {
+        int index = clientId.lastIndexOf(NODE_SEPARATOR);
+        return index >= 0 ? clientId.substring(index + 1) : null;
+    }
+
+    public boolean isLocal(String clientId) {
+        return nodeId.equals(nodeOf(clientId));
+    }
+
+    public void broadcast(Message message, String excludeClientId) {
+        send(ClusterEnvelope.broadcast(nodeId, message, excludeClientId));
+    }
+
+    /**
+     * 发往其他节点上的客户端；目标节点不在集群中时消息被丢弃
+     */
+    public boolean sendToClient(String clientId, Message message) {
+        String target = nodeOf(clientId);
+        if (target == null || target.equals(nodeId)) {
+            return false;
+        }
+        return send(ClusterEnvelope.toClient(nodeId, target, clientId, message));
+    }
+
+    private void publish(List<String> topics, String event, Object payload) {
+        send(ClusterEnvelope.publish(nodeId, topics, event, payload));
+    }
+
+    private boolean send(ClusterEnvelope envelope) {
+        ClusterBus current = bus;
+        if (current == null) {
+            return false;
+        }
+        current.send(envelope);
+        sentCount.incrementAndGet();
+        return true;
+    }
+
+    private void onEnvelope(ClusterEnvelope envelope) {
+        receivedCount.incrementAndGet();
+        switch (envelope.getKind()) {
+            case BROADCAST:
+                server.broadcastLocal(envelope.getMessage(), envelope.getClientId());
+                break;
+            case CLIENT:
+                server.sendToLocalClient(envelope.getClientId(), envelope.getMessage());
+                break;
+            case PUBLISH:
+                server.getSubscriptions().deliverLocal(envelope.getTopics(), envelope.getEvent(), envelope.getPayload());
+                break;
+            default:
+                break;
+        }
+    }
+
+    public String summary() {
+        return String.format("%s/%s%s，已发送 %d，已接收 %d", cluster.getName(), nodeId,
+                bus != null ? "" : "（未加入）", sentCount.get(), receivedCount.get());
+    }
+
+    // Getter方法
+    public Cluster getCluster() { return cluster; }
+    public String getNodeId() { return nodeId; }
+    public boolean isJoined() { return bus != null; }
+    public long getSentCount() { return sentCount.get(); }
+    public long getReceivedCount() { return receivedCount.get(); }
+}
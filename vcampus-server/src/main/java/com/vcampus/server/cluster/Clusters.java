@@ -0,0 +1,35 @@
+package com.vcampus.server.cluster;
+
+/**
+ * 按系统属性创建集群
+ * vcampus.cluster.name 为空时单机运行；vcampus.cluster.type 为 local（默认，进程内集群）、
+ * tcp（多个服务器进程经TCP组成集群，见TcpCluster）或实现了Cluster、带有(String name)构造方法的类名
+ */
+public final class Clusters {
+
+    private Clusters() {
+    }
+
+    /**
+     * 未配置集群时返回null
+     */
+    public static Cluster fromSystemProperties() {
+        String name = System.getProperty("vcampus.cluster.name");
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+
+        String type = System.getProperty("vcampus.cluster.type", "local");
+        if ("local".equals(type)) {
+            return InProcessCluster.named(name);
+        }
+        if ("tcp".equals(type)) {
+            return TcpCluster.fromSystemProperties(name);
+        }
+        try {
+            return (Cluster) Class.forName(type).getConstructor(String.class).newInstance(name);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("无法创建集群实现: " + type, e);
+        }
+    }
+}
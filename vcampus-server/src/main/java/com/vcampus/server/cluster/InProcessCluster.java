@@ -0,0 +1,114 @@
+package com.vcampus.server.cluster;
+
+import com.vcampus.server.session.LocalSessionRegistry;
+import com.vcampus.server.session.SessionRegistry;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 进程内集群
+ * 同一进程中同名的节点组成一个集群，消息直接交给其他节点的投递线程，会话注册表共用同一对象；
+ * 用于本机测试多节点部署，也是其他集群实现的参照
+ */
+public class InProcessCluster implements Cluster {
+
+    // 集群名 -> 集群
+    private static final Map<String, InProcessCluster> CLUSTERS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final SessionRegistry sessions = new LocalSessionRegistry();
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+
+    public InProcessCluster(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 取得指定名称的集群，不存在时创建
+     */
+    public static InProcessCluster named(String name) {
+        return CLUSTERS.computeIfAbsent(name, InProcessCluster::new);
+    }
+
+    @Override
+    public ClusterBus join(String nodeId, ClusterBus.Listener listener) throws IOException {
+        Member member = new Member(nodeId, listener);
+        if (members.putIfAbsent(nodeId, member) != null) {
+            member.inbox.shutdown();
+            throw new IOException("集群 " + name + " 中已存在节点: " + nodeId);
+        }
+        return member;
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public SessionRegistry getSessions() { return sessions; }
+
+    public int getMemberCount() { return members.size(); }
+
+    /**
+     * 集群中的一个节点，收到的消息由单独的投递线程按顺序交给监听器
+     */
+    private final class Member implements ClusterBus {
+        private final String nodeId;
+        private final ClusterBus.Listener listener;
+        private final ExecutorService inbox;
+
+        Member(String nodeId, ClusterBus.Listener listener) {
+            this.nodeId = nodeId;
+            this.listener = listener;
+            this.inbox = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "vcampus-cluster-" + nodeId);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        @Override
+        public String getNodeId() { return nodeId; }
+
+        @Override
+        public void send(ClusterEnvelope envelope) {
+            String target = envelope.getTargetNode();
+            if (target != null) {
+                Member member = members.get(target);
+                if (member != null && member != this) {
+                    member.deliver(envelope);
+                }
+                return;
+            }
+            for (Member member : members.values()) {
+                if (member != this) {
+                    member.deliver(envelope);
+                }
+            }
+        }
+
+        private void deliver(ClusterEnvelope envelope) {
+            try {
+                inbox.execute(() -> {
+                    try {
+                        listener.onEnvelope(envelope);
+                    } catch (RuntimeException e) {
+                        System.err.println("集群消息处理失败: " + e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // 节点已离开集群
+            }
+        }
+
+        @Override
+        public void close() {
+            members.remove(nodeId, this);
+            inbox.shutdown();
+        }
+    }
+}
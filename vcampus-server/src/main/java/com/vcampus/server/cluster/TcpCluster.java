@@ -0,0 +1,758 @@
+package com.vcampus.server.cluster;
+
+import com.vcampus.common.entity.Message;
+import com.vcampus.common.entity.User;
+import com.vcampus.common.util.WriteMark;
+import com.vcampus.server.session.SessionRegistry;
+import com.vcampus.server.session.SessionStore;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP集群
+ * 每个服务器进程作为一个节点监听集群端口并连接配置的种子节点；收到未知节点的连接时反向连接它，
+ * 因此各节点只需配置部分种子即可两两相连。连接断开后定期重试，断开期间发往该节点的消息被丢弃。
+ * 会话注册表在每个节点各保存一份，登记、写回和移除经集群连接同步，连接建立时先发送已有会话。
+ * 连接双方先用各节点共同配置的集群密钥对彼此的随机数签名，相互认证后才交换消息；
+ * 反序列化只接受集群消息、会话、用户和消息实体以及JDK的基本类型和集合。集群端口仍应只在内部网络开放
+ */
+public class TcpCluster implements Cluster {
+
+    // 默认配置，可通过系统属性覆盖
+    private static final long RECONNECT_INTERVAL = Long.getLong("vcampus.cluster.reconnectInterval", 1000);
+    private static final int SEND_QUEUE = Integer.getInteger("vcampus.cluster.sendQueue", 10_000);
+    private static final int CONNECT_TIMEOUT = 2000;
+
+    // 反序列化限制：对象嵌套深度和单个数组（含集合）的长度
+    private static final int MAX_DEPTH = 20;
+    private static final int MAX_ARRAY = 1_000_000;
+
+    // 握手签名中区分连接发起方和接受方，一方的签名不能当作另一方的使用
+    private static final String CONNECT = "connect";
+    private static final String ACCEPT = "accept";
+
+    // 集群连接上允许反序列化的类（Object只用于Object[]），JDK集合另行判断
+    private static final Set<String> SERIAL_CLASSES = Set.of(
+            Hello.class.getName(), Packet.class.getName(), Packet.Kind.class.getName(),
+            ClusterEnvelope.class.getName(), ClusterEnvelope.Kind.class.getName(),
+            SessionStore.Session.class.getName(), WriteMark.class.getName(),
+            User.class.getName(), User.Role.class.getName(), User.Gender.class.getName(),
+            Message.class.getName(), Message.Type.class.getName(), Message.Code.class.getName(),
+            "java.lang.Object", "java.lang.Enum", "java.lang.String", "java.lang.Boolean", "java.lang.Character", "java.lang.Number",
+            "java.lang.Byte", "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float",
+            "java.lang.Double", "java.math.BigInteger", "java.math.BigDecimal",
+            "java.util.Date", "java.sql.Date", "java.sql.Time", "java.sql.Timestamp");
+
+    private final String name;
+    private final byte[] secret;
+    private final InetSocketAddress bind;
+    private final List<InetSocketAddress> seeds;
+    private final SecureRandom random = new SecureRandom();
+    private final ReplicatedSessions sessions = new ReplicatedSessions();
+
+    // 区分本进程与其他使用相同节点ID的进程
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final List<Link> links = new CopyOnWriteArrayList<>();
+    private final Set<Socket> inbound = ConcurrentHashMap.newKeySet();
+    private volatile Member member;
+    private volatile ServerSocket serverSocket;
+    private ScheduledExecutorService reconnector;
+
+    // 统计信息
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * secret为各节点相同的集群密钥；bind为监听地址，端口为0时由系统分配；
+     * seeds为启动时连接的其他节点，可以包含本节点自己的地址
+     */
+    public TcpCluster(String name, String secret, InetSocketAddress bind, List<InetSocketAddress> seeds) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("TCP集群需要集群密钥");
+        }
+        this.name = name;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.bind = bind;
+        this.seeds = new ArrayList<>(seeds);
+    }
+
+    /**
+     * 按系统属性创建：vcampus.cluster.port 为本节点的集群端口，vcampus.cluster.bind 为监听地址（默认所有网卡），
+     * vcampus.cluster.secret 为各节点相同的集群密钥，vcampus.cluster.peers 为逗号分隔的种子节点（host:port）
+     */
+    public static TcpCluster fromSystemProperties(String name) {
+        Integer port = Integer.getInteger("vcampus.cluster.port");
+        if (port == null) {
+            throw new IllegalStateException("TCP集群需要设置vcampus.cluster.port");
+        }
+        String secret = System.getProperty("vcampus.cluster.secret", "");
+        if (secret.isEmpty()) {
+            throw new IllegalStateException("TCP集群需要设置vcampus.cluster.secret");
+        }
+        String host = System.getProperty("vcampus.cluster.bind", "");
+        InetSocketAddress bind = host.isEmpty() ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+        return new TcpCluster(name, secret, bind, parsePeers(System.getProperty("vcampus.cluster.peers", "")));
+    }
+
+    static List<InetSocketAddress> parsePeers(String value) {
+        List<InetSocketAddress> peers = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String peer = item.trim();
+            if (peer.isEmpty()) {
+                continue;
+            }
+            int colon = peer.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("集群节点地址格式应为host:port: " + peer);
+            }
+            peers.add(InetSocketAddress.createUnresolved(peer.substring(0, colon),
+                    Integer.parseInt(peer.substring(colon + 1))));
+        }
+        return peers;
+    }
+
+    @Override
+    public synchronized ClusterBus join(String nodeId, ClusterBus.Listener listener) throws IOException {
+        if (member != null) {
+            throw new IOException("集群 " + name + " 在本进程中已有节点: " + member.nodeId);
+        }
+        ServerSocket server = new ServerSocket();
+        server.bind(bind);
+        serverSocket = server;
+        member = new Member(nodeId, listener);
+
+        Thread acceptThread = new Thread(this::acceptLoop, "vcampus-cluster-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        for (InetSocketAddress seed : seeds) {
+            links.add(new Link(seed.getHostString(), seed.getPort()));
+        }
+        reconnector = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vcampus-cluster-reconnect");
+            t.setDaemon(true);
+            return t;
+        });
+        reconnector.scheduleWithFixedDelay(() -> links.forEach(Link::reconnect),
+                0, RECONNECT_INTERVAL, TimeUnit.MILLISECONDS);
+        return member;
+    }
+
+    private synchronized void leave(Member leaving) {
+        if (member != leaving) {
+            return;
+        }
+        member = null;
+        reconnector.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+        for (Link link : links) {
+            link.close();
+        }
+        links.clear();
+        for (Socket socket : inbound) {
+            closeQuietly(socket);
+        }
+        leaving.inbox.shutdown();
+    }
+
+    private void acceptLoop() {
+        ServerSocket server = serverSocket;
+        AtomicInteger index = new AtomicInteger();
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread reader = new Thread(() -> serveInbound(socket), "vcampus-cluster-in-" + index.incrementAndGet());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("接受集群连接时发生错误: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 处理其他节点的连接：交换节点信息后持续读取对方发来的消息
+     */
+    private void serveInbound(Socket socket) {
+        inbound.add(socket);
+        try {
+            socket.setSoTimeout(CONNECT_TIMEOUT);
+            ObjectInputStream in = openInput(socket);
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            Member current = member;
+            Object first = in.readObject();
+            if (current == null || !(first instanceof Hello) || ((Hello) first).nonce == null) {
+                return;
+            }
+            Hello hello = (Hello) first;
+            String error = null;
+            if (!name.equals(hello.cluster)) {
+                error = "集群名称不一致: " + hello.cluster;
+            } else if (current.nodeId.equals(hello.nodeId) && !instanceId.equals(hello.instanceId)) {
+                error = "集群中已存在节点: " + hello.nodeId;
+            }
+            byte[] nonce = nonce();
+            out.writeObject(error != null ? error : new Hello(name, current.nodeId, instanceId,
+                    serverSocket.getLocalPort(), nonce, proof(ACCEPT, hello.nonce, nonce)));
+            out.flush();
+            if (error != null || instanceId.equals(hello.instanceId)) {
+                return;
+            }
+            // 对方用集群密钥签名本节点的随机数后才接收它的消息
+            if (!verify(in.readObject(), proof(CONNECT, nonce, hello.nonce))) {
+                System.err.println("集群节点认证失败: " + socket.getRemoteSocketAddress());
+                return;
+            }
+
+            socket.setSoTimeout(0);
+            learn(hello, socket);
+            while (true) {
+                receive((Packet) in.readObject());
+            }
+        } catch (EOFException | SocketException e) {
+            // 对方离开集群
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.err.println("集群连接读取失败: " + e.getMessage());
+        } finally {
+            inbound.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * 对方尚未在本节点的连接中时反向连接它
+     */
+    private void learn(Hello hello, Socket socket) {
+        synchronized (links) {
+            for (Link link : links) {
+                if (hello.nodeId.equals(link.peerNode)) {
+                    // 对方重启过，原连接已失效
+                    if (!hello.instanceId.equals(link.peerInstance)) {
+                        link.reset();
+                    }
+                    return;
+                }
+            }
+            if (member == null) {
+                return;
+            }
+            Link link = new Link(socket.getInetAddress().getHostAddress(), hello.port);
+            links.add(link);
+            link.reconnect();
+        }
+    }
+
+    private void receive(Packet packet) {
+        switch (packet.kind) {
+            case ENVELOPE:
+                Member current = member;
+                if (current != null) {
+                    current.deliver(packet.envelope);
+                }
+                break;
+            case SESSION_PUT:
+                sessions.apply(packet.session);
+                break;
+            case SESSION_REMOVE:
+                sessions.applyRemove(packet.token);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void sendToAll(Packet packet) {
+        for (Link link : links) {
+            link.send(packet);
+        }
+    }
+
+    private static ObjectInputStream openInput(Socket socket) throws IOException {
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+        in.setObjectInputFilter(TcpCluster::filter);
+        return in;
+    }
+
+    /**
+     * 集群连接的反序列化过滤器，拒绝白名单以外的类
+     */
+    static ObjectInputFilter.Status filter(ObjectInputFilter.FilterInfo info) {
+        if (info.depth() > MAX_DEPTH || info.arrayLength() > MAX_ARRAY) {
+            return ObjectInputFilter.Status.REJECTED;
+        }
+        Class<?> type = info.serialClass();
+        if (type == null) {
+            return ObjectInputFilter.Status.UNDECIDED;
+        }
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive() || SERIAL_CLASSES.contains(type.getName())) {
+            return ObjectInputFilter.Status.ALLOWED;
+        }
+        // java.util中的集合；CollSer是List.of等不可变集合的序列化形式，HashMap读取时检查Map.Entry数组的长度
+        if ("java.util".equals(type.getPackageName()) && (Collection.class.isAssignableFrom(type)
+                || Map.class.isAssignableFrom(type) || type == Map.Entry.class
+                || "java.util.CollSer".equals(type.getName()))) {
+            return ObjectInputFilter.Status.ALLOWED;
+        }
+        return ObjectInputFilter.Status.REJECTED;
+    }
+
+    private byte[] nonce() {
+        byte[] nonce = new byte[16];
+        random.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * 用集群密钥对双方的随机数签名（HMAC-SHA256）
+     */
+    private byte[] proof(String role, byte[] challenge, byte[] response) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            mac.update(role.getBytes(StandardCharsets.UTF_8));
+            mac.update(challenge);
+            mac.update(response);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法计算集群握手签名", e);
+        }
+    }
+
+    private static boolean verify(Object received, byte[] expected) {
+        return received instanceof byte[] && MessageDigest.isEqual((byte[]) received, expected);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 忽略关闭异常
+        }
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public SessionRegistry getSessions() { return sessions; }
+
+    /**
+     * 实际监听的集群端口，加入集群前返回配置值
+     */
+    public int getPort() {
+        ServerSocket server = serverSocket;
+        return server != null ? server.getLocalPort() : bind.getPort();
+    }
+
+    /**
+     * 已连接的其他节点ID
+     */
+    public List<String> getConnectedNodes() {
+        List<String> nodes = new ArrayList<>();
+        for (Link link : links) {
+            if (link.isConnected()) {
+                nodes.add(link.peerNode);
+            }
+        }
+        return nodes;
+    }
+
+    public long getDroppedCount() { return droppedCount.get(); }
+
+    /**
+     * 本节点的发送端，收到的消息由单独的投递线程按到达顺序交给监听器
+     */
+    private final class Member implements ClusterBus {
+        private final String nodeId;
+        private final ClusterBus.Listener listener;
+        private final ExecutorService inbox;
+
+        Member(String nodeId, ClusterBus.Listener listener) {
+            this.nodeId = nodeId;
+            this.listener = listener;
+            this.inbox = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "vcampus-cluster-" + nodeId);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        @Override
+        public String getNodeId() { return nodeId; }
+
+        @Override
+        public void send(ClusterEnvelope envelope) {
+            Packet packet = Packet.envelope(envelope);
+            String target = envelope.getTargetNode();
+            if (target == null) {
+                sendToAll(packet);
+                return;
+            }
+            for (Link link : links) {
+                if (target.equals(link.peerNode) && link.isConnected()) {
+                    link.send(packet);
+                    return;
+                }
+            }
+            droppedCount.incrementAndGet();
+        }
+
+        private void deliver(ClusterEnvelope envelope) {
+            try {
+                inbox.execute(() -> {
+                    try {
+                        listener.onEnvelope(envelope);
+                    } catch (RuntimeException e) {
+                        System.err.println("集群消息处理失败: " + e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // 节点已离开集群
+            }
+        }
+
+        @Override
+        public void close() {
+            leave(this);
+        }
+    }
+
+    /**
+     * 到另一个节点的发送连接，连接和写入都在该连接自己的写线程中进行，消息按发送顺序到达
+     */
+    private final class Link {
+        private final String host;
+        private final int port;
+        private final ThreadPoolExecutor writer;
+        private final AtomicBoolean connecting = new AtomicBoolean();
+        private volatile String peerNode;
+        private volatile String peerInstance;
+        private volatile Socket socket;
+        private volatile boolean closed;
+        private ObjectOutputStream out;
+        private String lastError;
+
+        Link(String host, int port) {
+            this.host = host;
+            this.port = port;
+            this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(SEND_QUEUE), r -> {
+                        Thread t = new Thread(r, "vcampus-cluster-link-" + host + ":" + port);
+                        t.setDaemon(true);
+                        return t;
+                    });
+        }
+
+        boolean isConnected() {
+            return socket != null;
+        }
+
+        /**
+         * 未连接时安排一次连接
+         */
+        void reconnect() {
+            if (closed || socket != null || !connecting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                writer.execute(this::connect);
+            } catch (RejectedExecutionException e) {
+                connecting.set(false);
+            }
+        }
+
+        private void connect() {
+            Socket candidate = new Socket();
+            try {
+                Member current = member;
+                if (current == null) {
+                    return;
+                }
+                candidate.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+                candidate.setSoTimeout(CONNECT_TIMEOUT);
+                candidate.setTcpNoDelay(true);
+                ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(candidate.getOutputStream()));
+                byte[] nonce = nonce();
+                output.writeObject(new Hello(name, current.nodeId, instanceId, getPort(), nonce, null));
+                output.flush();
+                ObjectInputStream input = openInput(candidate);
+                Object reply = input.readObject();
+
+                if (!(reply instanceof Hello)) {
+                    // 对方拒绝（集群名称不一致或节点ID重复），不再重试
+                    System.err.println("集群节点 " + host + ":" + port + " 拒绝连接: " + reply);
+                    discard();
+                    return;
+                }
+                Hello hello = (Hello) reply;
+                if (hello.nonce == null || !verify(hello.proof, proof(ACCEPT, nonce, hello.nonce))) {
+                    System.err.println("集群节点 " + host + ":" + port + " 认证失败，集群密钥不一致");
+                    discard();
+                    return;
+                }
+                output.writeObject(proof(CONNECT, hello.nonce, nonce));
+                output.flush();
+                synchronized (links) {
+                    if (instanceId.equals(hello.instanceId) || isDuplicate(hello.nodeId)) {
+                        // 种子地址指向本节点，或已经有到该节点的连接
+                        discard();
+                        return;
+                    }
+                    peerNode = hello.nodeId;
+                    peerInstance = hello.instanceId;
+                }
+
+                candidate.setSoTimeout(0);
+                out = output;
+                socket = candidate;
+                lastError = null;
+                System.out.println("已连接集群节点: " + peerNode + "（" + host + ":" + port + "）");
+
+                // 先同步已有会话，之后的变更随连接按顺序发送
+                for (SessionStore.Session session : sessions.sessions()) {
+                    write(Packet.sessionPut(session));
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                // 对方尚未启动或已离开，稍后重试；同一原因只记录一次
+                if (!String.valueOf(e.getMessage()).equals(lastError)) {
+                    lastError = String.valueOf(e.getMessage());
+                    System.err.println("连接集群节点 " + host + ":" + port + " 失败: " + lastError);
+                }
+            } finally {
+                if (socket != candidate) {
+                    closeQuietly(candidate);
+                }
+                connecting.set(false);
+            }
+        }
+
+        private boolean isDuplicate(String nodeId) {
+            for (Link link : links) {
+                if (link != this && nodeId.equals(link.peerNode)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void send(Packet packet) {
+            if (socket == null) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+            try {
+                writer.execute(() -> write(packet));
+            } catch (RejectedExecutionException e) {
+                droppedCount.incrementAndGet();
+            }
+        }
+
+        private void write(Packet packet) {
+            Socket current = socket;
+            if (current == null) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+            try {
+                out.writeObject(packet);
+                // 每条消息后重置句柄表，避免两端缓存已发送的对象
+                out.reset();
+                out.flush();
+            } catch (IOException e) {
+                System.err.println("集群节点连接断开: " + peerNode + "，" + e.getMessage());
+                socket = null;
+                out = null;
+                closeQuietly(current);
+                droppedCount.incrementAndGet();
+            }
+        }
+
+        /**
+         * 关闭当前连接并立即重连
+         */
+        void reset() {
+            Socket current = socket;
+            socket = null;
+            if (current != null) {
+                closeQuietly(current);
+            }
+            reconnect();
+        }
+
+        private void discard() {
+            closed = true;
+            links.remove(this);
+            writer.shutdown();
+        }
+
+        void close() {
+            closed = true;
+            writer.shutdownNow();
+            Socket current = socket;
+            socket = null;
+            if (current != null) {
+                closeQuietly(current);
+            }
+        }
+    }
+
+    /**
+     * 各节点各保存一份的会话注册表，本节点的变更发往其他节点；
+     * 会话在不同节点上是不同的对象，移除时只按令牌判断
+     */
+    private final class ReplicatedSessions implements SessionRegistry {
+        private final Map<String, SessionStore.Session> sessions = new ConcurrentHashMap<>();
+
+        @Override
+        public SessionStore.Session get(String token) {
+            return sessions.get(token);
+        }
+
+        @Override
+        public boolean add(SessionStore.Session session) {
+            if (sessions.putIfAbsent(session.getToken(), session) != null) {
+                return false;
+            }
+            sendToAll(Packet.sessionPut(session));
+            return true;
+        }
+
+        @Override
+        public boolean remove(SessionStore.Session session) {
+            if (sessions.remove(session.getToken()) == null) {
+                return false;
+            }
+            sendToAll(Packet.sessionRemove(session.getToken()));
+            return true;
+        }
+
+        @Override
+        public void update(SessionStore.Session session) {
+            sessions.put(session.getToken(), session);
+            sendToAll(Packet.sessionPut(session));
+        }
+
+        void apply(SessionStore.Session session) {
+            sessions.put(session.getToken(), session);
+        }
+
+        void applyRemove(String token) {
+            sessions.remove(token);
+        }
+
+        @Override
+        public Collection<SessionStore.Session> sessions() {
+            return sessions.values();
+        }
+
+        @Override
+        public int size() {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * 连接建立时双方交换的节点信息；nonce为发送方的随机数，接受方的回复带有对双方随机数的签名
+     */
+    private static final class Hello implements Serializable {
+        private static final long serialVersionUID = 2L;
+
+        private final String cluster;
+        private final String nodeId;
+        private final String instanceId;
+        private final int port;
+        private final byte[] nonce;
+        private final byte[] proof;
+
+        Hello(String cluster, String nodeId, String instanceId, int port, byte[] nonce, byte[] proof) {
+            this.cluster = cluster;
+            this.nodeId = nodeId;
+            this.instanceId = instanceId;
+            this.port = port;
+            this.nonce = nonce;
+            this.proof = proof;
+        }
+    }
+
+    /**
+     * 集群连接上传递的一条消息
+     */
+    private static final class Packet implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        enum Kind {
+            ENVELOPE,
+            SESSION_PUT,
+            SESSION_REMOVE
+        }
+
+        private final Kind kind;
+        private final ClusterEnvelope envelope;
+        private final SessionStore.Session session;
+        private final String token;
+
+        private Packet(Kind kind, ClusterEnvelope envelope, SessionStore.Session session, String token) {
+            this.kind = kind;
+            this.envelope = envelope;
+            this.session = session;
+            this.token = token;
+        }
+
+        static Packet envelope(ClusterEnvelope envelope) {
+            return new Packet(Kind.ENVELOPE, envelope, null, null);
+        }
+
+        static Packet sessionPut(SessionStore.Session session) {
+            return new Packet(Kind.SESSION_PUT, null, session, null);
+        }
+
+        static Packet sessionRemove(String token) {
+            return new Packet(Kind.SESSION_REMOVE, null, null, token);
+        }
+    }
+}
@@ -2,86 +2,235 @@ package com.vcampus.server.handler;
 
 import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
+import com.vcampus.common.protocol.BatchMessages;
+import com.vcampus.common.protocol.FrameCompression;
+import com.vcampus.common.protocol.MessageCodec;
+import com.vcampus.common.protocol.MessageCodecs;
+import com.vcampus.common.protocol.MessageFrames;
+import com.vcampus.common.protocol.PushTopics;
+import com.vcampus.common.protocol.ResettingObjectOutputStream;
+import com.vcampus.common.util.DatabaseHelper;
+import com.vcampus.common.util.WriteMark;
 import com.vcampus.server.VCampusServer;
+import com.vcampus.server.admission.AdmissionController;
+import com.vcampus.server.bulkhead.ServiceModule;
+import com.vcampus.server.heartbeat.RttHistogram;
+import com.vcampus.server.nio.NioConnection;
+import com.vcampus.server.push.SubscriptionRegistry;
 import com.vcampus.server.service.*;
+import com.vcampus.server.session.SessionStore;
 
 import java.io.*;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 /**
  * 客户端连接处理器
- * 每个客户端连接对应一个处理器实例，运行在独立线程中
+ * 每个客户端连接对应一个处理器实例；阻塞模式下运行在独立线程中，
+ * 非阻塞模式下由NIO连接投递消息
  */
 public class ClientHandler implements Runnable {
 
+    // 帧协议下单个连接同时处理中的请求上限，超过后暂停读取（阻塞与非阻塞模式相同）
+    public static final int MAX_IN_FLIGHT = Integer.getInteger("vcampus.pipeline.maxInFlight", 16);
+
+    // 消息类型 -> 处理方法及所属业务模块
+    private static final HandlerRegistry ROUTES = new HandlerRegistry()
+            // 连接握手、消息推送、批量请求、连接保活
+            .register(null, ClientHandler::handleHandshake, Message.Type.HANDSHAKE)
+            .register(null, ClientHandler::handleSubscription, Message.Type.SUBSCRIBE, Message.Type.UNSUBSCRIBE)
+            .register(null, ClientHandler::handleBatch, Message.Type.BATCH)
+            .register(null, (client, message) -> new Message(Message.Type.PONG, Message.Code.SUCCESS, message.getData()),
+                    Message.Type.PING)
+            .register(null, ClientHandler::handlePong, Message.Type.PONG)
+            .register(null, ClientHandler::handleLogout, Message.Type.USER_LOGOUT)
+            .register(null, ClientHandler::handleSessionResume, Message.Type.SESSION_RESUME)
+
+            // 用户管理
+            .register(ServiceModule.USER, ClientHandler::handleLogin, Message.Type.USER_LOGIN)
+            .register(ServiceModule.USER, ClientHandler::handleRegister, Message.Type.USER_REGISTER)
+            .register(ServiceModule.USER, ClientHandler::handleUserUpdate, Message.Type.USER_UPDATE)
+
+            // 学生管理
+            .register(ServiceModule.STUDENT, ClientHandler::handleStudentOperation,
+                    Message.Type.STUDENT_ADD, Message.Type.STUDENT_DELETE, Message.Type.STUDENT_UPDATE,
+                    Message.Type.STUDENT_QUERY, Message.Type.STUDENT_LIST)
+
+            // 课程管理
+            .register(ServiceModule.COURSE, ClientHandler::handleCourseOperation,
+                    Message.Type.COURSE_ADD, Message.Type.COURSE_DELETE, Message.Type.COURSE_UPDATE,
+                    Message.Type.COURSE_QUERY, Message.Type.COURSE_LIST, Message.Type.COURSE_SELECT,
+                    Message.Type.COURSE_DROP)
+
+            // 图书馆管理
+            .register(ServiceModule.LIBRARY, ClientHandler::handleLibraryOperation,
+                    Message.Type.BOOK_SEARCH, Message.Type.BOOK_BORROW, Message.Type.BOOK_RETURN,
+                    Message.Type.BOOK_LIST)
+
+            // 商店管理
+            .register(ServiceModule.SHOP, ClientHandler::handleShopOperation,
+                    Message.Type.SHOP_LIST, Message.Type.SHOP_BUY, Message.Type.SHOP_CART)
+
+            // 教务系统 - 公告管理、申请管理
+            .register(ServiceModule.ACADEMIC, ClientHandler::handleAcademicOperation,
+                    Message.Type.ANNOUNCEMENT_LIST, Message.Type.ANNOUNCEMENT_DETAIL, Message.Type.ANNOUNCEMENT_ADD,
+                    Message.Type.ANNOUNCEMENT_UPDATE, Message.Type.ANNOUNCEMENT_DELETE,
+                    Message.Type.APPLICATION_SUBMIT, Message.Type.APPLICATION_LIST, Message.Type.APPLICATION_DETAIL,
+                    Message.Type.APPLICATION_APPROVE, Message.Type.APPLICATION_REJECT)
+
+            // 文件管理
+            .register(ServiceModule.FILE, ClientHandler::handleFileOperation,
+                    Message.Type.FILE_LIST, Message.Type.FILE_UPLOAD, Message.Type.FILE_DELETE,
+                    Message.Type.FILE_DOWNLOAD);
+
     private Socket clientSocket;
     private String clientId;
     private VCampusServer server;
 
-    // 输入输出流
+    // 输入输出流（旧版ObjectStream协议）
     private ObjectInputStream inputStream;
-    private ObjectOutputStream outputStream;
+    private ResettingObjectOutputStream outputStream;
+
+    // 输入输出流（帧协议）
+    private boolean framed = false;
+    private DataInputStream frameInput;
+    private OutputStream frameOutput;
+
+    // 出站队列（阻塞模式），所有写出都经由队列中的单个写任务完成
+    private volatile OutboundQueue outbound;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+    // 帧协议下协商得到的编码，握手前使用Java序列化
+    private volatile MessageCodec codec = MessageCodecs.JAVA;
+
+    // 帧协议下协商得到的压缩设置，null表示不压缩
+    private volatile FrameCompression compression;
+
+    // 非阻塞模式下的连接
+    private NioConnection nioConnection;
+
+    // 心跳：最近一次收到客户端数据的时间，以及PING/PONG测得的往返时延
+    private volatile long lastActivityNanos = System.nanoTime();
+    private final RttHistogram rttHistogram = new RttHistogram();
 
     // 客户端状态
-    private boolean isConnected = false;
-    private User currentUser = null;
-    private Date loginTime;
+    private volatile boolean isConnected = false;
+    private volatile User currentUser = null;
+    private volatile Date loginTime;
+    private volatile SessionStore.Session session;
+
+    // 未登录时按连接记录写主库的时间
+    private final WriteMark connectionWrites = new WriteMark();
 
-    // 业务服务类
-    private UserService userService;
-    private StudentService studentService;
-    private CourseService courseService;
-    private LibraryService libraryService;
-    private ShopService shopService;
-    private AcademicService academicService;  // 新增教务系统服务
-    private FileService fileService;
+    // 全服务器共享的业务服务
+    private final ServiceContainer services;
 
 
     public ClientHandler(Socket clientSocket, String clientId, VCampusServer server) {
         this.clientSocket = clientSocket;
         this.clientId = clientId;
         this.server = server;
+        this.services = server.getServices();
+    }
 
-        // 初始化业务服务
-        this.userService = new UserService();
-        this.studentService = new StudentService();
-        this.courseService = new CourseService();
-        this.libraryService = new LibraryService();
-        this.shopService = new ShopService();
-        this.academicService = new AcademicService();  // 初始化教务服务
-        this.fileService = new FileService();
+    /**
+     * 非阻塞模式构造函数，读写由NioConnection负责
+     */
+    public ClientHandler(NioConnection nioConnection, String clientId, VCampusServer server) {
+        this.nioConnection = nioConnection;
+        this.clientId = clientId;
+        this.server = server;
+        this.framed = true;
+        this.isConnected = true;
+        this.services = server.getServices();
     }
 
     @Override
     public void run() {
         try {
+            isConnected = true;
+
+            // 根据客户端发送的前两个字节识别协议：旧版ObjectStream或帧协议
+            PushbackInputStream input = new PushbackInputStream(
+                    new BufferedInputStream(clientSocket.getInputStream()), 2);
+            int b0 = input.read();
+            int b1 = input.read();
+            if (b1 < 0) {
+                return;
+            }
+            input.unread(b1);
+            input.unread(b0);
+            framed = !MessageFrames.isLegacyStreamHeader(b0, b1);
+
             // 初始化输入输出流
-            outputStream = new ObjectOutputStream(clientSocket.getOutputStream());
-            inputStream = new ObjectInputStream(clientSocket.getInputStream());
+            if (framed) {
+                frameOutput = new BufferedOutputStream(clientSocket.getOutputStream());
+                frameInput = new DataInputStream(input);
+                outbound = new OutboundQueue(new OutboundQueue.Sink() {
+                    @Override
+                    public void write(Object item) throws IOException {
+                        frameOutput.write((byte[]) item);
+                    }
 
-            isConnected = true;
-            System.out.println("客户端 " + clientId + " 连接处理器启动");
+                    @Override
+                    public void flush() throws IOException {
+                        frameOutput.flush();
+                    }
+                }, server.getWriterPool(), this::disconnect);
+            } else {
+                outputStream = new ResettingObjectOutputStream(
+                        new BufferedOutputStream(clientSocket.getOutputStream()));
+                outputStream.flush();
+                inputStream = new ObjectInputStream(input);
+                outbound = new OutboundQueue(new OutboundQueue.Sink() {
+                    @Override
+                    public void write(Object item) throws IOException {
+                        outputStream.writeMessage(item, false);
+                    }
 
-            // 发送欢迎消息
-            Message welcomeMessage = new Message(Message.Type.SUCCESS, "欢迎连接到VCampus服务器");
-            sendMessage(welcomeMessage);
+                    @Override
+                    public void flush() throws IOException {
+                        outputStream.flush();
+                    }
+                }, server.getWriterPool(), this::disconnect);
+            }
+
+            System.out.println("客户端 " + clientId + " 连接处理器启动" + (framed ? "（帧协议）" : ""));
+
+            // 旧版协议由服务器主动发送欢迎消息，帧协议在握手时回复
+            if (!framed) {
+                Message welcomeMessage = new Message(Message.Type.SUCCESS, "欢迎连接到VCampus服务器");
+                sendMessage(welcomeMessage);
+            }
 
             // 主消息处理循环
             while (isConnected) {
                 try {
                     // 接收客户端消息
-                    Message message = (Message) inputStream.readObject();
+                    Message message = readMessage();
 
                     if (message != null) {
                         System.out.println("收到客户端消息: " + message);
 
-                        // 处理消息
-                        Message response = processMessage(message);
-
-                        // 发送响应
-                        if (response != null) {
-                            sendMessage(response);
+                        if (framed) {
+                            // 帧协议：请求并发处理，响应按uid与请求对应
+                            dispatch(message);
+                        } else {
+                            // 旧版协议：按顺序处理
+                            Message response = processMessage(message);
+                            if (response != null) {
+                                sendMessage(response);
+                            }
                         }
                     }
 
@@ -107,81 +256,165 @@ public class ClientHandler implements Runnable {
     }
 
     /**
-     * 处理客户端消息
+     * 读取一条客户端消息
      */
-    private Message processMessage(Message message) {
+    private Message readMessage() throws IOException, ClassNotFoundException {
+        Message message = framed ? MessageFrames.read(frameInput) : (Message) inputStream.readObject();
+        touch();
+        return message;
+    }
+
+    /**
+     * 将帧协议请求交给请求线程池处理
+     * 握手、登录、登出会改变连接状态，需等待之前的请求完成后在读取线程中顺序执行
+     */
+    private void dispatch(Message message) throws IOException {
+        // 心跳直接在读取线程中处理，时延测量不受请求排队影响
+        if (isHeartbeat(message.getType())) {
+            respond(message);
+            return;
+        }
+
+        if (isOrderingBarrier(message.getType())) {
+            acquireInFlight(MAX_IN_FLIGHT);
+            try {
+                respond(message);
+            } finally {
+                inFlight.release(MAX_IN_FLIGHT);
+            }
+            return;
+        }
+
+        // 业务请求进入所属模块的隔离舱，其余请求使用公共请求线程池
+        acquireInFlight(1);
+        Runnable task = () -> {
+            try {
+                respond(message);
+            } finally {
+                inFlight.release();
+            }
+        };
+        ServiceModule module = ROUTES.moduleOf(message.getType());
         try {
-            Message.Type type = message.getType();
-
-            switch (type) {
-                // 用户管理
-                case USER_LOGIN:
-                    return handleLogin(message);
-                case USER_LOGOUT:
-                    return handleLogout(message);
-                case USER_REGISTER:
-                    return handleRegister(message);
-                case USER_UPDATE:
-                    return handleUserUpdate(message);
-
-                // 学生管理
-                case STUDENT_ADD:
-                case STUDENT_DELETE:
-                case STUDENT_UPDATE:
-                case STUDENT_QUERY:
-                case STUDENT_LIST:
-                    return handleStudentOperation(message);
-
-                // 课程管理
-                case COURSE_ADD:
-                case COURSE_DELETE:
-                case COURSE_UPDATE:
-                case COURSE_QUERY:
-                case COURSE_LIST:
-                case COURSE_SELECT:
-                case COURSE_DROP:
-                    return handleCourseOperation(message);
-
-                // 图书馆管理
-                case BOOK_SEARCH:
-                case BOOK_BORROW:
-                case BOOK_RETURN:
-                case BOOK_LIST:
-                    return handleLibraryOperation(message);
-
-                // 商店管理
-                case SHOP_LIST:
-                case SHOP_BUY:
-                case SHOP_CART:
-                    return handleShopOperation(message);
-
-                // 教务系统 - 公告管理
-                case ANNOUNCEMENT_LIST:
-                case ANNOUNCEMENT_DETAIL:
-                case ANNOUNCEMENT_ADD:
-                case ANNOUNCEMENT_UPDATE:
-                case ANNOUNCEMENT_DELETE:
-                    return handleAcademicOperation(message);
-
-                // 教务系统 - 申请管理
-                case APPLICATION_SUBMIT:
-                case APPLICATION_LIST:
-                case APPLICATION_DETAIL:
-                case APPLICATION_APPROVE:
-                case APPLICATION_REJECT:
-                    return handleAcademicOperation(message);
-
-                // 文件管理
-                case FILE_LIST:
-                case FILE_UPLOAD:
-                case FILE_DELETE:
-                case FILE_DOWNLOAD:
-                    return handleFileOperation(message);
-
-                default:
-                    return createErrorMessage("不支持的操作类型: " + type);
+            if (module != null) {
+                server.getBulkheads().get(module).execute(task);
+            } else {
+                server.getRequestPool().execute(task);
             }
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            sendMessage(createBusyMessage(message, busyText(module)));
+        }
+    }
+
+    private void acquireInFlight(int permits) throws IOException {
+        try {
+            inFlight.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待请求处理被中断");
+        }
+    }
+
+    public static boolean isHeartbeat(Message.Type type) {
+        return type == Message.Type.PING || type == Message.Type.PONG;
+    }
+
+    /**
+     * 会改变连接状态的请求：等之前的请求全部完成后单独执行，之后的请求等它完成后才开始
+     */
+    public static boolean isOrderingBarrier(Message.Type type) {
+        return type == Message.Type.HANDSHAKE
+                || type == Message.Type.USER_LOGIN
+                || type == Message.Type.USER_LOGOUT
+                || type == Message.Type.SESSION_RESUME;
+    }
+
+    private void respond(Message message) {
+        Message response = processMessage(message);
+        if (response != null) {
+            sendMessage(response);
+        }
+    }
+
+    /**
+     * 处理客户端消息，响应沿用请求的uid以便客户端匹配
+     * 请求先经过准入控制，超过全局或用户并发上限时直接返回SERVER_BUSY，不执行业务逻辑
+     */
+    public Message processMessage(Message message) {
+        if (!requiresAdmission(message.getType())) {
+            return handle(message);
+        }
+
+        // 服务器排空期间不再开始新的业务请求，客户端重连后重试
+        if (server.isDraining()) {
+            return createBusyMessage(message, "服务器正在重启，请稍后重试");
+        }
+
+        AdmissionController.Permit permit = server.getAdmission().tryAdmit(admissionKey());
+        if (permit == null) {
+            return createBusyMessage(message, "请求过多，请稍后重试");
+        }
+        try (permit) {
+            return handle(message);
+        }
+    }
+
+    private Message handle(Message message) {
+        SessionStore.Session current = session;
+        if (current != null) {
+            server.getSessions().touch(current);
+        }
+        Message response = route(message);
+        if (response != null) {
+            response.setUid(message.getUid());
+        }
+        return response;
+    }
+
+    /**
+     * 握手、登出、会话恢复和心跳开销很小，不受准入限制
+     */
+    private boolean requiresAdmission(Message.Type type) {
+        return type != Message.Type.HANDSHAKE && type != Message.Type.USER_LOGOUT
+                && type != Message.Type.SESSION_RESUME && !isHeartbeat(type);
+    }
+
+    /**
+     * 按用户限制并发，未登录时按连接限制
+     */
+    private String admissionKey() {
+        User user = currentUser;
+        return user != null ? "user:" + user.getUserId() : "client:" + clientId;
+    }
+
+    /**
+     * 按注册表找到处理方法；属于业务模块的请求在该模块的隔离舱内执行，模块已满时返回SERVER_BUSY
+     */
+    private Message route(Message message) {
+        HandlerRegistry.Route route = ROUTES.get(message.getType());
+        if (route == null) {
+            return createErrorMessage("不支持的操作类型: " + message.getType());
+        }
+        if (route.getModule() == null) {
+            return invoke(route, message);
+        }
+
+        try {
+            return server.getBulkheads().get(route.getModule()).call(() -> invoke(route, message));
+        } catch (RejectedExecutionException e) {
+            return createBusyMessage(message, busyText(route.getModule()));
+        }
+    }
 
+    /**
+     * 执行处理方法；处理期间的数据库访问按当前会话的写入标记选择主库或只读副本
+     */
+    private Message invoke(HandlerRegistry.Route route, Message message) {
+        SessionStore.Session current = session;
+        WriteMark writes = current != null ? current.getWrites() : connectionWrites;
+        try (DatabaseHelper.WriteScope ignored = DatabaseHelper.trackWrites(writes)) {
+            return route.getHandler().handle(this, message);
         } catch (Exception e) {
             System.err.println("处理消息时发生错误: " + e.getMessage());
             e.printStackTrace();
@@ -189,19 +422,189 @@ public class ClientHandler implements Runnable {
         }
     }
 
+    /**
+     * 请求所属的业务模块，不属于任何模块时返回null
+     */
+    public static ServiceModule moduleOf(Message.Type type) {
+        return ROUTES.moduleOf(type);
+    }
+
+    public static String busyText(ServiceModule module) {
+        return (module != null ? module.getDisplayName() + "模块" : "服务器") + "繁忙，请稍后重试";
+    }
+
+    /**
+     * 处理帧协议握手，协商编码并回复欢迎消息
+     */
+    private Message handleHandshake(Message message) {
+        if (framed && message.getData() instanceof Map) {
+            Map<?, ?> hello = (Map<?, ?>) message.getData();
+            codec = MessageCodecs.negotiate(hello.get(MessageCodecs.HANDSHAKE_CODECS));
+            compression = FrameCompression.negotiate(hello.get(FrameCompression.HANDSHAKE_KEY));
+        }
+
+        Map<String, Object> welcome = new HashMap<>();
+        welcome.put("message", "欢迎连接到VCampus服务器");
+        welcome.put("protocol", MessageFrames.PROTOCOL_VERSION);
+        welcome.put("clientId", clientId);
+        welcome.put(MessageCodecs.HANDSHAKE_CODEC, codec.name());
+        if (compression != null) {
+            welcome.put(FrameCompression.HANDSHAKE_KEY, FrameCompression.DEFLATE);
+        }
+        return new Message(Message.Type.HANDSHAKE, welcome);
+    }
+
+    /**
+     * 收到服务器所发PING的回复，数据为发送时的nanoTime，据此记录往返时延；不回复
+     */
+    private Message handlePong(Message message) {
+        if (message.getData() instanceof Long) {
+            long rtt = System.nanoTime() - (Long) message.getData();
+            if (rtt >= 0) {
+                rttHistogram.record(rtt);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 处理订阅/取消订阅，数据为单个主题或主题列表；只能订阅自己的收件箱
+     */
+    private Message handleSubscription(Message message) {
+        if (!isLoggedIn()) {
+            return createErrorMessage("请先登录");
+        }
+        if (!framed) {
+            return createErrorMessage("当前连接不支持消息推送");
+        }
+
+        Object data = message.getData();
+        List<?> requested = data instanceof List ? (List<?>) data : Collections.singletonList(data);
+        List<String> topics = new ArrayList<>();
+        for (Object item : requested) {
+            String topic = item instanceof String ? (String) item : null;
+            if (!PushTopics.isValid(topic)) {
+                return createErrorMessage("无效的订阅主题: " + item);
+            }
+            if (topic.startsWith(PushTopics.INBOX) && !topic.equals(PushTopics.inbox(currentUser.getUserId()))) {
+                return createErrorMessage("无权订阅其他用户的消息");
+            }
+            topics.add(topic);
+        }
+
+        SubscriptionRegistry subscriptions = server.getSubscriptions();
+        for (String topic : topics) {
+            if (message.getType() == Message.Type.SUBSCRIBE) {
+                subscriptions.subscribe(this, topic);
+            } else {
+                subscriptions.unsubscribe(this, topic);
+            }
+        }
+        return createSuccessMessage(topics);
+    }
+
+    /**
+     * 处理批量请求，按子请求顺序返回各自的响应
+     * 顺序执行时所有子请求共享同一个数据库连接；并行执行时子请求分发到请求线程池，
+     * 当前线程同时执行尚未被取走的子请求，线程池占满时也不会互相等待
+     */
+    private Message handleBatch(Message message) {
+        List<Message> requests = BatchMessages.requestsOf(message);
+        if (requests == null) {
+            return createErrorMessage("批量请求格式错误");
+        }
+        if (requests.size() > BatchMessages.MAX_SIZE) {
+            return createErrorMessage("批量请求过多，最多" + BatchMessages.MAX_SIZE + "个");
+        }
+        for (Message request : requests) {
+            Message.Type type = request.getType();
+            // 会改变连接状态的请求不能放入批量请求
+            if (type == null || type == Message.Type.BATCH || isOrderingBarrier(type)) {
+                return createErrorMessage("批量请求中不支持的操作类型: " + type);
+            }
+        }
+
+        if (BatchMessages.isParallel(message) && requests.size() > 1) {
+            return createSuccessMessage(processParallel(requests));
+        }
+
+        List<Message> results = new ArrayList<>(requests.size());
+        try (DatabaseHelper.SharedConnection ignored = DatabaseHelper.shareConnection()) {
+            for (Message request : requests) {
+                results.add(processBatchEntry(request));
+            }
+        }
+        return createSuccessMessage(results);
+    }
+
+    private List<Message> processParallel(List<Message> requests) {
+        List<FutureTask<Message>> tasks = new ArrayList<>(requests.size());
+        for (Message request : requests) {
+            tasks.add(new FutureTask<>(() -> processBatchEntry(request)));
+        }
+
+        // 非阻塞模式下使用NIO业务线程池
+        ExecutorService requestPool = nioConnection != null ? nioConnection.getWorkerPool() : server.getRequestPool();
+        for (int i = 1; i < tasks.size(); i++) {
+            try {
+                requestPool.execute(tasks.get(i));
+            } catch (RejectedExecutionException e) {
+                // 线程池已满，剩余子请求由当前线程执行
+                break;
+            }
+        }
+
+        // 已开始或已完成的任务再次run不会重复执行
+        for (FutureTask<Message> task : tasks) {
+            task.run();
+        }
+
+        List<Message> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Message result;
+            try {
+                result = tasks.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result = createErrorMessage("请求处理被中断");
+            } catch (ExecutionException e) {
+                result = createErrorMessage("服务器内部错误: " + e.getCause().getMessage());
+            }
+            result.setUid(requests.get(i).getUid());
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Message processBatchEntry(Message request) {
+        // 批量请求整体已经过准入控制
+        Message response = handle(request);
+        if (response == null) {
+            response = createErrorMessage("请求没有响应");
+            response.setUid(request.getUid());
+        }
+        return response;
+    }
+
     /**
      * 处理用户登录
      */
     private Message handleLogin(Message message) {
         if (message.getData() instanceof User) {
             User loginUser = (User) message.getData();
-            User authenticatedUser = userService.login(loginUser.getUserId(), loginUser.getPassword());
+            User authenticatedUser = services.getUserService().login(loginUser.getUserId(), loginUser.getPassword());
 
             if (authenticatedUser != null) {
-                this.currentUser = authenticatedUser;
                 this.loginTime = new Date();
                 authenticatedUser.setLastLoginTime(loginTime);
 
+                // 重新登录时原会话作废，签发新的会话令牌
+                SessionStore sessions = server.getSessions();
+                sessions.invalidate(session);
+                session = sessions.create(authenticatedUser);
+                authenticatedUser.setSessionToken(session.getToken());
+                bindUser(authenticatedUser);
+
                 System.out.println("用户登录成功: " + authenticatedUser.getDisplayName());
                 return createSuccessMessage(authenticatedUser);
             } else {
@@ -211,12 +614,54 @@ public class ClientHandler implements Runnable {
         return createErrorMessage("登录数据格式错误");
     }
 
+    /**
+     * 处理会话恢复：凭登录时签发的令牌恢复登录状态，不访问数据库
+     */
+    private Message handleSessionResume(Message message) {
+        if (!(message.getData() instanceof String)) {
+            return createErrorMessage("会话令牌格式错误");
+        }
+
+        SessionStore.Session resumed = server.getSessions().resume((String) message.getData());
+        if (resumed == null) {
+            return createErrorMessage("会话已失效，请重新登录");
+        }
+
+        User user = resumed.getUser();
+        this.session = resumed;
+        this.loginTime = user.getLastLoginTime() != null ? user.getLastLoginTime() : new Date();
+        bindUser(user);
+
+        System.out.println("用户会话恢复: " + user.getDisplayName());
+        return createSuccessMessage(user);
+    }
+
+    /**
+     * 设置当前用户；帧协议客户端自动订阅个人收件箱
+     */
+    private void bindUser(User user) {
+        this.currentUser = user;
+        SessionStore.Session current = session;
+        if (current != null) {
+            // 登录前在本连接上的写入（如注册）同样需要读己之写
+            current.getWrites().follow(connectionWrites);
+        }
+        if (framed) {
+            SubscriptionRegistry subscriptions = server.getSubscriptions();
+            subscriptions.unsubscribeAll(this);
+            subscriptions.subscribe(this, PushTopics.inbox(user.getUserId()));
+        }
+    }
+
     /**
      * 处理用户登出
      */
     private Message handleLogout(Message message) {
         if (currentUser != null) {
             System.out.println("用户登出: " + currentUser.getDisplayName());
+            server.getSubscriptions().unsubscribeAll(this);
+            server.getSessions().invalidate(session);
+            session = null;
             currentUser = null;
             loginTime = null;
             return createSuccessMessage("登出成功");
@@ -231,7 +676,7 @@ public class ClientHandler implements Runnable {
         if (message.getData() instanceof User) {
             User newUser = (User) message.getData();
 
-            if (userService.register(newUser)) {
+            if (services.getUserService().register(newUser)) {
                 System.out.println("新用户注册: " + newUser.getUserId());
                 return createSuccessMessage("注册成功");
             } else {
@@ -252,10 +697,15 @@ public class ClientHandler implements Runnable {
         if (message.getData() instanceof User) {
             User updateUser = (User) message.getData();
 
-            if (userService.updateUser(updateUser)) {
+            if (services.getUserService().updateUser(updateUser)) {
                 // 如果更新的是当前用户，刷新currentUser
                 if (currentUser.getUserId().equals(updateUser.getUserId())) {
                     currentUser = updateUser;
+                    SessionStore.Session current = session;
+                    if (current != null) {
+                        updateUser.setSessionToken(current.getToken());
+                        server.getSessions().update(current, updateUser);
+                    }
                 }
                 return createSuccessMessage("更新成功");
             } else {
@@ -278,7 +728,7 @@ public class ClientHandler implements Runnable {
             return createErrorMessage("权限不足");
         }
 
-        return studentService.handleRequest(message, currentUser);
+        return services.getStudentService().handleRequest(message, currentUser);
     }
 
     /**
@@ -289,7 +739,7 @@ public class ClientHandler implements Runnable {
             return createErrorMessage("请先登录");
         }
 
-        return courseService.handleRequest(message, currentUser);
+        return services.getCourseService().handleRequest(message, currentUser);
     }
 
     /**
@@ -300,7 +750,7 @@ public class ClientHandler implements Runnable {
             return createErrorMessage("请先登录");
         }
 
-        return libraryService.handleRequest(message, currentUser);
+        return services.getLibraryService().handleRequest(message, currentUser);
     }
 
     /**
@@ -311,7 +761,7 @@ public class ClientHandler implements Runnable {
             return createErrorMessage("请先登录");
         }
 
-        return shopService.handleRequest(message, currentUser);
+        return services.getShopService().handleRequest(message, currentUser);
     }
 
     /**
@@ -322,31 +772,54 @@ public class ClientHandler implements Runnable {
             return createErrorMessage("请先登录");
         }
 
-        return academicService.handleRequest(message, currentUser);
+        return services.getAcademicService().handleRequest(message, currentUser);
     }
 
     private Message handleFileOperation(Message message) {
         if (!isLoggedIn()) {
             return createErrorMessage("请先登录");
         }
-        return fileService.handleRequest(message, currentUser);
+        return services.getFileService().handleRequest(message, currentUser);
     }
 
     /**
-     * 发送消息给客户端
+     * 发送消息给客户端（线程安全，不阻塞）
+     * 帧协议下在调用线程完成编码，写出由连接的写任务完成；积压超过上限的客户端会被断开
      */
     public boolean sendMessage(Message message) {
-        try {
-            if (outputStream != null && isConnected) {
-                outputStream.writeObject(message);
-                outputStream.flush();
-                return true;
+        if (!isConnected) {
+            return false;
+        }
+        if (nioConnection != null) {
+            return nioConnection.send(message, codec, compression);
+        }
+
+        OutboundQueue queue = outbound;
+        if (queue == null) {
+            return false;
+        }
+
+        Object item = message;
+        int size = 0;
+        if (framed) {
+            try {
+                byte[] frame = MessageFrames.encode(message, codec, compression);
+                item = frame;
+                size = frame.length;
+            } catch (IOException e) {
+                System.err.println("消息编码失败: " + e.getMessage());
+                return false;
             }
-        } catch (IOException e) {
-            System.err.println("发送消息失败: " + e.getMessage());
-            disconnect();
         }
-        return false;
+
+        if (!queue.offer(item, size)) {
+            if (isConnected) {
+                System.err.println("客户端 " + clientId + " 写出积压过多，断开连接");
+                disconnect();
+            }
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -385,6 +858,18 @@ public class ClientHandler implements Runnable {
         return message;
     }
 
+    /**
+     * 创建繁忙消息，请求未被执行，客户端可退避后重试
+     */
+    private Message createBusyMessage(Message request, String errorMsg) {
+        Message message = new Message();
+        message.setType(Message.Type.ERROR);
+        message.setCode(Message.Code.SERVER_BUSY);
+        message.setData(errorMsg);
+        message.setUid(request.getUid());
+        return message;
+    }
+
     /**
      * 断开连接
      */
@@ -392,9 +877,18 @@ public class ClientHandler implements Runnable {
         if (isConnected) {
             isConnected = false;
 
+            if (nioConnection != null) {
+                nioConnection.close();
+            }
+            if (outbound != null) {
+                outbound.close();
+            }
+
             try {
                 if (inputStream != null) inputStream.close();
                 if (outputStream != null) outputStream.close();
+                if (frameInput != null) frameInput.close();
+                if (frameOutput != null) frameOutput.close();
                 if (clientSocket != null && !clientSocket.isClosed()) {
                     clientSocket.close();
                 }
@@ -402,7 +896,12 @@ public class ClientHandler implements Runnable {
                 System.err.println("关闭连接时发生错误: " + e.getMessage());
             }
 
-            // 从服务器中移除此客户端
+            // 从服务器中移除此客户端；会话保留到过期，期间可凭令牌重连
+            server.getSubscriptions().unsubscribeAll(this);
+            SessionStore.Session current = session;
+            if (current != null) {
+                server.getSessions().touch(current);
+            }
             server.removeClient(clientId);
 
             if (currentUser != null) {
@@ -427,4 +926,77 @@ public class ClientHandler implements Runnable {
     public Date getLoginTime() {
         return loginTime;
     }
+
+    /**
+     * 记录收到客户端数据（用于空闲检测）
+     */
+    public void touch() {
+        lastActivityNanos = System.nanoTime();
+    }
+
+    /**
+     * 距最近一次收到客户端数据的毫秒数
+     */
+    public long getIdleMillis() {
+        return (System.nanoTime() - lastActivityNanos) / 1_000_000;
+    }
+
+    /**
+     * 向客户端发送PING以测量时延；旧版协议客户端不支持，返回false
+     */
+    public boolean sendPing() {
+        if (!framed || !isConnected) {
+            return false;
+        }
+        Message ping = new Message(Message.Type.PING, System.nanoTime());
+        ping.setSender("server");
+        return sendMessage(ping);
+    }
+
+    public RttHistogram getRttHistogram() {
+        return rttHistogram;
+    }
+
+    public String getRemoteAddress() {
+        if (nioConnection != null) {
+            return nioConnection.getRemoteAddress();
+        }
+        return clientSocket != null ? String.valueOf(clientSocket.getRemoteSocketAddress()) : "未知";
+    }
+
+    /**
+     * 通知客户端服务器即将停止；旧版ObjectStream客户端按顺序读取响应，不发送
+     */
+    public void notifyDrain(String redirect) {
+        if (framed) {
+            sendMessage(new Message(Message.Type.SERVER_DRAIN, redirect));
+        }
+    }
+
+    /**
+     * 已读取但尚未响应的请求数（帧协议连接）
+     */
+    public int getInFlightCount() {
+        if (nioConnection != null) {
+            return nioConnection.getInFlightCount();
+        }
+        return MAX_IN_FLIGHT - inFlight.availablePermits();
+    }
+
+    /**
+     * 出站队列中尚未写出的消息数
+     */
+    public int getPendingOutboundCount() {
+        if (nioConnection != null) {
+            return nioConnection.getPendingFrames();
+        }
+        return outbound != null ? outbound.getPendingFrames() : 0;
+    }
+
+    /**
+     * 旧版ObjectStream连接输出流句柄表中保留的对象数；帧协议每帧独立序列化，始终为0
+     */
+    public int getRetainedHandleCount() {
+        return outputStream != null ? outputStream.getRetainedHandles() : 0;
+    }
 }
\ No newline at end of file
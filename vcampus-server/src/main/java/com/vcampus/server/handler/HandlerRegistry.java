@@ -0,0 +1,69 @@
+package com.vcampus.server.handler;
+
+import com.vcampus.common.entity.Message;
+import com.vcampus.server.bulkhead.ServiceModule;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 消息处理器注册表
+ * 按消息类型查找处理方法及其所属业务模块；模块为null的处理器（握手、订阅、心跳等）
+ * 开销很小或会改变连接状态，不经过模块隔离舱
+ */
+public final class HandlerRegistry {
+
+    /**
+     * 消息处理方法，在对应的连接处理器上执行
+     */
+    @FunctionalInterface
+    public interface Handler {
+        Message handle(ClientHandler client, Message message);
+    }
+
+    /**
+     * 一个消息类型的处理方式
+     */
+    public static final class Route {
+        private final ServiceModule module;
+        private final Handler handler;
+
+        Route(ServiceModule module, Handler handler) {
+            this.module = module;
+            this.handler = handler;
+        }
+
+        public ServiceModule getModule() { return module; }
+        public Handler getHandler() { return handler; }
+    }
+
+    private final Map<Message.Type, Route> routes = new EnumMap<>(Message.Type.class);
+
+    /**
+     * 注册若干消息类型的处理方法，同一类型不能重复注册
+     */
+    public HandlerRegistry register(ServiceModule module, Handler handler, Message.Type... types) {
+        Route route = new Route(module, handler);
+        for (Message.Type type : types) {
+            if (routes.putIfAbsent(type, route) != null) {
+                throw new IllegalStateException("消息类型重复注册: " + type);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 查找处理方式，未注册的类型返回null
+     */
+    public Route get(Message.Type type) {
+        return type != null ? routes.get(type) : null;
+    }
+
+    /**
+     * 消息类型所属的业务模块，未注册或不属于任何模块时返回null
+     */
+    public ServiceModule moduleOf(Message.Type type) {
+        Route route = get(type);
+        return route != null ? route.module : null;
+    }
+}
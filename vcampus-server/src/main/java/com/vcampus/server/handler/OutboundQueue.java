@@ -0,0 +1,142 @@
+package com.vcampus.server.handler;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 阻塞模式连接的出站队列
+ * 任意线程入队后立即返回；同一时刻只有一个写任务，按顺序写出队列中的全部消息后只flush一次。
+ * 积压超过上限说明客户端读取过慢，由调用方断开连接
+ */
+public class OutboundQueue {
+
+    // 单个连接允许积压的消息数和字节数，可通过系统属性覆盖
+    public static final int MAX_PENDING_FRAMES = Integer.getInteger("vcampus.outbound.maxFrames", 1024);
+    public static final long MAX_PENDING_BYTES = Long.getLong("vcampus.outbound.maxBytes", 8L * 1024 * 1024);
+
+    /**
+     * 实际写出消息的目标，只在写任务中调用
+     */
+    public interface Sink {
+        void write(Object item) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private final Sink sink;
+    private final Executor writer;
+    private final Runnable onError;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private volatile boolean closed = false;
+
+    // 统计信息
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+
+    /**
+     * @param writer  执行写任务的线程池
+     * @param onError 写出失败时调用（通常为断开连接）
+     */
+    public OutboundQueue(Sink sink, Executor writer, Runnable onError) {
+        this.sink = sink;
+        this.writer = writer;
+        this.onError = onError;
+    }
+
+    /**
+     * 入队一条消息，size为其编码后的字节数（未知时为0）
+     * 队列已关闭或积压超过上限时返回false，不会阻塞
+     */
+    public boolean offer(Object item, int size) {
+        if (closed) {
+            return false;
+        }
+        if (pendingFrames.incrementAndGet() > MAX_PENDING_FRAMES
+                || pendingBytes.addAndGet(size) > MAX_PENDING_BYTES) {
+            pendingFrames.decrementAndGet();
+            pendingBytes.addAndGet(-size);
+            return false;
+        }
+
+        queue.add(new Entry(item, size));
+        if (draining.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 服务器关闭中
+                draining.set(false);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 写出队列中的全部消息并flush一次；写出期间新入队的消息由同一任务继续写出
+     */
+    private void drain() {
+        do {
+            try {
+                Entry entry;
+                boolean wrote = false;
+                while (!closed && (entry = queue.poll()) != null) {
+                    pendingFrames.decrementAndGet();
+                    pendingBytes.addAndGet(-entry.size);
+                    sink.write(entry.item);
+                    writtenCount.incrementAndGet();
+                    wrote = true;
+                }
+                if (wrote && !closed) {
+                    sink.flush();
+                    flushCount.incrementAndGet();
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("写出消息失败: " + e.getMessage());
+                }
+                close();
+                onError.run();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // 释放写任务标记后再检查一次，避免与入队线程之间丢失唤醒
+        } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * 关闭队列并丢弃未写出的消息
+     */
+    public void close() {
+        closed = true;
+        queue.clear();
+        pendingFrames.set(0);
+        pendingBytes.set(0);
+    }
+
+    // Getter方法
+    public int getPendingFrames() { return pendingFrames.get(); }
+    public long getPendingBytes() { return pendingBytes.get(); }
+    public long getWrittenCount() { return writtenCount.get(); }
+    public long getFlushCount() { return flushCount.get(); }
+
+    private static final class Entry {
+        final Object item;
+        final int size;
+
+        Entry(Object item, int size) {
+            this.item = item;
+            this.size = size;
+        }
+    }
+}
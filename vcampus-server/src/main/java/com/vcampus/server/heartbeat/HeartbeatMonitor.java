@@ -0,0 +1,103 @@
+package com.vcampus.server.heartbeat;
+
+import com.vcampus.server.handler.ClientHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 连接心跳检测
+ * 定期检查所有连接：空闲超过探测间隔时向帧协议客户端发送PING，由PONG测量往返时延；
+ * 空闲超过超时时间的连接视为已失效，断开并释放其占用的线程和资源
+ */
+public class HeartbeatMonitor {
+
+    // 默认配置（毫秒），可通过系统属性覆盖
+    private static final long CHECK_INTERVAL = Long.getLong("vcampus.heartbeat.checkInterval", 10_000);
+    private static final long PING_INTERVAL = Long.getLong("vcampus.heartbeat.pingInterval", 30_000);
+    private static final long IDLE_TIMEOUT = Long.getLong("vcampus.heartbeat.idleTimeout", 90_000);
+
+    // 状态输出中列出的时延最高的连接数
+    private static final int WORST_CONNECTIONS = 3;
+
+    private final Supplier<Collection<ClientHandler>> clients;
+    private final ScheduledExecutorService timer;
+
+    // 统计信息
+    private final AtomicLong pingCount = new AtomicLong();
+    private final AtomicLong reapedCount = new AtomicLong();
+
+    public HeartbeatMonitor(Supplier<Collection<ClientHandler>> clients) {
+        this.clients = clients;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vcampus-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void start() {
+        timer.scheduleWithFixedDelay(this::check, CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private void check() {
+        try {
+            for (ClientHandler handler : clients.get()) {
+                long idle = handler.getIdleMillis();
+                if (idle >= IDLE_TIMEOUT) {
+                    System.out.println("客户端 " + handler.getClientId() + " 空闲超时（" + idle / 1000 + "秒），断开连接");
+                    reapedCount.incrementAndGet();
+                    handler.disconnect();
+                } else if (idle >= PING_INTERVAL && handler.sendPing()) {
+                    pingCount.incrementAndGet();
+                }
+            }
+        } catch (RuntimeException e) {
+            // 保证定时任务不因单次异常而终止
+            System.err.println("心跳检测失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 全局时延分布以及时延最高的几个连接
+     */
+    public String summary() {
+        RttHistogram total = new RttHistogram();
+        List<ClientHandler> measured = new ArrayList<>();
+        for (ClientHandler handler : clients.get()) {
+            RttHistogram rtt = handler.getRttHistogram();
+            if (rtt.getCount() > 0) {
+                total.merge(rtt);
+                measured.add(handler);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("已探测 ").append(pingCount.get()).append("，超时断开 ").append(reapedCount.get())
+                .append("，时延 ").append(total.summary());
+
+        measured.sort(Comparator.comparingLong(
+                (ClientHandler h) -> h.getRttHistogram().percentileMillis(95)).reversed());
+        for (int i = 0; i < Math.min(WORST_CONNECTIONS, measured.size()); i++) {
+            ClientHandler handler = measured.get(i);
+            sb.append("\n  ").append(handler.getClientId()).append(' ').append(handler.getRemoteAddress())
+                    .append(": ").append(handler.getRttHistogram().summary());
+        }
+        return sb.toString();
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    // Getter方法
+    public long getPingCount() { return pingCount.get(); }
+    public long getReapedCount() { return reapedCount.get(); }
+}
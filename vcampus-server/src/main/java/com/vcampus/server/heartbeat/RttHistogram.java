@@ -0,0 +1,92 @@
+package com.vcampus.server.heartbeat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 往返时延（RTT）直方图
+ * 按毫秒对数分桶计数，记录和读取都不加锁，用于发现网络状况差的连接
+ */
+public class RttHistogram {
+
+    // 各桶上界（毫秒），最后一桶为超过1秒
+    private static final long[] BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    private volatile long lastMicros = -1;
+
+    public void record(long rttNanos) {
+        long micros = Math.max(0, rttNanos / 1000);
+        long millis = micros / 1000;
+        int index = 0;
+        while (index < BOUNDS.length && millis >= BOUNDS[index]) {
+            index++;
+        }
+
+        buckets.incrementAndGet(index);
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+        lastMicros = micros;
+    }
+
+    /**
+     * 合并另一个直方图的计数（用于全局统计）
+     */
+    public void merge(RttHistogram other) {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.addAndGet(i, other.buckets.get(i));
+        }
+        count.addAndGet(other.count.get());
+        totalMicros.addAndGet(other.totalMicros.get());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+    }
+
+    /**
+     * 分位数的估计值（毫秒），取所在桶的上界；没有样本时返回-1
+     */
+    public long percentileMillis(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return -1;
+        }
+
+        long threshold = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= threshold) {
+                return i < BOUNDS.length ? BOUNDS[i] : getMaxMillis();
+            }
+        }
+        return getMaxMillis();
+    }
+
+    public String summary() {
+        long total = count.get();
+        if (total == 0) {
+            return "无样本";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("样本 %d，平均 %.1fms，p50 ≤%dms，p95 ≤%dms，最大 %.1fms [",
+                total, totalMicros.get() / 1000.0 / total, percentileMillis(50), percentileMillis(95),
+                maxMicros.get() / 1000.0));
+        for (int i = 0; i < buckets.length(); i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(i < BOUNDS.length ? "<" + BOUNDS[i] : "≥" + BOUNDS[BOUNDS.length - 1])
+                    .append(':').append(buckets.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    // Getter方法
+    public long getCount() { return count.get(); }
+    public long getMaxMillis() { return maxMicros.get() / 1000; }
+    public double getLastMillis() { return lastMicros < 0 ? -1 : lastMicros / 1000.0; }
+}
@@ -0,0 +1,338 @@
+package com.vcampus.server.nio;
+
+import com.vcampus.common.entity.Message;
+import com.vcampus.common.protocol.FrameCompression;
+import com.vcampus.common.protocol.FrameDecoder;
+import com.vcampus.common.protocol.MessageCodec;
+import com.vcampus.common.protocol.MessageFrames;
+import com.vcampus.server.handler.ClientHandler;
+import com.vcampus.server.handler.OutboundQueue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 非阻塞客户端连接
+ * 读写只在所属的IO线程中进行，业务线程通过send()投递响应。
+ * 请求按与阻塞模式相同的规则执行：同时处理的请求不超过ClientHandler.MAX_IN_FLIGHT，
+ * 握手、登录等改变连接状态的请求单独执行；暂时不能开始的请求留在连接上，此时暂停读取
+ */
+public class NioConnection {
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    // 一次聚集写出的最大帧数
+    private static final int MAX_GATHER = 64;
+
+    private final SocketChannel channel;
+    private final SelectorLoop loop;
+    private final NioServer nioServer;
+    private final String remoteAddress;
+    private SelectionKey key;
+    private ClientHandler handler;
+
+    // 读取状态（仅IO线程访问）
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final FrameDecoder decoder = new FrameDecoder();
+
+    // 待写出的帧：业务线程投递到writeQueue，IO线程移入writing后聚集写出
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>();
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    // 尚未开始的请求和处理中的请求数，以held为锁；有请求等待时不再读取新数据
+    private final ArrayDeque<Message> held = new ArrayDeque<>();
+    private int inFlight;
+    private boolean barrierActive;
+    private volatile boolean readPaused;
+
+    NioConnection(SocketChannel channel, SelectorLoop loop, NioServer nioServer) throws IOException {
+        this.channel = channel;
+        this.loop = loop;
+        this.nioServer = nioServer;
+        this.remoteAddress = String.valueOf(channel.getRemoteAddress());
+    }
+
+    void attach(ClientHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * 注册到事件循环（在IO线程中调用）
+     */
+    void register() {
+        try {
+            key = channel.register(loop.selector(), SelectionKey.OP_READ, this);
+        } catch (IOException e) {
+            System.err.println("注册客户端连接失败: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * 读取数据并拆分出完整帧，交给业务线程池处理
+     */
+    void onReadable() {
+        try {
+            int count = channel.read(readBuffer);
+            if (count < 0) {
+                close();
+                return;
+            }
+
+            readBuffer.flip();
+            byte[] body;
+            while ((body = decoder.decode(readBuffer)) != null) {
+                nioServer.dispatch(this, body);
+            }
+            readBuffer.compact();
+            pauseIfHeld();
+
+        } catch (IOException e) {
+            if (!closed.get()) {
+                System.err.println("客户端 " + getClientId() + " 读取异常: " + e.getMessage());
+            }
+            close();
+        }
+    }
+
+    void onWritable() {
+        flush();
+    }
+
+    /**
+     * 接收一个解码后的请求，按顺序规则开始执行或暂存（在IO线程中调用）
+     */
+    void submit(Message request) {
+        List<Message> ready;
+        synchronized (held) {
+            held.add(request);
+            ready = takeReady();
+        }
+        start(ready);
+    }
+
+    /**
+     * 请求处理完成（在业务线程中调用），开始后续可以执行的请求，暂存的请求全部开始后恢复读取
+     */
+    void finished(Message request) {
+        List<Message> ready;
+        boolean resume;
+        synchronized (held) {
+            inFlight--;
+            if (ClientHandler.isOrderingBarrier(request.getType())) {
+                barrierActive = false;
+            }
+            ready = takeReady();
+            resume = readPaused && held.isEmpty();
+            if (resume) {
+                readPaused = false;
+            }
+        }
+        if (resume) {
+            loop.execute(this::updateInterest);
+        }
+        start(ready);
+    }
+
+    /**
+     * 取出现在可以开始的请求，调用方持有held锁
+     */
+    private List<Message> takeReady() {
+        List<Message> ready = new ArrayList<>();
+        while (!held.isEmpty() && !barrierActive && inFlight < ClientHandler.MAX_IN_FLIGHT) {
+            Message next = held.peek();
+            if (ClientHandler.isOrderingBarrier(next.getType())) {
+                if (inFlight > 0) {
+                    break;
+                }
+                barrierActive = true;
+            }
+            held.poll();
+            inFlight++;
+            ready.add(next);
+        }
+        return ready;
+    }
+
+    private void start(List<Message> ready) {
+        for (Message request : ready) {
+            nioServer.execute(this, request);
+        }
+    }
+
+    /**
+     * 还有请求没能开始时暂停读取，让TCP流量控制限制客户端（在IO线程中调用）
+     */
+    private void pauseIfHeld() {
+        synchronized (held) {
+            if (held.isEmpty()) {
+                return;
+            }
+            readPaused = true;
+        }
+        updateInterest();
+    }
+
+    private void updateInterest() {
+        if (key != null && key.isValid()) {
+            key.interestOps(readInterest() | (writing.isEmpty() ? 0 : SelectionKey.OP_WRITE));
+        }
+    }
+
+    private int readInterest() {
+        return readPaused ? 0 : SelectionKey.OP_READ;
+    }
+
+    /**
+     * 使用指定编码和压缩设置投递一条消息（线程安全），编码在调用线程完成，实际写出由IO线程完成
+     */
+    public boolean send(Message message, MessageCodec codec, FrameCompression compression) {
+        if (closed.get()) {
+            return false;
+        }
+
+        byte[] frame;
+        try {
+            frame = MessageFrames.encode(message, codec, compression);
+        } catch (IOException e) {
+            System.err.println("消息编码失败: " + e.getMessage());
+            return false;
+        }
+
+        // 积压超过上限说明客户端读取过慢，断开连接而不是无限缓存
+        if (pendingFrames.incrementAndGet() > OutboundQueue.MAX_PENDING_FRAMES
+                || pendingBytes.addAndGet(frame.length) > OutboundQueue.MAX_PENDING_BYTES) {
+            System.err.println("客户端 " + getClientId() + " 写出积压过多，断开连接");
+            close();
+            return false;
+        }
+        writeQueue.add(ByteBuffer.wrap(frame));
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flush);
+        }
+        return true;
+    }
+
+    /**
+     * 尽可能写出队列中的数据，多个帧通过一次聚集写出；写不完时关注OP_WRITE事件
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        if (closed.get() || key == null || !key.isValid()) {
+            return;
+        }
+
+        try {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.poll()) != null) {
+                writing.add(buffer);
+            }
+
+            while (!writing.isEmpty()) {
+                ByteBuffer[] batch = new ByteBuffer[Math.min(writing.size(), MAX_GATHER)];
+                int index = 0;
+                for (ByteBuffer b : writing) {
+                    if (index == batch.length) {
+                        break;
+                    }
+                    batch[index++] = b;
+                }
+
+                channel.write(batch);
+                while (!writing.isEmpty() && !writing.peek().hasRemaining()) {
+                    pendingBytes.addAndGet(-writing.poll().capacity());
+                    pendingFrames.decrementAndGet();
+                }
+                if (batch[batch.length - 1].hasRemaining()) {
+                    key.interestOps(readInterest() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            key.interestOps(readInterest());
+
+        } catch (IOException e) {
+            System.err.println("客户端 " + getClientId() + " 写入异常: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * 关闭连接（可重复调用）
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            if (key != null) {
+                key.cancel();
+            }
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("关闭连接时发生错误: " + e.getMessage());
+        }
+
+        writeQueue.clear();
+        synchronized (held) {
+            held.clear();
+        }
+        pendingFrames.set(0);
+        pendingBytes.set(0);
+        if (handler != null) {
+            handler.disconnect();
+        }
+    }
+
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    public int getPendingFrames() {
+        return pendingFrames.get();
+    }
+
+    /**
+     * 已读取但尚未响应的请求数
+     */
+    public int getInFlightCount() {
+        synchronized (held) {
+            return inFlight + held.size();
+        }
+    }
+
+    ClientHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * 处理本连接请求的业务线程池
+     */
+    public ExecutorService getWorkerPool() {
+        return nioServer.getWorkerPool();
+    }
+
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    private String getClientId() {
+        return handler != null ? handler.getClientId() : remoteAddress;
+    }
+}
@@ -0,0 +1,207 @@
+package com.vcampus.server.nio;
+
+import com.vcampus.common.entity.Message;
+import com.vcampus.common.protocol.MessageFrames;
+import com.vcampus.server.VCampusServer;
+import com.vcampus.server.bulkhead.ServiceModule;
+import com.vcampus.server.handler.ClientHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于Selector的非阻塞服务器核心
+ * 少量IO线程负责连接读写和帧拆分，解码后的业务请求交给所属模块的隔离舱，其余消息交给有界业务线程池处理，
+ * 连接数不再与线程数绑定
+ */
+public class NioServer {
+
+    // 默认配置，可通过系统属性覆盖
+    private static final int DEFAULT_IO_THREADS =
+            Integer.getInteger("vcampus.nio.ioThreads", Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int DEFAULT_WORKER_THREADS = Integer.getInteger("vcampus.nio.workers", 32);
+    private static final int DEFAULT_WORKER_QUEUE = Integer.getInteger("vcampus.nio.workQueue", 1000);
+
+    private final VCampusServer server;
+    private final int port;
+    private final SelectorLoop[] loops;
+    private final ThreadPoolExecutor workerPool;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+
+    private ServerSocketChannel serverChannel;
+    private volatile boolean running = false;
+
+    public NioServer(VCampusServer server, int port) throws IOException {
+        this.server = server;
+        this.port = port;
+
+        this.loops = new SelectorLoop[DEFAULT_IO_THREADS];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new SelectorLoop("vcampus-nio-io-" + i);
+        }
+
+        AtomicInteger workerIndex = new AtomicInteger();
+        this.workerPool = new ThreadPoolExecutor(DEFAULT_WORKER_THREADS, DEFAULT_WORKER_THREADS,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(DEFAULT_WORKER_QUEUE),
+                r -> {
+                    Thread t = new Thread(r, "vcampus-nio-worker-" + workerIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * 启动IO线程并在当前线程中接受连接，直到服务器停止
+     */
+    public void serve() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        running = true;
+
+        for (SelectorLoop loop : loops) {
+            loop.start();
+        }
+
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                accept(channel);
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("接受客户端连接时发生错误: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept(SocketChannel channel) throws IOException {
+        SelectorLoop loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+        NioConnection connection = new NioConnection(channel, loop, this);
+
+        String clientId = server.nextClientId();
+        System.out.println("新客户端连接: " + clientId + " 来自 " + connection.getRemoteAddress());
+
+        ClientHandler handler = new ClientHandler(connection, clientId, server);
+        connection.attach(handler);
+        server.addClient(handler);
+
+        loop.execute(connection::register);
+    }
+
+    /**
+     * 在IO线程中解码一个完整帧，心跳直接处理，其余请求按连接的顺序规则交给业务线程池
+     */
+    void dispatch(NioConnection connection, byte[] body) {
+        ClientHandler handler = connection.getHandler();
+        handler.touch();
+
+        Message request;
+        try {
+            request = MessageFrames.decode(body);
+        } catch (IOException e) {
+            System.err.println("消息反序列化失败: " + e.getMessage());
+            handler.sendMessage(Message.error("消息格式错误"));
+            return;
+        }
+
+        System.out.println("收到客户端消息: " + request);
+        // 心跳在IO线程中处理，时延测量不受请求排队影响
+        if (ClientHandler.isHeartbeat(request.getType())) {
+            respond(connection, request);
+            return;
+        }
+        connection.submit(request);
+    }
+
+    /**
+     * 业务请求进入所属模块的隔离舱，其余请求使用业务线程池；完成后通知连接开始后续请求
+     * 模块排队已满时立即返回SERVER_BUSY，不占用公共业务线程等待许可
+     */
+    void execute(NioConnection connection, Message request) {
+        Runnable task = () -> {
+            try {
+                respond(connection, request);
+            } finally {
+                connection.finished(request);
+            }
+        };
+        ServiceModule module = ClientHandler.isOrderingBarrier(request.getType())
+                ? null : ClientHandler.moduleOf(request.getType());
+        try {
+            if (module != null) {
+                server.getBulkheads().get(module).execute(task);
+            } else {
+                workerPool.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            Message busy = Message.error(Message.Code.SERVER_BUSY, ClientHandler.busyText(module));
+            busy.setUid(request.getUid());
+            connection.getHandler().sendMessage(busy);
+            connection.finished(request);
+        }
+    }
+
+    private void respond(NioConnection connection, Message request) {
+        if (!connection.isOpen()) {
+            return;
+        }
+        ClientHandler handler = connection.getHandler();
+        Message response = handler.processMessage(request);
+        if (response != null) {
+            handler.sendMessage(response);
+        }
+    }
+
+    /**
+     * 停止接受新连接，已有连接继续工作
+     */
+    public void closeAcceptor() {
+        running = false;
+
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("关闭服务器通道失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 停止接受连接并关闭所有IO线程
+     */
+    public void stop() {
+        closeAcceptor();
+
+        for (SelectorLoop loop : loops) {
+            loop.shutdown();
+        }
+
+        workerPool.shutdown();
+        try {
+            if (!workerPool.awaitTermination(5, TimeUnit.SECONDS)) {
+                workerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workerPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ExecutorService getWorkerPool() { return workerPool; }
+
+    // Getter方法
+    public int getIoThreadCount() { return loops.length; }
+    public int getWorkerThreadCount() { return workerPool.getMaximumPoolSize(); }
+    public int getActiveWorkerCount() { return workerPool.getActiveCount(); }
+    public int getQueuedTaskCount() { return workerPool.getQueue().size(); }
+}
@@ -0,0 +1,112 @@
+package com.vcampus.server.nio;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * IO事件循环
+ * 每个循环独占一个Selector线程，负责所属连接的读写与帧拆分
+ */
+class SelectorLoop implements Runnable {
+
+    private final String name;
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    SelectorLoop(String name) throws IOException {
+        this.name = name;
+        this.selector = Selector.open();
+    }
+
+    void start() {
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 在事件循环线程中执行任务（线程安全）
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    Selector selector() {
+        return selector;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                runTasks();
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    handleKey(key);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println(name + " 事件循环异常: " + e.getMessage());
+                }
+            }
+        }
+
+        closeAll();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                System.err.println(name + " 执行任务失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (key.isValid() && key.isReadable()) {
+                connection.onReadable();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.onWritable();
+            }
+        } catch (CancelledKeyException e) {
+            connection.close();
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof NioConnection) {
+                ((NioConnection) attachment).close();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println(name + " 关闭Selector失败: " + e.getMessage());
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+}
@@ -0,0 +1,155 @@
+package com.vcampus.server.push;
+
+import com.vcampus.common.entity.Message;
+import com.vcampus.common.protocol.PushTopics;
+import com.vcampus.server.handler.ClientHandler;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 推送订阅注册表
+ * 记录主题与会话的订阅关系，发布时按主题找到订阅者，由推送线程异步投递，
+ * 发布方（业务线程）不等待写出；集群部署时发布的事件同时转发给其他节点
+ */
+public class SubscriptionRegistry {
+
+    /**
+     * 把本节点发布的事件转发到其他节点
+     */
+    @FunctionalInterface
+    public interface Relay {
+        void publish(List<String> topics, String event, Object payload);
+    }
+
+    private static final int PUSH_THREADS = Integer.getInteger("vcampus.push.threads", 4);
+
+    // 主题 -> 订阅的会话
+    private final Map<String, Set<ClientHandler>> subscribers = new ConcurrentHashMap<>();
+
+    // 会话 -> 已订阅的主题（断开时清理）
+    private final Map<ClientHandler, Set<String>> topicsByHandler = new ConcurrentHashMap<>();
+
+    private final ExecutorService pushPool;
+    private volatile Relay relay;
+
+    // 统计信息
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    public SubscriptionRegistry() {
+        AtomicInteger index = new AtomicInteger();
+        this.pushPool = Executors.newFixedThreadPool(PUSH_THREADS, r -> {
+            Thread t = new Thread(r, "vcampus-push-" + index.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 订阅主题，重复订阅无副作用
+     */
+    public void subscribe(ClientHandler handler, String topic) {
+        subscribers.compute(topic, (t, handlers) -> {
+            Set<ClientHandler> result = handlers != null ? handlers : ConcurrentHashMap.newKeySet();
+            result.add(handler);
+            return result;
+        });
+        topicsByHandler.computeIfAbsent(handler, h -> ConcurrentHashMap.newKeySet()).add(topic);
+    }
+
+    /**
+     * 取消订阅主题
+     */
+    public void unsubscribe(ClientHandler handler, String topic) {
+        Set<String> topics = topicsByHandler.get(handler);
+        if (topics != null) {
+            topics.remove(topic);
+        }
+        removeSubscriber(topic, handler);
+    }
+
+    /**
+     * 取消会话的全部订阅（登出或断开时调用）
+     */
+    public void unsubscribeAll(ClientHandler handler) {
+        Set<String> topics = topicsByHandler.remove(handler);
+        if (topics != null) {
+            for (String topic : topics) {
+                removeSubscriber(topic, handler);
+            }
+        }
+    }
+
+    private void removeSubscriber(String topic, ClientHandler handler) {
+        subscribers.computeIfPresent(topic, (t, handlers) -> {
+            handlers.remove(handler);
+            return handlers.isEmpty() ? null : handlers;
+        });
+    }
+
+    /**
+     * 向若干主题发布事件；订阅了其中多个主题的会话只收到一次
+     */
+    public void publish(List<String> topics, String event, Object payload) {
+        Relay current = relay;
+        if (current != null) {
+            current.publish(topics, event, payload);
+        }
+        deliverLocal(topics, event, payload);
+    }
+
+    /**
+     * 只推送给本节点的订阅者（其他节点转发来的事件）
+     */
+    public void deliverLocal(List<String> topics, String event, Object payload) {
+        Set<ClientHandler> targets = new LinkedHashSet<>();
+        for (String topic : topics) {
+            Set<ClientHandler> handlers = subscribers.get(topic);
+            if (handlers != null) {
+                targets.addAll(handlers);
+            }
+        }
+
+        publishedCount.incrementAndGet();
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        Message push = PushTopics.push(topics, event, payload);
+        for (ClientHandler handler : targets) {
+            try {
+                pushPool.execute(() -> {
+                    if (handler.isConnected() && handler.sendMessage(push)) {
+                        deliveredCount.incrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // 服务器关闭中，放弃推送
+                return;
+            }
+        }
+    }
+
+    public void publish(String topic, String event, Object payload) {
+        publish(Collections.singletonList(topic), event, payload);
+    }
+
+    public void setRelay(Relay relay) {
+        this.relay = relay;
+    }
+
+    public void shutdown() {
+        pushPool.shutdownNow();
+        subscribers.clear();
+        topicsByHandler.clear();
+    }
+
+    // Getter方法
+    public int getTopicCount() { return subscribers.size(); }
+    public int getSubscriberCount() { return topicsByHandler.size(); }
+    public long getPublishedCount() { return publishedCount.get(); }
+    public long getDeliveredCount() { return deliveredCount.get(); }
+}
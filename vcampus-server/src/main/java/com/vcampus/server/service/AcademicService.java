@@ -2,11 +2,14 @@ package com.vcampus.server.service;
 
 import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
+import com.vcampus.common.protocol.PushTopics;
 import com.vcampus.common.util.DatabaseHelper;
+import com.vcampus.server.push.SubscriptionRegistry;
 
 import java.sql.*;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +20,17 @@ import java.util.Map;
  */
 public class AcademicService {
 
+    // 推送订阅（为null时不推送）
+    private final SubscriptionRegistry subscriptions;
+
+    public AcademicService() {
+        this(null);
+    }
+
+    public AcademicService(SubscriptionRegistry subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
     /**
      * 处理教务系统相关请求
      */
@@ -241,6 +255,10 @@ public class AcademicService {
                 ResultSet generatedKeys = stmt.getGeneratedKeys();
                 if (generatedKeys.next()) {
                     int newId = generatedKeys.getInt(1);
+                    if (Boolean.TRUE.equals(announcementData.getOrDefault("isPublished", true))) {
+                        publishAnnouncement(newId, announcementData, currentUser);
+                    }
+
                     Map<String, Object> responseData = new HashMap<>();
                     responseData.put("id", newId);
                     responseData.put("message", "公告发布成功");
@@ -624,6 +642,7 @@ public class AcademicService {
 
             int result = stmt.executeUpdate();
             if (result > 0) {
+                publishApplicationStatus(conn, applicationId, status, reviewComment);
                 return Message.success("申请" + status);
             } else {
                 return Message.error("申请不存在");
@@ -637,6 +656,59 @@ public class AcademicService {
         }
     }
 
+    /**
+     * 向公告分类和受众主题推送新公告，数据格式与公告列表项一致
+     */
+    private void publishAnnouncement(int id, Map<String, Object> announcementData, User author) {
+        if (subscriptions == null) {
+            return;
+        }
+
+        String content = (String) announcementData.get("content");
+        Map<String, Object> announcement = new HashMap<>();
+        announcement.put("id", id);
+        announcement.put("title", announcementData.get("title"));
+        announcement.put("category", announcementData.get("category"));
+        announcement.put("priority", announcementData.get("priority"));
+        announcement.put("authorId", author.getUserId());
+        announcement.put("targetAudience", announcementData.get("targetAudience"));
+        announcement.put("publishDate", new Timestamp(System.currentTimeMillis()));
+        announcement.put("viewCount", 0);
+        announcement.put("summary", content != null && content.length() > 200 ? content.substring(0, 200) : content);
+
+        subscriptions.publish(Arrays.asList(
+                PushTopics.announcementCategory((String) announcementData.get("category")),
+                PushTopics.announcementAudience((String) announcementData.get("targetAudience"))),
+                PushTopics.EVENT_ANNOUNCEMENT_ADDED, announcement);
+    }
+
+    /**
+     * 向申请人的收件箱推送审批结果
+     */
+    private void publishApplicationStatus(Connection conn, int applicationId, String status, String reviewComment)
+            throws SQLException {
+        if (subscriptions == null) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT applicant_id, application_no, title FROM tbl_application WHERE id = ?")) {
+            stmt.setInt(1, applicationId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Map<String, Object> change = new HashMap<>();
+                    change.put("applicationId", applicationId);
+                    change.put("applicationNo", rs.getString("application_no"));
+                    change.put("title", rs.getString("title"));
+                    change.put("status", status);
+                    change.put("reviewComment", reviewComment);
+                    subscriptions.publish(PushTopics.inbox(rs.getString("applicant_id")),
+                            PushTopics.EVENT_APPLICATION_STATUS, change);
+                }
+            }
+        }
+    }
+
     /**
      * 创建申请流程
      */
@@ -644,24 +716,17 @@ public class AcademicService {
             throws SQLException {
         List<String> steps = getFlowStepsByType(applicationType);
 
-        PreparedStatement stmt = null;
-        try {
-            String sql = "INSERT INTO tbl_application_flow (application_id, step_order, step_name, status) " +
-                    "VALUES (?, ?, ?, ?)";
-            stmt = conn.prepareStatement(sql);
-
-            for (int i = 0; i < steps.size(); i++) {
-                stmt.setInt(1, applicationId);
-                stmt.setInt(2, i + 1);
-                stmt.setString(3, steps.get(i));
-                stmt.setString(4, i == 0 ? "处理中" : "待处理");
-                stmt.addBatch();
-            }
-
-            stmt.executeBatch();
-        } finally {
-            if (stmt != null) stmt.close();
-        }
+        // 在申请所在的事务中一次写入全部步骤，步骤按列表顺序绑定
+        String sql = "INSERT INTO tbl_application_flow (application_id, step_order, step_name, status) " +
+                "VALUES (?, ?, ?, ?)";
+        int[] order = {0};
+        DatabaseHelper.batchUpdate(conn, sql, steps, (stmt, step) -> {
+            order[0]++;
+            stmt.setInt(1, applicationId);
+            stmt.setInt(2, order[0]);
+            stmt.setString(3, step);
+            stmt.setString(4, order[0] == 1 ? "处理中" : "待处理");
+        });
     }
 
     /**
@@ -61,7 +61,7 @@ public class AnnouncementService {
             int page = params != null && params.get("page") != null ? (Integer) params.get("page") : 1;
             int pageSize = params != null && params.get("pageSize") != null ? (Integer) params.get("pageSize") : 10;
 
-            conn = DatabaseHelper.getConnection();
+            conn = DatabaseHelper.getReadConnection();
 
             // 构建查询SQL
             StringBuilder sqlBuilder = new StringBuilder();
@@ -335,7 +335,7 @@ public class AnnouncementService {
         ResultSet rs = null;
 
         try {
-            conn = DatabaseHelper.getConnection();
+            conn = DatabaseHelper.getReadConnection();
             StringBuilder sqlBuilder = new StringBuilder();
             sqlBuilder.append("SELECT COUNT(*) FROM tbl_announcement WHERE is_published = 1 ");
 
@@ -2,7 +2,9 @@ package com.vcampus.server.service;
 
 import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
+import com.vcampus.common.protocol.PushTopics;
 import com.vcampus.common.util.DatabaseHelper;
+import com.vcampus.server.push.SubscriptionRegistry;
 
 import java.sql.*;
 import java.text.SimpleDateFormat;
@@ -17,6 +19,17 @@ import java.util.Map;
  */
 public class ApplicationService {
 
+    // 推送订阅（为null时不推送）
+    private final SubscriptionRegistry subscriptions;
+
+    public ApplicationService() {
+        this(null);
+    }
+
+    public ApplicationService(SubscriptionRegistry subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
     /**
      * 处理申请管理相关请求
      */
@@ -432,24 +445,17 @@ public class ApplicationService {
         // 根据申请类型创建不同的流程步骤
         List<String> steps = getFlowStepsByType(applicationType);
 
-        PreparedStatement stmt = null;
-        try {
-            String sql = "INSERT INTO tbl_application_flow (application_id, step_order, step_name, status) " +
-                    "VALUES (?, ?, ?, ?)";
-            stmt = conn.prepareStatement(sql);
-
-            for (int i = 0; i < steps.size(); i++) {
-                stmt.setInt(1, applicationId);
-                stmt.setInt(2, i + 1);
-                stmt.setString(3, steps.get(i));
-                stmt.setString(4, i == 0 ? "处理中" : "待处理");
-                stmt.addBatch();
-            }
-
-            stmt.executeBatch();
-        } finally {
-            if (stmt != null) stmt.close();
-        }
+        // 在申请所在的事务中一次写入全部步骤，步骤按列表顺序绑定
+        String sql = "INSERT INTO tbl_application_flow (application_id, step_order, step_name, status) " +
+                "VALUES (?, ?, ?, ?)";
+        int[] order = {0};
+        DatabaseHelper.batchUpdate(conn, sql, steps, (stmt, step) -> {
+            order[0]++;
+            stmt.setInt(1, applicationId);
+            stmt.setInt(2, order[0]);
+            stmt.setString(3, step);
+            stmt.setString(4, order[0] == 1 ? "处理中" : "待处理");
+        });
     }
 
     /**
@@ -573,6 +579,16 @@ public class ApplicationService {
                 insertStmt.setInt(5, applicationId);
                 insertStmt.executeUpdate();
                 insertStmt.close();
+
+                // 在线的申请人立即收到推送
+                if (subscriptions != null) {
+                    Map<String, Object> change = new HashMap<>();
+                    change.put("applicationId", applicationId);
+                    change.put("title", applicationTitle);
+                    change.put("status", status);
+                    change.put("reviewComment", reviewComment);
+                    subscriptions.publish(PushTopics.inbox(applicantId), PushTopics.EVENT_APPLICATION_STATUS, change);
+                }
             }
 
         } catch (SQLException e) {
@@ -2,8 +2,17 @@ package com.vcampus.server.service;
 
 import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
+import com.vcampus.common.protocol.FileTransfers;
 import com.vcampus.common.util.DatabaseHelper;
-
+import com.vcampus.server.transfer.FileTransferServer;
+import com.vcampus.server.transfer.UploadSession;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -16,6 +25,20 @@ import java.util.Map;
  */
 public class FileService {
 
+    // 相对路径文件的存储根目录
+    private static final Path FILES_ROOT = Paths.get(System.getProperty("vcampus.files.root", "files"));
+
+    // 文件内容的传输通道，为null时下载只返回文件信息
+    private final FileTransferServer transfers;
+
+    public FileService() {
+        this(null);
+    }
+
+    public FileService(FileTransferServer transfers) {
+        this.transfers = transfers;
+    }
+
     /**
      * 处理文件管理相关请求
      */
@@ -55,7 +78,7 @@ public class FileService {
             Map<String, Object> params = (Map<String, Object>) message.getData();
             String category = params != null ? (String) params.get("category") : null;
 
-            conn = DatabaseHelper.getConnection();
+            conn = DatabaseHelper.getReadConnection();
 
             StringBuilder sqlBuilder = new StringBuilder();
             sqlBuilder.append("SELECT id, file_name, original_name, file_path, file_size, ")
@@ -120,6 +143,96 @@ public class FileService {
             return Message.error("文件数据不能为空");
         }
 
+        // 带会话ID为内容上传完毕后的登记，带SHA-256为创建上传会话；文件记录只由服务器校验过的上传生成
+        if (fileData.get(FileTransfers.KEY_UPLOAD_ID) instanceof String) {
+            return handleCommitUpload(fileData, currentUser);
+        }
+        if (fileData.get(FileTransfers.KEY_SHA256) instanceof String) {
+            return handleBeginUpload(fileData, currentUser);
+        }
+        return Message.error("请通过文件传输通道上传文件内容");
+    }
+
+    /**
+     * 创建上传会话，返回会话ID、传输端口、块大小和已确认的偏移（续传时大于0）
+     */
+    private Message handleBeginUpload(Map<String, Object> fileData, User currentUser) {
+        if (transfers == null || !transfers.isRunning()) {
+            return Message.error("服务器未开启文件传输通道");
+        }
+
+        String originalName = (String) fileData.get("originalName");
+        Object fileSize = fileData.get("fileSize");
+        String sha256 = (String) fileData.get(FileTransfers.KEY_SHA256);
+        if (originalName == null || originalName.isBlank() || !(fileSize instanceof Number) || sha256.length() != 64) {
+            return Message.error("上传文件信息不完整");
+        }
+
+        try {
+            String fileName = Paths.get(originalName).getFileName().toString();
+            UploadSession session = transfers.openUpload(currentUser.getUserId(), fileName,
+                    ((Number) fileSize).longValue(), sha256);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put(FileTransfers.KEY_UPLOAD_ID, session.getId());
+            result.put(FileTransfers.KEY_PORT, transfers.getPort());
+            result.put(FileTransfers.KEY_CHUNK_SIZE, transfers.getUploadChunkSize());
+            result.put(FileTransfers.KEY_OFFSET, session.getAcknowledged());
+            return Message.success(result);
+        } catch (IOException e) {
+            System.err.println("创建上传会话失败: " + e.getMessage());
+            return Message.error("创建上传会话失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 内容已上传并通过校验：暂存文件移入存储目录，再写入文件记录
+     */
+    private Message handleCommitUpload(Map<String, Object> fileData, User currentUser) {
+        if (transfers == null) {
+            return Message.error("服务器未开启文件传输通道");
+        }
+
+        UploadSession session = transfers.takeCompletedUpload(
+                (String) fileData.get(FileTransfers.KEY_UPLOAD_ID), currentUser.getUserId());
+        if (session == null) {
+            return Message.error("上传未完成或已失效");
+        }
+
+        String originalName = session.getFileName();
+        int dot = originalName.lastIndexOf('.');
+        String storedName = session.getId() + (dot > 0 ? originalName.substring(dot) : "");
+        Path target = FILES_ROOT.resolve(storedName);
+
+        try {
+            Files.createDirectories(FILES_ROOT);
+            Files.move(session.getSpoolFile(), target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("保存上传文件失败: " + e.getMessage());
+            return Message.error("保存上传文件失败");
+        }
+
+        Map<String, Object> record = new HashMap<>(fileData);
+        record.put("fileName", storedName);
+        record.put("originalName", originalName);
+        record.put("filePath", storedName);
+        record.put("fileSize", session.getSize());
+
+        Message result = insertFile(record, currentUser);
+        if (result.getCode() != Message.Code.SUCCESS) {
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException e) {
+                System.err.println("清理上传文件失败: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 写入文件记录
+     */
+    private Message insertFile(Map<String, Object> fileData, User currentUser) {
         Connection conn = null;
         PreparedStatement stmt = null;
 
@@ -240,6 +353,22 @@ public class FileService {
                 fileInfo.put("category", rs.getString("category"));
                 fileInfo.put("description", rs.getString("description"));
 
+                // 登记传输令牌，客户端凭令牌从传输端口获取文件内容
+                if (transfers != null && transfers.isRunning()) {
+                    Path file = resolve(rs.getString("file_path"));
+                    if (file == null || !Files.isRegularFile(file)) {
+                        return Message.error("文件内容不存在");
+                    }
+                    try {
+                        fileInfo.put(FileTransfers.KEY_TOKEN, transfers.register(file));
+                        fileInfo.put(FileTransfers.KEY_PORT, transfers.getPort());
+                        fileInfo.put(FileTransfers.KEY_SIZE, Files.size(file));
+                    } catch (IOException e) {
+                        System.err.println("读取文件失败: " + e.getMessage());
+                        return Message.error("读取文件失败");
+                    }
+                }
+
                 return Message.success(fileInfo);
             } else {
                 return Message.error("文件不存在");
@@ -253,6 +382,26 @@ public class FileService {
         }
     }
 
+    /**
+     * 解析文件存储路径，相对于存储根目录；绝对路径或指向根目录之外的路径返回null
+     */
+    private Path resolve(String filePath) {
+        if (filePath == null || filePath.isEmpty()) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(filePath);
+            if (path.isAbsolute()) {
+                return null;
+            }
+            Path root = FILES_ROOT.toAbsolutePath().normalize();
+            Path file = root.resolve(path).normalize();
+            return file.startsWith(root) && !file.equals(root) ? file : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
     /**
      * 获取文件统计信息
      */
@@ -262,7 +411,7 @@ public class FileService {
         ResultSet rs = null;
 
         try {
-            conn = DatabaseHelper.getConnection();
+            conn = DatabaseHelper.getReadConnection();
 
             String sql = "SELECT COUNT(*) as file_count, SUM(file_size) as total_size " +
                     "FROM tbl_files WHERE is_active = 1";
@@ -5,14 +5,12 @@ import com.vcampus.common.entity.BorrowRecord;
 import com.vcampus.common.entity.Message;
 import com.vcampus.common.entity.User;
 import com.vcampus.common.util.DatabaseHelper;
-import com.vcampus.common.entity.Message;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -51,21 +49,13 @@ public class LibraryService {
 
     private Message handleBookSearch(Message message) {
         String query = (String) message.getData();
-        List<Book> books = new ArrayList<>();
         String sql = "SELECT * FROM tbl_book WHERE title LIKE ? OR author LIKE ?";
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, "%" + query + "%");
-            ps.setString(2, "%" + query + "%");
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    books.add(extractBookFromResultSet(rs));
-                }
-            }
+        try {
+            return Message.success(DatabaseHelper.query(sql, this::extractBookFromResultSet,
+                    "%" + query + "%", "%" + query + "%"));
         } catch (SQLException e) {
             return Message.error("数据库查询失败: " + e.getMessage());
         }
-        return Message.success(books);
     }
 
     private Message handleBookBorrow(Message message, User currentUser) {
@@ -153,24 +143,11 @@ public class LibraryService {
 
     private Message handleBookList() {
         System.out.println("服务器正在处理 BOOK_LIST 请求...");
-        List<Book> books = new ArrayList<>();
+        List<Book> books;
         String sql = "SELECT * FROM tbl_book";
 
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-
-            System.out.println("成功连接数据库并执行查询。");
-            while (rs.next()) {
-                Book book = new Book();
-                book.setBookId(rs.getString("bookId"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setStatus(rs.getString("status"));
-                book.setStock(rs.getInt("stock"));
-                books.add(book);
-            }
+        try {
+            books = DatabaseHelper.query(sql, this::extractBookFromResultSet);
             System.out.println("已获取 " + books.size() + " 本图书数据。");
         } catch (SQLException e) {
             System.err.println("数据库操作失败！错误信息：" + e.getMessage());
@@ -279,19 +256,12 @@ public class LibraryService {
     }
 
     private Message handleBorrowRecordList(User currentUser) {
-        List<BorrowRecord> records = new ArrayList<>();
         String sql = "SELECT * FROM tbl_borrow_record WHERE userId = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, currentUser.getUserId());
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    records.add(extractBorrowRecordFromResultSet(rs));
-                }
-            }
+        try {
+            return Message.success(DatabaseHelper.query(sql, this::extractBorrowRecordFromResultSet,
+                    currentUser.getUserId()));
         } catch (SQLException e) {
             return Message.error("数据库查询失败: " + e.getMessage());
         }
-        return Message.success(records);
     }
 }
\ No newline at end of file
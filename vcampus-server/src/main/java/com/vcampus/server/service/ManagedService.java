@@ -0,0 +1,14 @@
+package com.vcampus.server.service;
+
+/**
+ * 需要生命周期管理的服务
+ * 服务容器启动时调用start建立缓存、线程池等长期资源，服务器停止时按相反顺序调用stop释放
+ */
+public interface ManagedService {
+
+    default void start() throws Exception {
+    }
+
+    default void stop() {
+    }
+}
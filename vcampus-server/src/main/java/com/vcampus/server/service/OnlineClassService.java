@@ -12,20 +12,19 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * 在线课堂服务类
+ * 无状态，可在多个连接间共享；当前用户由调用方逐次传入
+ */
 public class OnlineClassService {
-    private User currentUser;
-
-    public OnlineClassService(User user) {
-        this.currentUser = user;
-    }
 
     // 获取用户当天的提醒
-    public List<Reminder> getTodayReminders() throws SQLException {
+    public List<Reminder> getTodayReminders(User user) throws SQLException {
         List<Reminder> reminders = new ArrayList<>();
         String sql = "SELECT content FROM tbl_reminder WHERE user_id = ? AND reminder_date = CURDATE()";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 reminders.add(new Reminder(rs.getString("content")));
@@ -35,13 +34,13 @@ public class OnlineClassService {
     }
 
     // 获取某个月份有提醒的日期列表
-    public List<Integer> getMonthReminders(int year, int month) throws SQLException {
+    public List<Integer> getMonthReminders(User user, int year, int month) throws SQLException {
         List<Integer> daysWithReminders = new ArrayList<>();
         String sql = "SELECT DAY(reminder_date) as day FROM tbl_reminder " +
                 "WHERE user_id = ? AND YEAR(reminder_date) = ? AND MONTH(reminder_date) = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             stmt.setInt(2, year);
             stmt.setInt(3, month);
             ResultSet rs = stmt.executeQuery();
@@ -53,13 +52,13 @@ public class OnlineClassService {
     }
 
     // 获取某一天的提醒
-    public List<Reminder> getDayReminders(int year, int month, int day) throws SQLException {
+    public List<Reminder> getDayReminders(User user, int year, int month, int day) throws SQLException {
         List<Reminder> reminders = new ArrayList<>();
         String sql = "SELECT content FROM tbl_reminder WHERE user_id = ? " +
                 "AND YEAR(reminder_date) = ? AND MONTH(reminder_date) = ? AND DAY(reminder_date) = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             stmt.setInt(2, year);
             stmt.setInt(3, month);
             stmt.setInt(4, day);
@@ -72,23 +71,23 @@ public class OnlineClassService {
     }
 
     // 获取学生的课程列表
-    public List<Course> getStudentCourses() throws SQLException {
+    public List<Course> getStudentCourses(User user) throws SQLException {
         List<Course> courses = new ArrayList<>();
         String sql = "SELECT c.* FROM tbl_course c " +
                 "JOIN tbl_student_course sc ON c.course_id = sc.course_id " +
                 "WHERE sc.student_id = ? AND c.is_online = 1";
 
 
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             ResultSet rs = stmt.executeQuery();
 
         }
 
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 // 计算课程状态
@@ -119,7 +118,7 @@ public class OnlineClassService {
     }
 
     // 搜索课程
-    public List<Course> searchCourses(String keyword, String filter) throws SQLException {
+    public List<Course> searchCourses(User user, String keyword, String filter) throws SQLException {
         List<Course> courses = new ArrayList<>();
         String sql = "SELECT c.* FROM tbl_course c " +
                 "JOIN tbl_student_course sc ON c.course_id = sc.course_id " +
@@ -142,10 +141,10 @@ public class OnlineClassService {
             }
         }
 
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             int paramIndex = 1;
-            stmt.setString(paramIndex++, currentUser.getUserId());
+            stmt.setString(paramIndex++, user.getUserId());
 
             // 设置搜索参数
             if (keyword != null && !keyword.isEmpty()) {
@@ -194,7 +193,7 @@ public class OnlineClassService {
     // 获取教师姓名
     private String getTeacherName(String teacherId) throws SQLException {
         String sql = "SELECT real_name FROM tbl_user WHERE user_id = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, teacherId);
             ResultSet rs = stmt.executeQuery();
@@ -206,7 +205,7 @@ public class OnlineClassService {
     }
 
     // 获取课程统计信息
-    public CourseStats getCourseStats() throws SQLException {
+    public CourseStats getCourseStats(User user) throws SQLException {
         CourseStats stats = new CourseStats();
         String sql = "SELECT COUNT(*) as total, " +
                 "SUM(CASE WHEN c.start_date > CURDATE() THEN 1 ELSE 0 END) as notStarted, " +
@@ -215,9 +214,9 @@ public class OnlineClassService {
                 "FROM tbl_course c " +
                 "JOIN tbl_student_course sc ON c.course_id = sc.course_id " +
                 "WHERE sc.student_id = ? AND c.is_online = 1";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 stats.total = rs.getInt("total");
@@ -234,7 +233,7 @@ public class OnlineClassService {
         List<CoursePlayback> playbacks = new ArrayList<>();
         String sql = "SELECT playback_date, title, duration FROM tbl_course_playback " +
                 "WHERE course_id = (SELECT course_id FROM tbl_course WHERE course_name = ?)";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, courseName);
             ResultSet rs = stmt.executeQuery();
@@ -255,7 +254,7 @@ public class OnlineClassService {
         List<CourseMaterial> materials = new ArrayList<>();
         String sql = "SELECT material_name, type, size, upload_date FROM tbl_course_material " +
                 "WHERE course_id = (SELECT course_id FROM tbl_course WHERE course_name = ?)";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, courseName);
             ResultSet rs = stmt.executeQuery();
@@ -273,16 +272,16 @@ public class OnlineClassService {
     }
 
     // 获取学生作业列表
-    public List<Assignment> getStudentAssignments() throws SQLException {
+    public List<Assignment> getStudentAssignments(User user) throws SQLException {
         List<Assignment> assignments = new ArrayList<>();
         String sql = "SELECT a.assignment_name, c.course_name, a.assign_date, a.due_date, sa.status, sa.priority " +
                 "FROM tbl_assignment a " +
                 "JOIN tbl_course c ON a.course_id = c.course_id " +
                 "JOIN tbl_student_assignment sa ON a.assignment_id = sa.assignment_id " +
                 "WHERE sa.student_id = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 Assignment assignment = new Assignment(
@@ -300,7 +299,7 @@ public class OnlineClassService {
     }
 
     // 搜索作业
-    public List<Assignment> searchAssignments(String keyword, String filter) throws SQLException {
+    public List<Assignment> searchAssignments(User user, String keyword, String filter) throws SQLException {
         List<Assignment> assignments = new ArrayList<>();
         String sql = "SELECT a.assignment_name, c.course_name, a.assign_date, a.due_date, sa.status, sa.priority " +
                 "FROM tbl_assignment a " +
@@ -324,10 +323,10 @@ public class OnlineClassService {
             }
         }
 
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             int paramIndex = 1;
-            stmt.setString(paramIndex++, currentUser.getUserId());
+            stmt.setString(paramIndex++, user.getUserId());
 
             // 设置搜索参数
             if (keyword != null && !keyword.isEmpty()) {
@@ -353,7 +352,7 @@ public class OnlineClassService {
     }
 
     // 获取作业统计信息
-    public AssignmentStats getAssignmentStats() throws SQLException {
+    public AssignmentStats getAssignmentStats(User user) throws SQLException {
         AssignmentStats stats = new AssignmentStats();
         String sql = "SELECT COUNT(*) as total, " +
                 "SUM(CASE WHEN sa.status = '已提交' THEN 1 ELSE 0 END) as submitted, " +
@@ -361,9 +360,9 @@ public class OnlineClassService {
                 "SUM(CASE WHEN sa.priority = '紧急' THEN 1 ELSE 0 END) as urgent " +
                 "FROM tbl_student_assignment sa " +
                 "WHERE sa.student_id = ?";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 stats.total = rs.getInt("total");
@@ -376,27 +375,27 @@ public class OnlineClassService {
     }
 
     // 提交作业
-    public boolean submitAssignment(String assignmentName, String filePath) throws SQLException {
+    public boolean submitAssignment(User user, String assignmentName, String filePath) throws SQLException {
         String sql = "UPDATE tbl_student_assignment SET status = '已提交', submit_time = NOW(), file_path = ? " +
                 "WHERE student_id = ? AND assignment_id = " +
                 "(SELECT assignment_id FROM tbl_assignment WHERE assignment_name = ?)";
         try (Connection conn = DatabaseHelper.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, filePath);
-            stmt.setString(2, currentUser.getUserId());
+            stmt.setString(2, user.getUserId());
             stmt.setString(3, assignmentName);
             return stmt.executeUpdate() > 0;
         }
     }
 
     // 获取最近活动
-    public List<String> getRecentActivities() throws SQLException {
+    public List<String> getRecentActivities(User user) throws SQLException {
         List<String> activities = new ArrayList<>();
         String sql = "SELECT activity_content, activity_time FROM tbl_recent_activity " +
                 "WHERE user_id = ? ORDER BY activity_time DESC LIMIT 5";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 Timestamp time = rs.getTimestamp("activity_time");
@@ -408,11 +407,11 @@ public class OnlineClassService {
     }
 
     // 添加提醒
-    public boolean addReminder(String content, Date date) throws SQLException {
+    public boolean addReminder(User user, String content, Date date) throws SQLException {
         String sql = "INSERT INTO tbl_reminder (user_id, content, reminder_date) VALUES (?, ?, ?)";
         try (Connection conn = DatabaseHelper.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, currentUser.getUserId());
+            stmt.setString(1, user.getUserId());
             stmt.setString(2, content);
             stmt.setDate(3, new java.sql.Date(date.getTime()));
             return stmt.executeUpdate() > 0;
@@ -426,7 +425,7 @@ public class OnlineClassService {
                 "JOIN tbl_user u ON d.user_id = u.user_id " +
                 "WHERE d.course_id = (SELECT course_id FROM tbl_course WHERE course_name = ?) " +
                 "ORDER BY d.post_time DESC";
-        try (Connection conn = DatabaseHelper.getConnection();
+        try (Connection conn = DatabaseHelper.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, courseName);
             ResultSet rs = stmt.executeQuery();
@@ -442,13 +441,13 @@ public class OnlineClassService {
     }
 
     // 发表讨论
-    public boolean postDiscussion(String courseName, String content) throws SQLException {
+    public boolean postDiscussion(User user, String courseName, String content) throws SQLException {
         String sql = "INSERT INTO tbl_discussion (course_id, user_id, content, post_time) " +
                 "VALUES ((SELECT course_id FROM tbl_course WHERE course_name = ?), ?, ?, NOW())";
         try (Connection conn = DatabaseHelper.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, courseName);
-            stmt.setString(2, currentUser.getUserId());
+            stmt.setString(2, user.getUserId());
             stmt.setString(3, content);
             return stmt.executeUpdate() > 0;
         }
@@ -0,0 +1,93 @@
+package com.vcampus.server.service;
+
+import com.vcampus.server.push.SubscriptionRegistry;
+import com.vcampus.server.transfer.FileTransferServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 服务容器
+ * 全服务器共享同一组业务服务实例；服务本身不保存请求相关的状态，当前用户等信息由调用方逐次传入，
+ * 因此可被所有连接并发使用；持有跨连接的缓存和线程池的服务实现ManagedService，
+ * 由服务器启动时start、排空请求后stop
+ */
+public class ServiceContainer {
+
+    private final UserService userService;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final LibraryService libraryService;
+    private final ShopService shopService;
+    private final AcademicService academicService;
+    private final FileService fileService;
+
+    // 按创建顺序排列的所有服务
+    private final List<Object> services = new ArrayList<>();
+    private final List<ManagedService> started = new ArrayList<>();
+    private boolean running = false;
+
+    public ServiceContainer(SubscriptionRegistry subscriptions, FileTransferServer fileTransfer) {
+        this.userService = add(new UserService());
+        this.studentService = add(new StudentService());
+        this.courseService = add(new CourseService());
+        this.libraryService = add(new LibraryService());
+        this.shopService = add(new ShopService());
+        this.academicService = add(new AcademicService(subscriptions));
+        this.fileService = add(new FileService(fileTransfer));
+    }
+
+    private <T> T add(T service) {
+        services.add(service);
+        return service;
+    }
+
+    /**
+     * 依次启动需要生命周期管理的服务，任一服务启动失败时停止已启动的服务
+     */
+    public synchronized void start() throws Exception {
+        if (running) {
+            return;
+        }
+        for (Object service : services) {
+            if (service instanceof ManagedService) {
+                ManagedService managed = (ManagedService) service;
+                try {
+                    managed.start();
+                } catch (Exception e) {
+                    System.err.println("启动服务失败: " + service.getClass().getSimpleName() + " - " + e.getMessage());
+                    stop();
+                    throw e;
+                }
+                started.add(managed);
+            }
+        }
+        running = true;
+    }
+
+    /**
+     * 按启动的相反顺序停止服务
+     */
+    public synchronized void stop() {
+        for (int i = started.size() - 1; i >= 0; i--) {
+            ManagedService managed = started.get(i);
+            try {
+                managed.stop();
+            } catch (RuntimeException e) {
+                System.err.println("停止服务失败: " + managed.getClass().getSimpleName() + " - " + e.getMessage());
+            }
+        }
+        started.clear();
+        running = false;
+    }
+
+    // Getter方法
+    public UserService getUserService() { return userService; }
+    public StudentService getStudentService() { return studentService; }
+    public CourseService getCourseService() { return courseService; }
+    public LibraryService getLibraryService() { return libraryService; }
+    public ShopService getShopService() { return shopService; }
+    public AcademicService getAcademicService() { return academicService; }
+    public FileService getFileService() { return fileService; }
+    public synchronized boolean isRunning() { return running; }
+}
@@ -6,6 +6,7 @@ import com.vcampus.common.util.DatabaseHelper;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 用户管理服务类
@@ -13,6 +14,10 @@ import java.util.List;
  */
 public class UserService {
 
+    private static final String INSERT_USER_SQL = "INSERT INTO tbl_user (user_id, password, real_name, role, gender, age, " +
+            "email, phone, department, class_name, major, create_time, is_active) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), 1)";
+
     /**
      * 用户登录验证
      */
@@ -63,22 +68,8 @@ public class UserService {
 
         try {
             conn = DatabaseHelper.getConnection();
-            String sql = "INSERT INTO tbl_user (user_id, password, real_name, role, gender, age, " +
-                    "email, phone, department, class_name, major, create_time, is_active) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), 1)";
-
-            stmt = conn.prepareStatement(sql);
-            stmt.setString(1, user.getUserId());
-            stmt.setString(2, user.getPassword());
-            stmt.setString(3, user.getRealName());
-            stmt.setString(4, user.getRole().name());
-            stmt.setString(5, user.getGender() != null ? user.getGender().name() : null);
-            stmt.setInt(6, user.getAge());
-            stmt.setString(7, user.getEmail());
-            stmt.setString(8, user.getPhone());
-            stmt.setString(9, user.getDepartment());
-            stmt.setString(10, user.getClassName());
-            stmt.setString(11, user.getMajor());
+            stmt = conn.prepareStatement(INSERT_USER_SQL);
+            bindNewUser(stmt, user);
 
             int result = stmt.executeUpdate();
             return result > 0;
@@ -92,6 +83,20 @@ public class UserService {
         }
     }
 
+    private void bindNewUser(PreparedStatement stmt, User user) throws SQLException {
+        stmt.setString(1, user.getUserId());
+        stmt.setString(2, user.getPassword());
+        stmt.setString(3, user.getRealName());
+        stmt.setString(4, user.getRole().name());
+        stmt.setString(5, user.getGender() != null ? user.getGender().name() : null);
+        stmt.setInt(6, user.getAge());
+        stmt.setString(7, user.getEmail());
+        stmt.setString(8, user.getPhone());
+        stmt.setString(9, user.getDepartment());
+        stmt.setString(10, user.getClassName());
+        stmt.setString(11, user.getMajor());
+    }
+
     /**
      * 更新用户信息
      */
@@ -196,58 +201,38 @@ public class UserService {
      */
     public List<User> getAllUsers() {
         List<User> users = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
         try {
-            conn = DatabaseHelper.getConnection();
-            String sql = "SELECT * FROM tbl_user ORDER BY create_time DESC";
-            stmt = conn.prepareStatement(sql);
-            rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                users.add(mapResultSetToUser(rs));
-            }
-
+            forEachUser(users::add);
+            return users;
         } catch (SQLException e) {
+            // 读到一半失败时不返回不完整的列表
             System.err.println("查询用户列表失败: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            DatabaseHelper.closeResources(conn, stmt, rs);
+            return new ArrayList<>();
         }
+    }
 
-        return users;
+    /**
+     * 逐个读取全部用户（流式读取，用于导出等大批量场景），返回读取的用户数
+     * 中途失败时抛出异常，由调用方丢弃已读取的部分
+     */
+    public long forEachUser(Consumer<User> action) throws SQLException {
+        return DatabaseHelper.forEach("SELECT * FROM tbl_user ORDER BY create_time DESC",
+                DatabaseHelper.STREAMING, this::mapResultSetToUser, action);
     }
 
     /**
      * 按角色查询用户
      */
     public List<User> getUsersByRole(User.Role role) {
-        List<User> users = new ArrayList<>();
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
         try {
-            conn = DatabaseHelper.getConnection();
-            String sql = "SELECT * FROM tbl_user WHERE role = ? ORDER BY create_time DESC";
-            stmt = conn.prepareStatement(sql);
-            stmt.setString(1, role.name());
-            rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                users.add(mapResultSetToUser(rs));
-            }
-
+            return DatabaseHelper.query("SELECT * FROM tbl_user WHERE role = ? ORDER BY create_time DESC",
+                    this::mapResultSetToUser, role.name());
         } catch (SQLException e) {
             System.err.println("按角色查询用户失败: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            DatabaseHelper.closeResources(conn, stmt, rs);
+            return new ArrayList<>();
         }
-
-        return users;
     }
 
     /**
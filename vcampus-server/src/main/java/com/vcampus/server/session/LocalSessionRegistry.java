@@ -0,0 +1,38 @@
+package com.vcampus.server.session;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内会话注册表，单机部署或同一进程内的多个节点使用
+ */
+public class LocalSessionRegistry implements SessionRegistry {
+
+    private final Map<String, SessionStore.Session> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public SessionStore.Session get(String token) {
+        return sessions.get(token);
+    }
+
+    @Override
+    public boolean add(SessionStore.Session session) {
+        return sessions.putIfAbsent(session.getToken(), session) == null;
+    }
+
+    @Override
+    public boolean remove(SessionStore.Session session) {
+        return sessions.remove(session.getToken(), session);
+    }
+
+    @Override
+    public Collection<SessionStore.Session> sessions() {
+        return sessions.values();
+    }
+
+    @Override
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,33 @@
+package com.vcampus.server.session;
+
+import java.util.Collection;
+
+/**
+ * 会话注册表
+ * 保存令牌到会话的映射；单机部署使用进程内实现，集群部署时各节点共用同一个注册表，
+ * 客户端重连到任意节点都能恢复会话
+ */
+public interface SessionRegistry {
+
+    SessionStore.Session get(String token);
+
+    /**
+     * 登记新会话，令牌已存在时返回false
+     */
+    boolean add(SessionStore.Session session);
+
+    /**
+     * 移除会话，令牌已对应其他会话时不移除
+     */
+    boolean remove(SessionStore.Session session);
+
+    /**
+     * 会话续期或用户信息变化后写回；进程内实现共享同一对象，无需操作
+     */
+    default void update(SessionStore.Session session) {
+    }
+
+    Collection<SessionStore.Session> sessions();
+
+    int size();
+}
@@ -0,0 +1,179 @@
+package com.vcampus.server.session;
+
+import com.vcampus.common.entity.User;
+import com.vcampus.common.util.WriteMark;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话存储
+ * 登录成功后签发随机会话令牌，客户端断线重连时凭令牌恢复登录状态，不再访问数据库；
+ * 会话按最后访问时间滑动过期，过期会话在访问或定期清理时移除。
+ * 会话保存在SessionRegistry中，集群部署时由各节点共用
+ */
+public class SessionStore {
+
+    // 会话空闲多久后失效（毫秒），每次请求都会续期
+    private static final long SESSION_TTL = Long.getLong("vcampus.session.ttl", 30 * 60_000L);
+
+    // 两次过期清理之间的最短间隔
+    private static final long PURGE_INTERVAL = 60_000;
+
+    // 续期写回注册表的最短间隔，避免每个请求都写共享存储
+    private static final long SHARE_INTERVAL = SESSION_TTL / 10;
+
+    private static final int TOKEN_BYTES = 16;
+
+    private final SecureRandom random = new SecureRandom();
+    private final SessionRegistry sessions;
+    private final AtomicLong nextPurge = new AtomicLong(System.currentTimeMillis() + PURGE_INTERVAL);
+
+    // 统计信息
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong resumedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    public SessionStore() {
+        this(new LocalSessionRegistry());
+    }
+
+    public SessionStore(SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * 为登录成功的用户创建会话
+     */
+    public Session create(User user) {
+        purgeIfDue();
+        Session session;
+        do {
+            session = new Session(newToken(), user);
+        } while (!sessions.add(session));
+        createdCount.incrementAndGet();
+        return session;
+    }
+
+    /**
+     * 按令牌恢复会话并续期；令牌不存在或已过期时返回null
+     */
+    public Session resume(String token) {
+        purgeIfDue();
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.isExpired(System.currentTimeMillis())) {
+            if (sessions.remove(session)) {
+                expiredCount.incrementAndGet();
+            }
+            return null;
+        }
+        touch(session);
+        resumedCount.incrementAndGet();
+        return session;
+    }
+
+    /**
+     * 使会话失效（用户登出或重新登录）
+     */
+    public void invalidate(Session session) {
+        if (session != null) {
+            sessions.remove(session);
+        }
+    }
+
+    /**
+     * 续期，连接上的每个请求都会调用；距上次写回超过一定间隔时写回注册表
+     */
+    public void touch(Session session) {
+        session.lastAccess = System.currentTimeMillis();
+        if (session.lastAccess - session.lastShared >= SHARE_INTERVAL) {
+            session.lastShared = session.lastAccess;
+            sessions.update(session);
+        }
+    }
+
+    /**
+     * 更新会话中的用户信息
+     */
+    public void update(Session session, User user) {
+        session.user = user;
+        session.lastShared = System.currentTimeMillis();
+        sessions.update(session);
+    }
+
+    /**
+     * 清理过期会话，最多每分钟执行一次，由调用线程顺带完成
+     */
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        long due = nextPurge.get();
+        if (now < due || !nextPurge.compareAndSet(due, now + PURGE_INTERVAL)) {
+            return;
+        }
+        for (Session session : sessions.sessions()) {
+            if (session.isExpired(now) && sessions.remove(session)) {
+                expiredCount.incrementAndGet();
+            }
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public String summary() {
+        return String.format("有效会话 %d，本节点创建 %d，恢复 %d，过期 %d", sessions.size(),
+                createdCount.get(), resumedCount.get(), expiredCount.get());
+    }
+
+    // Getter方法
+    public SessionRegistry getRegistry() { return sessions; }
+    public int getSessionCount() { return sessions.size(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getResumedCount() { return resumedCount.get(); }
+    public long getExpiredCount() { return expiredCount.get(); }
+
+    /**
+     * 一个登录会话，只保存令牌、用户信息、最后访问时间和最近写入时间
+     */
+    public static final class Session implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String token;
+        private volatile User user;
+        private volatile long lastAccess;
+
+        // 最近一次写主库的时间，读写分离时用于读己之写，断线重连后仍然有效
+        private final WriteMark writes = new WriteMark();
+
+        // 最近一次写回注册表的时间，只在本节点有意义
+        private transient volatile long lastShared;
+
+        Session(String token, User user) {
+            this.token = token;
+            this.user = user;
+            this.lastAccess = System.currentTimeMillis();
+            this.lastShared = lastAccess;
+        }
+
+        boolean isExpired(long now) {
+            return now - lastAccess > SESSION_TTL;
+        }
+
+        // Getter方法
+        public String getToken() { return token; }
+        public User getUser() { return user; }
+        public long getLastAccess() { return lastAccess; }
+        public WriteMark getWrites() { return writes; }
+    }
+}
@@ -0,0 +1,387 @@
+package com.vcampus.server.transfer;
+
+import com.vcampus.common.protocol.FileTransfers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 文件传输服务器
+ * 独立端口上按一次性令牌发送文件内容，使用FileChannel.transferTo（Linux上为sendfile）
+ * 直接从页缓存写入套接字，文件数据不经过Java堆；流量控制由TCP窗口完成，
+ * 另可限制并发传输数和单个传输的速率。
+ * 上传按固定大小的块接收，每块校验CRC32后直接写入暂存文件并确认偏移，完成时核对SHA-256
+ */
+public class FileTransferServer {
+
+    // 默认配置，可通过系统属性覆盖
+    private static final int MAX_CONCURRENT = Integer.getInteger("vcampus.transfer.maxConcurrent", 8);
+    private static final long CHUNK_SIZE = Long.getLong("vcampus.transfer.chunkSize", 1024 * 1024);
+    private static final long MAX_BYTES_PER_SECOND = Long.getLong("vcampus.transfer.maxBytesPerSecond", 0);
+    private static final long TICKET_TTL_MILLIS = Long.getLong("vcampus.transfer.ticketTtl", 60_000);
+    private static final int REQUEST_TIMEOUT = 10000;
+
+    // 上传配置
+    private static final int UPLOAD_CHUNK_SIZE = Integer.getInteger("vcampus.upload.chunkSize", 256 * 1024);
+    private static final long MAX_UPLOAD_SIZE = Long.getLong("vcampus.upload.maxSize", 2L * 1024 * 1024 * 1024);
+    private static final long UPLOAD_SESSION_TTL = Long.getLong("vcampus.upload.sessionTtl", 24 * 3600_000L);
+    private static final Path SPOOL_DIR = Paths.get(System.getProperty("vcampus.upload.spoolDir",
+            Paths.get(System.getProperty("vcampus.files.root", "files"), ".uploads").toString()));
+    private static final int RECEIVE_BUFFER_SIZE = 64 * 1024;
+
+    private final int port;
+    private final ThreadPoolExecutor transferPool;
+
+    // 令牌 -> 待下载的文件
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    // 会话ID -> 进行中的上传，会话ID同时作为上传令牌
+    private final Map<String, UploadSession> uploads = new ConcurrentHashMap<>();
+
+    private volatile ServerSocketChannel serverChannel;
+    private volatile boolean running = false;
+
+    // 统计信息
+    private final AtomicInteger activeTransfers = new AtomicInteger();
+    private final AtomicLong completedTransfers = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong completedUploads = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    public FileTransferServer(int port) {
+        this.port = port;
+
+        // 不排队：并发传输已满时立即回复繁忙
+        AtomicInteger index = new AtomicInteger();
+        this.transferPool = new ThreadPoolExecutor(0, MAX_CONCURRENT, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "vcampus-transfer-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * 绑定端口并在后台线程中接受传输连接；port为0或指定端口已被占用时使用系统分配的端口
+     */
+    public void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(port));
+        } catch (BindException e) {
+            if (port == 0) {
+                throw e;
+            }
+            System.err.println("文件传输端口 " + port + " 已被占用，改用系统分配的端口");
+            serverChannel.bind(new InetSocketAddress(0));
+        }
+        running = true;
+
+        Thread acceptThread = new Thread(this::acceptLoop, "vcampus-transfer-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                try {
+                    transferPool.execute(() -> serve(channel));
+                } catch (RejectedExecutionException e) {
+                    reject(channel, FileTransfers.STATUS_BUSY);
+                }
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("接受传输连接时发生错误: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 登记一次下载，返回客户端连接传输端口时使用的一次性令牌
+     */
+    public String register(Path file) throws IOException {
+        long now = System.currentTimeMillis();
+        tickets.values().removeIf(ticket -> ticket.expiresAt < now);
+
+        String token = UUID.randomUUID().toString();
+        tickets.put(token, new Ticket(file, Files.size(file), now + TICKET_TTL_MILLIS));
+        return token;
+    }
+
+    /**
+     * 创建上传会话；同一用户对同一文件（名称、大小、SHA-256一致）未完成的会话直接续用
+     */
+    public UploadSession openUpload(String owner, String fileName, long size, String sha256) throws IOException {
+        if (size <= 0 || size > MAX_UPLOAD_SIZE) {
+            throw new IOException("文件大小超出限制（最大 " + MAX_UPLOAD_SIZE / 1024 / 1024 + "MB）");
+        }
+
+        long now = System.currentTimeMillis();
+        uploads.values().removeIf(session -> {
+            if (!session.isExpired(now, UPLOAD_SESSION_TTL)) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(session.getSpoolFile());
+            } catch (IOException e) {
+                System.err.println("删除过期上传文件失败: " + e.getMessage());
+            }
+            return true;
+        });
+
+        for (UploadSession session : uploads.values()) {
+            if (!session.isCompleted() && session.matches(owner, fileName, size, sha256)) {
+                return session;
+            }
+        }
+
+        Files.createDirectories(SPOOL_DIR);
+        String id = UUID.randomUUID().toString();
+        UploadSession session = new UploadSession(id, owner, fileName, size, sha256, SPOOL_DIR.resolve(id + ".part"));
+        uploads.put(id, session);
+        return session;
+    }
+
+    /**
+     * 取出已完成并通过校验的上传，之后由调用方移动暂存文件；未完成或不属于该用户时返回null
+     */
+    public UploadSession takeCompletedUpload(String id, String owner) {
+        UploadSession session = uploads.get(id);
+        if (session == null || !session.isCompleted() || !session.getOwner().equals(owner)) {
+            return null;
+        }
+        return uploads.remove(id, session) ? session : null;
+    }
+
+    private void serve(SocketChannel channel) {
+        activeTransfers.incrementAndGet();
+        try (SocketChannel ch = channel) {
+            ch.socket().setSoTimeout(REQUEST_TIMEOUT);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(ch.socket().getInputStream()));
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(ch));
+
+            String token = in.readUTF();
+            long offset = in.readLong();
+
+            UploadSession upload = uploads.get(token);
+            if (upload != null) {
+                receive(upload, in, new DataOutputStream(new BufferedOutputStream(out, 16)));
+                return;
+            }
+
+            Ticket ticket = tickets.remove(token);
+            if (ticket == null || ticket.expiresAt < System.currentTimeMillis()
+                    || offset < 0 || offset > ticket.size) {
+                out.writeByte(FileTransfers.STATUS_INVALID);
+                out.writeLong(0);
+                return;
+            }
+
+            try (FileChannel file = FileChannel.open(ticket.file, StandardOpenOption.READ)) {
+                long remaining = ticket.size - offset;
+                out.writeByte(FileTransfers.STATUS_OK);
+                out.writeLong(remaining);
+                transfer(file, offset, remaining, ch);
+                completedTransfers.incrementAndGet();
+            } catch (IOException e) {
+                System.err.println("文件传输中断: " + ticket.file.getFileName() + " - " + e.getMessage());
+            }
+
+        } catch (IOException e) {
+            System.err.println("处理传输请求失败: " + e.getMessage());
+        } finally {
+            activeTransfers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 分块零拷贝写出；套接字发送缓冲区满时transferTo阻塞，速度跟随客户端的接收速度
+     */
+    private void transfer(FileChannel file, long position, long count, SocketChannel target) throws IOException {
+        long startNanos = System.nanoTime();
+        long sent = 0;
+        while (sent < count) {
+            long n = file.transferTo(position + sent, Math.min(CHUNK_SIZE, count - sent), target);
+            if (n <= 0 && !target.isOpen()) {
+                throw new ClosedChannelException();
+            }
+            sent += n;
+            bytesSent.addAndGet(n);
+            throttle(sent, startNanos);
+        }
+    }
+
+    /**
+     * 接收上传数据：每块先写入暂存文件，CRC32一致后才确认偏移并计入摘要；
+     * 出现任何错误都回复后关闭连接，由客户端重连后从已确认偏移继续
+     */
+    private void receive(UploadSession session, DataInputStream in, DataOutputStream out) throws IOException {
+        if (session.isCompleted()) {
+            reply(out, FileTransfers.STATUS_OK, session.getAcknowledged());
+            return;
+        }
+        if (!session.tryAcquire()) {
+            // 上一个连接可能尚未超时退出
+            reply(out, FileTransfers.STATUS_BUSY, session.getAcknowledged());
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(session.getSpoolFile(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            reply(out, FileTransfers.STATUS_OK, session.getAcknowledged());
+            byte[] buffer = new byte[RECEIVE_BUFFER_SIZE];
+
+            while (true) {
+                long offset = in.readLong();
+                int length = in.readInt();
+                long crc = in.readLong();
+                long acknowledged = session.getAcknowledged();
+
+                if (length == 0) {
+                    file.truncate(session.getSize());
+                    file.force(false);
+                    if (offset == acknowledged && session.verify()) {
+                        completedUploads.incrementAndGet();
+                        reply(out, FileTransfers.STATUS_OK, session.getAcknowledged());
+                    } else {
+                        System.err.println("上传文件校验失败: " + session.getFileName());
+                        reply(out, FileTransfers.STATUS_CHECKSUM, session.getAcknowledged());
+                    }
+                    return;
+                }
+
+                // 块必须紧接已确认偏移，且除最后一块外大小固定
+                if (offset != acknowledged || length != Math.min(UPLOAD_CHUNK_SIZE, session.getSize() - acknowledged)) {
+                    reply(out, FileTransfers.STATUS_INVALID, acknowledged);
+                    return;
+                }
+
+                MessageDigest digest = session.forkDigest();
+                CRC32 checksum = new CRC32();
+                long position = offset;
+                int remaining = length;
+                while (remaining > 0) {
+                    int n = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                    if (n < 0) {
+                        throw new EOFException("上传中断，已确认 " + acknowledged + "/" + session.getSize() + " 字节");
+                    }
+                    checksum.update(buffer, 0, n);
+                    digest.update(buffer, 0, n);
+                    ByteBuffer data = ByteBuffer.wrap(buffer, 0, n);
+                    while (data.hasRemaining()) {
+                        position += file.write(data, position);
+                    }
+                    remaining -= n;
+                }
+                bytesReceived.addAndGet(length);
+
+                if (checksum.getValue() != crc) {
+                    reply(out, FileTransfers.STATUS_CHECKSUM, acknowledged);
+                    return;
+                }
+                session.acknowledge(length, digest);
+                reply(out, FileTransfers.STATUS_OK, session.getAcknowledged());
+            }
+        } finally {
+            session.release();
+        }
+    }
+
+    private static void reply(DataOutputStream out, byte status, long value) throws IOException {
+        out.writeByte(status);
+        out.writeLong(value);
+        out.flush();
+    }
+
+    private void throttle(long sent, long startNanos) throws IOException {
+        if (MAX_BYTES_PER_SECOND <= 0) {
+            return;
+        }
+        long expectedNanos = sent * 1_000_000_000L / MAX_BYTES_PER_SECOND;
+        long aheadMillis = (expectedNanos - (System.nanoTime() - startNanos)) / 1_000_000;
+        if (aheadMillis > 0) {
+            try {
+                Thread.sleep(aheadMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("传输被中断");
+            }
+        }
+    }
+
+    private void reject(SocketChannel channel, byte status) {
+        try (SocketChannel ch = channel) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(ch));
+            out.writeByte(status);
+            out.writeLong(0);
+        } catch (IOException e) {
+            // 客户端已断开
+        }
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("关闭传输端口失败: " + e.getMessage());
+        }
+        transferPool.shutdownNow();
+        tickets.clear();
+    }
+
+    public String summary() {
+        return String.format("进行中 %d，已完成 %d，已发送 %d 字节；上传会话 %d，已完成上传 %d，已接收 %d 字节",
+                activeTransfers.get(), completedTransfers.get(), bytesSent.get(),
+                uploads.size(), completedUploads.get(), bytesReceived.get());
+    }
+
+    // Getter方法
+    public boolean isRunning() { return running; }
+    public int getPort() { return serverChannel != null ? serverChannel.socket().getLocalPort() : port; }
+    public int getUploadChunkSize() { return UPLOAD_CHUNK_SIZE; }
+    public int getActiveTransfers() { return activeTransfers.get(); }
+    public long getBytesSent() { return bytesSent.get(); }
+
+    private static final class Ticket {
+        final Path file;
+        final long size;
+        final long expiresAt;
+
+        Ticket(Path file, long size, long expiresAt) {
+            this.file = file;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
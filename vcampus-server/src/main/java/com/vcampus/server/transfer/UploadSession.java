@@ -0,0 +1,114 @@
+package com.vcampus.server.transfer;
+
+import com.vcampus.common.protocol.FileTransfers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 上传会话
+ * 数据按块写入暂存文件，已确认偏移之前的内容都通过了CRC校验，并已计入SHA-256摘要；
+ * 连接断开后从已确认偏移继续，同一时间只允许一个连接写入
+ */
+public class UploadSession {
+
+    private final String id;
+    private final String owner;
+    private final String fileName;
+    private final long size;
+    private final String sha256;
+    private final Path spoolFile;
+
+    // 以下状态只由持有active的传输线程修改
+    private MessageDigest digest;
+    private volatile long acknowledged;
+    private volatile boolean completed;
+    private volatile long lastActivity;
+
+    private final AtomicBoolean active = new AtomicBoolean();
+
+    UploadSession(String id, String owner, String fileName, long size, String sha256, Path spoolFile) {
+        this.id = id;
+        this.owner = owner;
+        this.fileName = fileName;
+        this.size = size;
+        this.sha256 = sha256;
+        this.spoolFile = spoolFile;
+        this.digest = newDigest();
+        this.lastActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * 是否为同一用户对同一文件的上传，用于客户端重启后续传
+     */
+    boolean matches(String owner, String fileName, long size, String sha256) {
+        return this.owner.equals(owner) && this.fileName.equals(fileName)
+                && this.size == size && this.sha256.equalsIgnoreCase(sha256);
+    }
+
+    boolean tryAcquire() {
+        return active.compareAndSet(false, true);
+    }
+
+    void release() {
+        lastActivity = System.currentTimeMillis();
+        active.set(false);
+    }
+
+    /**
+     * 当前摘要的副本，块校验通过后再替换，失败的块不影响摘要
+     */
+    MessageDigest forkDigest() throws IOException {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IOException("摘要算法不支持续传", e);
+        }
+    }
+
+    void acknowledge(long length, MessageDigest updated) {
+        digest = updated;
+        acknowledged += length;
+        lastActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * 核对整个文件的SHA-256；不一致时清空进度，需要重新上传
+     */
+    boolean verify() throws IOException {
+        if (acknowledged == size && FileTransfers.toHex(digest.digest()).equalsIgnoreCase(sha256)) {
+            completed = true;
+            return true;
+        }
+        acknowledged = 0;
+        digest = newDigest();
+        Files.deleteIfExists(spoolFile);
+        return false;
+    }
+
+    boolean isExpired(long now, long ttlMillis) {
+        return !active.get() && now - lastActivity > ttlMillis;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Getter方法
+    public String getId() { return id; }
+    public String getOwner() { return owner; }
+    public String getFileName() { return fileName; }
+    public long getSize() { return size; }
+    public String getSha256() { return sha256; }
+    public Path getSpoolFile() { return spoolFile; }
+    public long getAcknowledged() { return acknowledged; }
+    public boolean isCompleted() { return completed; }
+}
@@ -0,0 +1,29 @@
+package com.vcampus.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程支持（Java 21实现）
+ * 编译到多版本JAR的META-INF/versions/21目录
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     */
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器
+     */
+    static ExecutorService newPerTaskExecutor() {
+        return Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("vcampus-vt-", 1).factory());
+    }
+}
@@ -0,0 +1,49 @@
+package com.vcampus.server.cluster;
+
+import com.vcampus.common.entity.Message;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InProcessClusterTest {
+
+    @Test
+    void broadcastReachesOtherNodesOnly() throws Exception {
+        InProcessCluster cluster = new InProcessCluster("test");
+        BlockingQueue<ClusterEnvelope> inboxA = new LinkedBlockingQueue<>();
+        BlockingQueue<ClusterEnvelope> inboxB = new LinkedBlockingQueue<>();
+        BlockingQueue<ClusterEnvelope> inboxC = new LinkedBlockingQueue<>();
+        ClusterBus a = cluster.join("a", inboxA::add);
+        ClusterBus b = cluster.join("b", inboxB::add);
+        ClusterBus c = cluster.join("c", inboxC::add);
+        try {
+            a.send(ClusterEnvelope.broadcast("a", new Message(Message.Type.PUSH, "all"), null));
+            assertEquals("all", inboxB.poll(5, TimeUnit.SECONDS).getMessage().getData());
+            assertEquals("all", inboxC.poll(5, TimeUnit.SECONDS).getMessage().getData());
+
+            a.send(ClusterEnvelope.toClient("a", "c", "Client_1@c", new Message(Message.Type.PUSH, "one")));
+            assertEquals("Client_1@c", inboxC.poll(5, TimeUnit.SECONDS).getClientId());
+            assertNull(inboxB.poll(100, TimeUnit.MILLISECONDS));
+            assertNull(inboxA.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            a.close();
+            b.close();
+            c.close();
+        }
+    }
+
+    @Test
+    void duplicateNodeIdIsRejectedUntilItLeaves() throws Exception {
+        InProcessCluster cluster = new InProcessCluster("test");
+        ClusterBus first = cluster.join("a", envelope -> { });
+        assertThrows(IOException.class, () -> cluster.join("a", envelope -> { }));
+        first.close();
+        assertEquals(0, cluster.getMemberCount());
+        cluster.join("a", envelope -> { }).close();
+    }
+}
@@ -0,0 +1,237 @@
+package com.vcampus.server.cluster;
+
+import com.vcampus.common.entity.Message;
+import com.vcampus.common.entity.User;
+import com.vcampus.server.session.SessionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TcpClusterTest {
+
+    private static final String SECRET = "test-secret";
+
+    private final List<ClusterBus> buses = new ArrayList<>();
+
+    @AfterEach
+    void leave() {
+        buses.forEach(ClusterBus::close);
+    }
+
+    private ClusterBus join(TcpCluster cluster, String nodeId, BlockingQueue<ClusterEnvelope> inbox) throws IOException {
+        ClusterBus bus = cluster.join(nodeId, inbox::add);
+        buses.add(bus);
+        return bus;
+    }
+
+    private static InetSocketAddress local(int port) {
+        return new InetSocketAddress("127.0.0.1", port);
+    }
+
+    private static InetSocketAddress seed(TcpCluster cluster) {
+        return new InetSocketAddress("127.0.0.1", cluster.getPort());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void nodesConnectBothWaysFromOneSeed() throws Exception {
+        TcpCluster a = new TcpCluster("test", SECRET, local(0), List.of());
+        BlockingQueue<ClusterEnvelope> inboxA = new LinkedBlockingQueue<>();
+        ClusterBus busA = join(a, "a", inboxA);
+
+        // 只有b配置了种子，a应反向连接b
+        TcpCluster b = new TcpCluster("test", SECRET, local(0), List.of(seed(a)));
+        BlockingQueue<ClusterEnvelope> inboxB = new LinkedBlockingQueue<>();
+        ClusterBus busB = join(b, "b", inboxB);
+
+        await(() -> a.getConnectedNodes().contains("b") && b.getConnectedNodes().contains("a"));
+
+        busB.send(ClusterEnvelope.broadcast("b", new Message(Message.Type.PUSH, "hello"), "Client_1@b"));
+        ClusterEnvelope broadcast = inboxA.poll(5, TimeUnit.SECONDS);
+        assertNotNull(broadcast);
+        assertEquals(ClusterEnvelope.Kind.BROADCAST, broadcast.getKind());
+        assertEquals("b", broadcast.getSourceNode());
+        assertEquals("hello", broadcast.getMessage().getData());
+        assertEquals("Client_1@b", broadcast.getClientId());
+
+        busA.send(ClusterEnvelope.toClient("a", "b", "Client_2@b", new Message(Message.Type.PUSH, "direct")));
+        ClusterEnvelope direct = inboxB.poll(5, TimeUnit.SECONDS);
+        assertNotNull(direct);
+        assertEquals(ClusterEnvelope.Kind.CLIENT, direct.getKind());
+        assertEquals("Client_2@b", direct.getClientId());
+
+        // 发送方自己收不到
+        assertNull(inboxA.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void messagesArriveInSendOrder() throws Exception {
+        TcpCluster a = new TcpCluster("test", SECRET, local(0), List.of());
+        BlockingQueue<ClusterEnvelope> inboxA = new LinkedBlockingQueue<>();
+        join(a, "a", inboxA);
+        TcpCluster b = new TcpCluster("test", SECRET, local(0), List.of(seed(a)));
+        ClusterBus busB = join(b, "b", new LinkedBlockingQueue<>());
+        await(() -> b.getConnectedNodes().contains("a"));
+
+        for (int i = 0; i < 200; i++) {
+            busB.send(ClusterEnvelope.publish("b", List.of("topic"), "event", i));
+        }
+        for (int i = 0; i < 200; i++) {
+            ClusterEnvelope envelope = inboxA.poll(5, TimeUnit.SECONDS);
+            assertNotNull(envelope);
+            assertEquals(i, envelope.getPayload());
+        }
+    }
+
+    @Test
+    void sessionsReplicateAndLateJoinerReceivesExisting() throws Exception {
+        TcpCluster a = new TcpCluster("test", SECRET, local(0), List.of());
+        join(a, "a", new LinkedBlockingQueue<>());
+        SessionStore storeA = new SessionStore(a.getSessions());
+        SessionStore.Session early = storeA.create(new User("2021001", "secret", "张三", User.Role.STUDENT));
+
+        TcpCluster b = new TcpCluster("test", SECRET, local(0), List.of(seed(a)));
+        join(b, "b", new LinkedBlockingQueue<>());
+        SessionStore storeB = new SessionStore(b.getSessions());
+
+        // 连接建立时同步已有会话
+        await(() -> storeB.resume(early.getToken()) != null);
+        assertEquals("2021001", storeB.resume(early.getToken()).getUser().getUserId());
+
+        // 之后在b上登录的会话可以在a上恢复，登出后两边都失效
+        SessionStore.Session later = storeB.create(new User("T001", "secret", "李老师", User.Role.TEACHER));
+        await(() -> storeA.resume(later.getToken()) != null);
+        storeB.invalidate(later);
+        await(() -> storeA.resume(later.getToken()) == null);
+        assertNotNull(storeA.resume(early.getToken()));
+    }
+
+    @Test
+    void seedPointingAtSelfIsIgnored() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        TcpCluster a = new TcpCluster("test", SECRET, local(port), List.of(new InetSocketAddress("127.0.0.1", port)));
+        join(a, "a", new LinkedBlockingQueue<>());
+        TcpCluster b = new TcpCluster("test", SECRET, local(0), List.of(seed(a)));
+        join(b, "b", new LinkedBlockingQueue<>());
+
+        await(() -> a.getConnectedNodes().contains("b"));
+        Thread.sleep(300);
+        assertEquals(List.of("b"), a.getConnectedNodes());
+    }
+
+    @Test
+    void eachPairIsConnectedOnce() throws Exception {
+        TcpCluster a = new TcpCluster("test", SECRET, local(0), List.of());
+        join(a, "a", new LinkedBlockingQueue<>());
+        TcpCluster b = new TcpCluster("test", SECRET, local(0), List.of(seed(a)));
+        join(b, "b", new LinkedBlockingQueue<>());
+        await(() -> a.getConnectedNodes().contains("b") && b.getConnectedNodes().contains("a"));
+
+        // c以a、b为种子加入，a、b同时会反向连接c，每对节点之间只保留一条发送连接
+        TcpCluster c = new TcpCluster("test", SECRET, local(0), List.of(seed(a), seed(b)));
+        join(c, "c", new LinkedBlockingQueue<>());
+        await(() -> a.getConnectedNodes().contains("c") && b.getConnectedNodes().contains("c")
+                && c.getConnectedNodes().size() == 2);
+        Thread.sleep(300);
+        assertEquals(List.of("b", "c"), sorted(a.getConnectedNodes()));
+        assertEquals(List.of("a", "b"), sorted(c.getConnectedNodes()));
+    }
+
+    @Test
+    void differentClusterNameIsRejected() throws Exception {
+        TcpCluster a = new TcpCluster("test", SECRET, local(0), List.of());
+        join(a, "a", new LinkedBlockingQueue<>());
+        TcpCluster other = new TcpCluster("other", SECRET, local(0), List.of(seed(a)));
+        join(other, "x", new LinkedBlockingQueue<>());
+
+        Thread.sleep(500);
+        assertTrue(a.getConnectedNodes().isEmpty());
+        assertTrue(other.getConnectedNodes().isEmpty());
+    }
+
+    @Test
+    void peerWithWrongSecretIsRejected() throws Exception {
+        TcpCluster a = new TcpCluster("test", SECRET, local(0), List.of());
+        join(a, "a", new LinkedBlockingQueue<>());
+        SessionStore storeA = new SessionStore(a.getSessions());
+        TcpCluster forged = new TcpCluster("test", "guessed", local(0), List.of(seed(a)));
+        join(forged, "x", new LinkedBlockingQueue<>());
+
+        // 密钥不一致的节点无法连接，也就无法登记会话
+        SessionStore.Session session = new SessionStore(forged.getSessions())
+                .create(new User("admin", "secret", "管理员", User.Role.ADMIN));
+        Thread.sleep(500);
+        assertTrue(a.getConnectedNodes().isEmpty());
+        assertTrue(forged.getConnectedNodes().isEmpty());
+        assertNull(storeA.resume(session.getToken()));
+    }
+
+    @Test
+    void deserializationIsLimitedToClusterTypes() throws Exception {
+        Map<String, Object> change = new HashMap<>();
+        change.put("status", "已通过");
+        change.put("items", List.of(1, 2L, 3.0));
+        ClusterEnvelope envelope = ClusterEnvelope.publish("a", List.of("topic"), "event", change);
+        assertEquals(change, ((ClusterEnvelope) readFiltered(envelope)).getPayload());
+
+        List<Object> payload = new ArrayList<>();
+        payload.add(new File("x"));
+        assertThrows(InvalidClassException.class, () -> readFiltered(payload));
+    }
+
+    private static Object readFiltered(Object value) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            in.setObjectInputFilter(TcpCluster::filter);
+            return in.readObject();
+        }
+    }
+
+    @Test
+    void peersAreParsedFromProperty() {
+        List<InetSocketAddress> peers = TcpCluster.parsePeers(" host1:7001, 10.0.0.2:7002 ,");
+        assertEquals(2, peers.size());
+        assertEquals("host1", peers.get(0).getHostString());
+        assertEquals(7001, peers.get(0).getPort());
+        assertEquals(7002, peers.get(1).getPort());
+        assertThrows(IllegalArgumentException.class, () -> TcpCluster.parsePeers("nohost"));
+    }
+
+    private static List<String> sorted(List<String> nodes) {
+        List<String> copy = new ArrayList<>(nodes);
+        copy.sort(null);
+        return copy;
+    }
+}
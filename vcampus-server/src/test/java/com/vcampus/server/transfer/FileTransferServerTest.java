@@ -0,0 +1,34 @@
+package com.vcampus.server.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTransferServerTest {
+
+    @Test
+    void portZeroBindsSystemAssignedPort() throws Exception {
+        FileTransferServer server = new FileTransferServer(0);
+        server.start();
+        try {
+            assertTrue(server.getPort() > 0);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void occupiedPortFallsBackInsteadOfFailing() throws Exception {
+        FileTransferServer first = new FileTransferServer(0);
+        first.start();
+        FileTransferServer second = new FileTransferServer(first.getPort());
+        try {
+            second.start();
+            assertTrue(second.isRunning());
+            assertNotEquals(first.getPort(), second.getPort());
+        } finally {
+            second.stop();
+            first.stop();
+        }
+    }
+}